@@ -0,0 +1,56 @@
+package com.app.cargarage.config;
+
+import com.app.cargarage.service.CredentialCache;
+import com.app.cargarage.service.PasswordVerificationExecutor;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Username and password authentication, used by Basic auth and by {@code /auth/login}. Credentials verified within the
+ * last {@code security.credential-cache.ttl} are accepted from the {@link CredentialCache}; all others are checked by
+ * the regular {@link DaoAuthenticationProvider} on the {@link PasswordVerificationExecutor}, so the number of BCrypt
+ * hashes in flight stays bounded.
+ */
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+    private final CredentialCache credentialCache;
+    private final PasswordVerificationExecutor passwordVerificationExecutor;
+
+    public CachingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                         CredentialCache credentialCache, PasswordVerificationExecutor passwordVerificationExecutor) {
+        this.credentialCache = credentialCache;
+        this.passwordVerificationExecutor = passwordVerificationExecutor;
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || !(credentials instanceof String)) {
+            return super.authenticate(authentication);
+        }
+        String password = (String) credentials;
+        UserDetails cached = credentialCache.get(username, password);
+        if (cached != null) {
+            return createSuccessAuthentication(cached, authentication, cached);
+        }
+        Authentication result;
+        try {
+            result = passwordVerificationExecutor.verify(() -> super.authenticate(authentication));
+        } catch (AuthenticationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AuthenticationServiceException(e.getMessage(), e);
+        }
+        if (result.getPrincipal() instanceof UserDetails) {
+            credentialCache.put(username, password, (UserDetails) result.getPrincipal());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,39 @@
+package com.app.cargarage.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entities take their ids from blocks handed out by the {@code id_generators} table instead of from auto-increment
+ * columns, which lets Hibernate batch their inserts. Rows written before the switch already use ids from the
+ * auto-increment counters, so every generator is moved past the highest id in its table before the first insert.
+ * Generators that are already ahead are left alone, which makes the migration a no-op on every start after the first.
+ * Like the other startup migrations it is skipped when {@code startup.migrations.enabled} is false.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "startup.migrations.enabled", havingValue = "true", matchIfMissing = true)
+public class IdGeneratorMigration implements InitializingBean {
+    private static final String[] TABLES = {"appointments", "cars", "car_document", "customers", "parts", "receipts",
+            "repair_operations", "schedule_repairing", "users", "vouchers"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String table : TABLES) {
+            Long nextId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1 from " + table, Long.class);
+            if (jdbcTemplate.update("update id_generators set next_val = ? where sequence_name = ? and next_val < ?", nextId, table, nextId) == 0) {
+                jdbcTemplate.update("insert into id_generators (sequence_name, next_val) select ?, ? from (select 1) seed"
+                        + " where not exists (select 1 from id_generators where sequence_name = ?)", table, nextId, table);
+            }
+        }
+    }
+}
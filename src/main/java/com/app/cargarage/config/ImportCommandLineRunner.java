@@ -0,0 +1,77 @@
+package com.app.cargarage.config;
+
+import com.app.cargarage.dto.ImportReport;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.service.ImportFormat;
+import com.app.cargarage.service.ImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Command line mode for large imports that should not go through HTTP:
+ * {@code java -jar car-garage.jar --import.file=fleet.csv --spring.main.web-application-type=none}. The format follows
+ * the file extension unless {@code import.format} is set to {@code csv} or {@code ndjson}. The report is printed to
+ * standard out, after which the application exits with status 0 when every row was imported or skipped as a
+ * duplicate and 1 otherwise.
+ */
+@Component
+@ConditionalOnProperty("import.file")
+public class ImportCommandLineRunner implements CommandLineRunner, ExitCodeGenerator {
+    private final ImportService importService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+    private final Path file;
+    private final String format;
+    private final boolean exitWhenDone;
+    private int exitCode;
+
+    public ImportCommandLineRunner(ImportService importService, ObjectMapper objectMapper, ApplicationContext applicationContext,
+                                   @Value("${import.file}") String file,
+                                   @Value("${import.format:}") String format,
+                                   @Value("${import.exit-when-done:true}") boolean exitWhenDone) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+        this.applicationContext = applicationContext;
+        this.file = Paths.get(file);
+        this.format = format;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        ImportFormat importFormat = StringUtils.hasText(format)
+                ? ImportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT))
+                : ImportFormat.fromFileName(file.getFileName().toString())
+                .orElseThrow(() -> new IllegalArgumentException("Cannot tell the format of " + file + ", set import.format to csv or ndjson"));
+        ResponseDto response;
+        try (InputStream content = Files.newInputStream(file)) {
+            response = importService.importCars(content, importFormat);
+        }
+        System.out.println(response.getMessage());
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(response.getResult()));
+        ImportReport report = (ImportReport) response.getResult();
+        exitCode = report.getFailed() == 0 && !report.isAborted() ? 0 : 1;
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, this));
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
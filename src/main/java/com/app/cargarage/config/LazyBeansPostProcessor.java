@@ -0,0 +1,34 @@
+package com.app.cargarage.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the beans listed in {@code startup.lazy-beans} as lazy, so rarely used controllers and the services only they
+ * use are created on their first request instead of during startup. Spring MVC still maps their routes at startup
+ * from the bean type alone.
+ */
+@Component
+@Profile("fast-startup")
+public class LazyBeansPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+    private String[] lazyBeans = new String[0];
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        lazyBeans = environment.getProperty("startup.lazy-beans", String[].class, new String[0]);
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        for (String beanName : lazyBeans) {
+            if (beanFactory.containsBeanDefinition(beanName.trim())) {
+                beanFactory.getBeanDefinition(beanName.trim()).setLazyInit(true);
+            }
+        }
+    }
+}
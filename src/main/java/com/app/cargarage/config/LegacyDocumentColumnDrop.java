@@ -0,0 +1,63 @@
+package com.app.cargarage.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * One-off schema step that drops the legacy {@code car_document.document} blob column once {@link LegacyDocumentMigration}
+ * has moved its content into the document store. Dropping the column cannot be undone, so it never runs as part of a
+ * normal start: after checking the moved documents, an operator runs the application once with
+ * {@code --migrations.drop-legacy-document-column=true}.
+ * <p>
+ * The step refuses to drop the column while any row still holds content in it, and records itself in
+ * {@code schema_migrations} under {@value #VERSION}, so running it again does nothing.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "migrations.drop-legacy-document-column", havingValue = "true")
+public class LegacyDocumentColumnDrop implements InitializingBean {
+    static final String VERSION = "drop-car-document-blob-column";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<LegacyDocumentMigration> legacyDocumentMigration;
+
+    public LegacyDocumentColumnDrop(JdbcTemplate jdbcTemplate, ObjectProvider<LegacyDocumentMigration> legacyDocumentMigration) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.legacyDocumentMigration = legacyDocumentMigration;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // when the startup migrations are enabled, the content has to be moved before the check below
+        legacyDocumentMigration.getIfAvailable();
+        jdbcTemplate.execute("create table if not exists schema_migrations (version varchar(64) not null primary key, applied_at timestamp not null)");
+        Integer applied = jdbcTemplate.queryForObject("select count(*) from schema_migrations where version = ?", Integer.class, VERSION);
+        if (applied != null && applied > 0) {
+            return;
+        }
+        Integer remaining;
+        try {
+            remaining = jdbcTemplate.queryForObject("select count(*) from car_document where document is not null", Integer.class);
+        } catch (BadSqlGrammarException e) {
+            remaining = 0;
+        }
+        if (remaining != null && remaining > 0) {
+            throw new IllegalStateException(remaining + " documents still have their content in car_document.document;"
+                    + " let the legacy document migration move them before dropping the column");
+        }
+        try {
+            jdbcTemplate.execute("alter table car_document drop column document");
+        } catch (BadSqlGrammarException e) {
+            // created without the legacy column
+        }
+        jdbcTemplate.update("insert into schema_migrations (version, applied_at) values (?, ?)", VERSION, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,127 @@
+package com.app.cargarage.config;
+
+import com.app.cargarage.service.DocumentStore;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Brings documents stored by earlier versions in line with the current model:
+ * <ul>
+ *     <li>documents referenced by the old {@code cars.car_document_id} column become version 1 of a document of that
+ *     car, and documents no car referenced any more are dropped after giving up their {@code document_blobs}
+ *     references, so content only they used is swept from the store;</li>
+ *     <li>content still in the old {@code car_document.document} blob column is moved into the {@link DocumentStore},
+ *     one row at a time; the emptied column is kept until an operator drops it with
+ *     {@link LegacyDocumentColumnDrop};</li>
+ *     <li>every stored content hash gets a {@code document_blobs} row counting the documents that use it, and rows
+ *     written before content could be kept compressed get the size of their stored file.</li>
+ * </ul>
+ * Each step only touches rows that were not migrated yet, so the migration is a no-op once everything has moved, and
+ * databases created without the legacy columns are left alone.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "startup.migrations.enabled", havingValue = "true", matchIfMissing = true)
+public class LegacyDocumentMigration implements InitializingBean {
+    private final JdbcTemplate jdbcTemplate;
+    private final DocumentStore documentStore;
+
+    public LegacyDocumentMigration(JdbcTemplate jdbcTemplate, DocumentStore documentStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.documentStore = documentStore;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        linkDocumentsToCars();
+        moveBlobsToDocumentStore();
+        jdbcTemplate.update("update car_document set version = 1 where version = 0");
+        jdbcTemplate.update("insert into document_blobs (content_hash, content_length, ref_count, created_at)"
+                + " select d.content_hash, max(d.content_length), count(*), ? from car_document d"
+                + " where d.content_hash is not null"
+                + " and not exists (select 1 from document_blobs b where b.content_hash = d.content_hash)"
+                + " group by d.content_hash", Timestamp.valueOf(LocalDateTime.now()));
+        fillStoredLengths();
+    }
+
+    private void moveBlobsToDocumentStore() {
+        List<Long> documentIds;
+        try {
+            documentIds = jdbcTemplate.queryForList(
+                    "select id from car_document where content_hash is null and document is not null", Long.class);
+        } catch (BadSqlGrammarException e) {
+            return;
+        }
+        for (Long documentId : documentIds) {
+            DocumentStore.StoredDocument storedDocument = jdbcTemplate.query(
+                    "select document, document_type from car_document where id = ?",
+                    resultSet -> {
+                        if (!resultSet.next()) {
+                            return null;
+                        }
+                        try (InputStream content = resultSet.getBinaryStream(1)) {
+                            return documentStore.store(content, resultSet.getString(2));
+                        } catch (IOException e) {
+                            throw new IllegalStateException("Could not move document " + documentId + " to the document store", e);
+                        }
+                    },
+                    documentId);
+            if (storedDocument != null) {
+                jdbcTemplate.update("update car_document set content_hash = ?, content_length = ?, uploaded_at = ?, document = null where id = ?",
+                        storedDocument.getContentHash(), storedDocument.getContentLength(), Timestamp.valueOf(LocalDateTime.now()), documentId);
+                // content that is counted already would be skipped by the count below
+                jdbcTemplate.update("update document_blobs set ref_count = ref_count + 1 where content_hash = ?", storedDocument.getContentHash());
+            }
+        }
+    }
+
+    private void linkDocumentsToCars() {
+        try {
+            jdbcTemplate.update("update car_document set car_id = (select c.id from cars c where c.car_document_id = car_document.id)"
+                    + " where car_id is null");
+            jdbcTemplate.update("update cars set car_document_id = null where car_document_id is not null");
+            // uploads replaced by a later one were left without a car and could never be reached again
+            releaseOrphanedContent();
+            jdbcTemplate.update("delete from car_document where car_id is null");
+        } catch (BadSqlGrammarException e) {
+            // created after documents moved to car_document.car_id
+        }
+    }
+
+    /**
+     * Counted content loses the references of the documents about to be deleted; content nobody counted yet gets a row
+     * with the references of the documents that stay, which may be none, so the sweep can remove it.
+     */
+    private void releaseOrphanedContent() {
+        jdbcTemplate.update("update document_blobs set ref_count = greatest(ref_count - (select count(*) from car_document d"
+                + " where d.content_hash = document_blobs.content_hash and d.car_id is null), 0)"
+                + " where content_hash in (select d.content_hash from car_document d where d.car_id is null)");
+        jdbcTemplate.update("insert into document_blobs (content_hash, content_length, ref_count, created_at)"
+                + " select d.content_hash, max(d.content_length), sum(case when d.car_id is null then 0 else 1 end), ?"
+                + " from car_document d"
+                + " where d.content_hash in (select o.content_hash from car_document o where o.car_id is null)"
+                + " and not exists (select 1 from document_blobs b where b.content_hash = d.content_hash)"
+                + " group by d.content_hash", Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private void fillStoredLengths() {
+        for (String contentHash : jdbcTemplate.queryForList("select content_hash from document_blobs where stored_length is null", String.class)) {
+            try {
+                jdbcTemplate.update("update document_blobs set stored_length = ? where content_hash = ?",
+                        documentStore.loadStored(contentHash).contentLength(), contentHash);
+            } catch (IOException e) {
+                // content that went missing keeps an unknown size
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.app.cargarage.config;
+
+import com.app.cargarage.service.RateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Refuses requests of authenticated users that exceed their {@link RateLimiter} budget with 429 and a Retry-After, before
+ * they reach a controller or take a database connection. Unauthenticated requests pass; the security chain turns them
+ * away anyway.
+ * <p>
+ * Not a bean on purpose: Spring Boot would otherwise also register it as a servlet filter outside the security chain.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long wait = rateLimiter.tryAcquire(authentication, request.getRequestURI(), request.getContextPath().length());
+        if (wait > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, try again later");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
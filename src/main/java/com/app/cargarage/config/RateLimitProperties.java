@@ -0,0 +1,42 @@
+package com.app.cargarage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request limits per role and route group, for example:
+ * <pre>
+ * rate-limit.groups.lists=/car/list,/receipts/list
+ * rate-limit.roles.cashier.lists.rate=5
+ * rate-limit.roles.cashier.lists.burst=20
+ * </pre>
+ * A group is a list of path prefixes; the longest matching prefix decides the group of a request. Roles are named
+ * without their {@code ROLE_} prefix. A role without a limit on a group is not limited there, and a user with several
+ * roles gets the most generous of their limits.
+ */
+@Data
+@Component
+@ConfigurationProperties("rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private int maxUsers = 10_000;
+    private Map<String, List<String>> groups = new LinkedHashMap<>();
+    private Map<String, Map<String, Limit>> roles = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+        /**
+         * Requests per second allowed on average.
+         */
+        private double rate;
+        /**
+         * Requests allowed back to back after a quiet period.
+         */
+        private int burst = 1;
+    }
+}
@@ -0,0 +1,39 @@
+package com.app.cargarage.config;
+
+import com.app.cargarage.model.RepairStatus;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.StringJoiner;
+
+/**
+ * Rewrites the free-text repair statuses stored before the column became an enum to the enum names, so the
+ * {@code repair_status} index can be used with plain equality. Statements only touch rows that are not migrated yet,
+ * which makes the migration a no-op on every start after the first. Runs once the schema is up to date and before
+ * anything reads cars.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "startup.migrations.enabled", havingValue = "true", matchIfMissing = true)
+public class RepairStatusMigration implements InitializingBean {
+    private final JdbcTemplate jdbcTemplate;
+
+    public RepairStatusMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        StringJoiner names = new StringJoiner("', '", "('", "')");
+        StringJoiner cases = new StringJoiner(" ", "case ", " else null end");
+        for (RepairStatus status : RepairStatus.values()) {
+            names.add(status.name());
+            cases.add("when upper(replace(replace(trim(repair_status), ' ', '_'), '-', '_')) = '" + status.name() + "' then '" + status.name() + "'");
+        }
+        jdbcTemplate.update("update cars set repair_status = " + cases
+                + " where repair_status is not null and repair_status not in " + names);
+    }
+}
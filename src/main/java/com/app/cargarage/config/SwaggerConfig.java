@@ -0,0 +1,19 @@
+package com.app.cargarage.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import springfox.documentation.swagger2.annotations.EnableSwagger2;
+
+/**
+ * Springfox scans every controller when the context starts. The fast-startup profile turns this off with
+ * {@code api-docs.runtime-scan=false} and serves the copy that {@code ApiDocsGenerator} writes in the
+ * {@code prepare-package} phase from {@code /api-docs.json} instead. Without a web server, such as in the command line
+ * import mode, there is nothing to document.
+ */
+@Configuration
+@EnableSwagger2
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "api-docs.runtime-scan", havingValue = "true", matchIfMissing = true)
+public class SwaggerConfig {
+}
@@ -1,11 +1,19 @@
 package com.app.cargarage.config;
 
+import com.app.cargarage.service.CredentialCache;
+import com.app.cargarage.service.PasswordVerificationExecutor;
+import com.app.cargarage.service.RateLimiter;
+import com.app.cargarage.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,6 +23,10 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import javax.servlet.http.HttpServletResponse;
 
 @Configuration
 @EnableWebSecurity
@@ -25,6 +37,26 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     UserDetailsService userDetailsService;
 
+    @Autowired
+    TokenService tokenService;
+
+    @Autowired
+    CredentialCache credentialCache;
+
+    @Autowired
+    PasswordVerificationExecutor passwordVerificationExecutor;
+
+    @Autowired
+    RateLimiter rateLimiter;
+
+    @Autowired
+    RateLimitProperties rateLimitProperties;
+
+    @Value("${security.basic-auth.enabled}")
+    boolean basicAuthEnabled;
+
+    private static final String PASSWORD_CHECK_RETRY_AFTER_SECONDS = "1";
+
     private static final String[] AUTH_WHITELIST = {
 
             "/v2/api-docs",
@@ -35,7 +67,8 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
             "/swagger-ui.html",
             "/webjars/**",
             "/v3/api-docs/**",
-            "/swagger-ui/**"
+            "/swagger-ui/**",
+            "/api-docs.json"
 
     };
 
@@ -48,7 +81,8 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
      */
     @Override
     public void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(encoder());
+        auth.authenticationProvider(new CachingAuthenticationProvider(userDetailsService, encoder(),
+                credentialCache, passwordVerificationExecutor));
     }
 
     /**
@@ -63,22 +97,62 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
         http.csrf().disable()
                 .authorizeRequests()
                 .antMatchers(AUTH_WHITELIST).permitAll()
+                .antMatchers(HttpMethod.POST, "/auth/login", "/auth/refresh").permitAll()
                 .antMatchers("/appointments/**").hasAnyRole("MECHANIC", "ADMINISTRATIVE","ADMIN")
                 .antMatchers("/car/addRepairingActionsInCar/**", "/car/installPartsInCar/**").hasAnyRole("MECHANIC","ADMIN")
-                .antMatchers("/car/list", "/car/list/repairedCars/**", "/car/list/unRepairedCars/**").hasAnyRole("CASHIER", "MECHANIC", "ADMINISTRATIVE", "ADMIN")
+                .antMatchers("/car/list", "/car/detail", "/car/autocomplete", "/car/status/counts", "/car/list/repairedCars/**", "/car/list/unRepairedCars/**").hasAnyRole("CASHIER", "MECHANIC", "ADMINISTRATIVE", "ADMIN")
                 .antMatchers("/car/changeStatusToRepaired/**").hasAnyRole("MECHANIC", "ADMINISTRATIVE", "ADMIN")
                 .antMatchers("/car/**").hasAnyRole("ADMINISTRATIVE", "ADMIN")
                 .antMatchers("/customer/list").hasAnyRole("MECHANIC", "ADMINISTRATIVE", "ADMIN")
                 .antMatchers("/customer/**").hasAnyRole("ADMINISTRATIVE", "ADMIN")
                 .antMatchers("/receipts/**").hasAnyRole("CASHIER", "ADMIN")
                 .antMatchers("/repairOperations/**").hasAnyRole("BACKOFFICE", "MECHANIC","ADMIN")
+                .antMatchers("/parts/catalog/**").hasAnyRole("BACKOFFICE", "ADMIN")
                 .antMatchers("/parts/**").hasAnyRole("BACKOFFICE", "MECHANIC","ADMIN")
                 .antMatchers("/repairSchedule/**").hasAnyRole("ADMINISTRATIVE", "ADMIN")
                 .antMatchers("/vouchers/**").hasAnyRole("MECHANIC", "CASHIER","ADMIN")
+                .antMatchers("/export/**").hasAnyRole("ADMINISTRATIVE", "ADMIN")
+                .antMatchers("/import/**").hasAnyRole("ADMINISTRATIVE", "ADMIN")
+                .antMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest()
                 .authenticated()
                 .and()
-                .httpBasic();
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class);
+        if (rateLimitProperties.isEnabled()) {
+            http.addFilterAfter(new RateLimitFilter(rateLimiter), BasicAuthenticationFilter.class);
+        }
+        if (basicAuthEnabled) {
+            BasicAuthenticationEntryPoint basicEntryPoint = new BasicAuthenticationEntryPoint();
+            basicEntryPoint.setRealmName("Realm");
+            http.httpBasic().authenticationEntryPoint((request, response, e) -> {
+                if (e instanceof PasswordVerificationExecutor.BusyException) {
+                    response.setHeader(HttpHeaders.RETRY_AFTER, PASSWORD_CHECK_RETRY_AFTER_SECONDS);
+                    response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+                } else {
+                    basicEntryPoint.commence(request, response, e);
+                }
+            });
+        } else {
+            http.exceptionHandling().authenticationEntryPoint((request, response, e) -> {
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
+            });
+        }
+    }
+
+    /**
+     * De AuthenticationManager wordt bij het inloggen gebruikt om het wachtwoord één keer te controleren,
+     * daarna gaat elk verzoek met een token.
+     *
+     * @return
+     * @throws Exception
+     */
+    @Bean
+    @Override
+    public AuthenticationManager authenticationManagerBean() throws Exception {
+        return super.authenticationManagerBean();
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.app.cargarage.controller;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Appointment;
 import com.app.cargarage.service.AppointmentServiceImpl;
@@ -23,8 +24,8 @@ public class AppointmentController {
     }
 
     @GetMapping("/list")
-    public ResponseDto listOfAppointments() {
-        return appointmentService.listOfAppointments();
+    public ResponseDto listOfAppointments(PageQuery pageQuery, @RequestParam(name = "customer_id", required = false) Long customerId) {
+        return appointmentService.listOfAppointments(pageQuery, customerId);
     }
 
     @PutMapping("/update")
@@ -0,0 +1,38 @@
+package com.app.cargarage.controller;
+
+import com.app.cargarage.dto.LoginRequest;
+import com.app.cargarage.dto.RefreshRequest;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.service.AuthenticationServiceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AuthenticationServiceImpl authenticationService;
+
+    public AuthController(AuthenticationServiceImpl authenticationService) {
+        this.authenticationService = authenticationService;
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<ResponseDto> login(@RequestBody LoginRequest loginRequest) {
+        ResponseDto response = authenticationService.login(loginRequest);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode());
+        if (response.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            builder.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        return builder.body(response);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<ResponseDto> refresh(@RequestBody RefreshRequest refreshRequest) {
+        ResponseDto response = authenticationService.refresh(refreshRequest);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+}
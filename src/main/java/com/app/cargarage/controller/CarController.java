@@ -1,13 +1,20 @@
 package com.app.cargarage.controller;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Appointment;
 import com.app.cargarage.model.Car;
 import com.app.cargarage.service.CarServiceImpl;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.util.List;
+
 @RestController
 @RequestMapping("/car")
 public class CarController {
@@ -27,19 +34,49 @@ public class CarController {
         return carService.uploadDocument(licensePlate, document);
     }
 
+    /**
+     * Takes the document as the raw request body instead of a multipart form, so it streams straight into the document
+     * store without being buffered by the servlet container first.
+     */
+    @PostMapping("/uploadDocument/stream")
+    public ResponseDto uploadDocumentStream(@RequestParam(name = "licensePlate") String licensePlate,
+                                            @RequestParam(name = "fileName") String fileName,
+                                            @RequestHeader(name = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                            @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength,
+                                            InputStream content) {
+        return carService.uploadDocumentStream(licensePlate, fileName, contentType, contentLength, content);
+    }
+
     @PostMapping("/addRepairingActionsInCar")
     public ResponseDto addRepairingActionsInCar(@RequestParam(name = "licensePlate") String licensePlate, @RequestParam(name = "operation_id") long repairingOperationId) {
         return carService.addRepairingActionsInCar(licensePlate, repairingOperationId);
     }
 
     @PostMapping("/installPartsInCar")
-    public ResponseDto installPartsInCar(@RequestParam(name = "licensePlate") String licensePlate, @RequestParam(name = "part_id") long partId) {
-        return carService.installPartsInCar(licensePlate, partId);
+    public ResponseDto installPartsInCar(@RequestParam(name = "licensePlate") String licensePlate,
+                                         @RequestParam(name = "part_id") long partId,
+                                         @RequestParam(name = "quantity", defaultValue = "1") int quantity) {
+        return carService.installPartsInCar(licensePlate, partId, quantity);
     }
 
     @GetMapping("/list")
-    public ResponseDto listOfCars() {
-        return carService.listOfCars();
+    public ResponseDto listOfCars(PageQuery pageQuery, @RequestParam(name = "repairStatus", required = false) String repairStatus) {
+        return carService.listOfCars(pageQuery, repairStatus);
+    }
+
+    @GetMapping("/detail")
+    public ResponseDto getCarDetail(@RequestParam(name = "licensePlate") String licensePlate) {
+        return carService.getCarDetail(licensePlate);
+    }
+
+    @GetMapping("/status/counts")
+    public ResponseDto getRepairStatusCounts() {
+        return carService.getRepairStatusCounts();
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseDto autocompleteLicensePlates(@RequestParam(name = "prefix") String prefix, @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return carService.autocompleteLicensePlates(prefix, limit);
     }
 
     @GetMapping("/getCustomerByLicensePlate")
@@ -47,9 +84,19 @@ public class CarController {
         return carService.getCustomerByCarLicensePlate(licensePlate);
     }
 
+    @GetMapping("/documents")
+    public ResponseDto listDocuments(@RequestParam(name = "licensePlate") String licensePlate) {
+        return carService.listDocuments(licensePlate);
+    }
+
     @GetMapping("/document/getByLicensePlate/{licensePlate}")
-    public ResponseEntity<byte[]> getDocumentsByCarLicensePlate(@PathVariable(name = "licensePlate") String licensePlate) {
-        return carService.getDocumentsByCarLicensePlate(licensePlate);
+    public ResponseEntity<Resource> getDocumentsByCarLicensePlate(@PathVariable(name = "licensePlate") String licensePlate, WebRequest request) {
+        return carService.getDocumentsByCarLicensePlate(licensePlate, request);
+    }
+
+    @GetMapping("/document/{documentId}")
+    public ResponseEntity<Resource> getDocument(@PathVariable(name = "documentId") long documentId, WebRequest request) {
+        return carService.getDocument(documentId, request);
     }
 
     @PutMapping("/update")
@@ -62,6 +109,11 @@ public class CarController {
         return carService.deleteCar(licensePlate);
     }
 
+    @PostMapping("/delete/bulk")
+    public ResponseDto deleteAll(@RequestBody List<String> licensePlates) {
+        return carService.deleteCars(licensePlates);
+    }
+
     @GetMapping("/list/repairedCars")
     public ResponseDto listOfRepairedCars() {
         return carService.getAllRepairedCarsList();
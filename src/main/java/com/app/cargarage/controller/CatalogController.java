@@ -0,0 +1,30 @@
+package com.app.cargarage.controller;
+
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.service.CatalogSyncServiceImpl;
+import com.app.cargarage.service.ImportFormat;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/parts/catalog")
+public class CatalogController {
+    private final CatalogSyncServiceImpl catalogSyncService;
+
+    public CatalogController(CatalogSyncServiceImpl catalogSyncService) {
+        this.catalogSyncService = catalogSyncService;
+    }
+
+    @PostMapping(consumes = "text/csv")
+    public ResponseDto syncCatalogFromCsv(InputStream content) {
+        return catalogSyncService.syncCatalog(content, ImportFormat.CSV);
+    }
+
+    @PostMapping(consumes = {"application/x-ndjson", "application/jsonl"})
+    public ResponseDto syncCatalogFromNdjson(InputStream content) {
+        return catalogSyncService.syncCatalog(content, ImportFormat.NDJSON);
+    }
+}
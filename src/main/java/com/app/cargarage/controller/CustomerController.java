@@ -1,11 +1,14 @@
 package com.app.cargarage.controller;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Car;
 import com.app.cargarage.model.Customer;
 import com.app.cargarage.service.CustomerServiceImpl;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/customer")
 public class CustomerController {
@@ -21,8 +24,8 @@ public class CustomerController {
     }
 
     @GetMapping("/list")
-    public ResponseDto listOfCustomers() {
-        return customerService.listOfCustomers();
+    public ResponseDto listOfCustomers(PageQuery pageQuery, @RequestParam(name = "surname", required = false) String surname) {
+        return customerService.listOfCustomers(pageQuery, surname);
     }
 
     @PutMapping("/update")
@@ -34,4 +37,9 @@ public class CustomerController {
     public ResponseDto delete(@RequestParam(name = "customerId") long customerId) {
         return customerService.deleteCustomer(customerId);
     }
+
+    @PostMapping("/delete/bulk")
+    public ResponseDto deleteAll(@RequestBody List<Long> customerIds) {
+        return customerService.deleteCustomers(customerIds);
+    }
 }
@@ -0,0 +1,51 @@
+package com.app.cargarage.controller;
+
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.service.DocumentIngestionServiceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/car/document/batch")
+public class DocumentBatchController {
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final DocumentIngestionServiceImpl documentIngestionService;
+
+    public DocumentBatchController(DocumentIngestionServiceImpl documentIngestionService) {
+        this.documentIngestionService = documentIngestionService;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResponseDto> ingestFiles(MultipartHttpServletRequest request) {
+        return withStatus(documentIngestionService.ingestFiles(request.getMultiFileMap()));
+    }
+
+    @PostMapping(consumes = {"application/zip", "application/x-zip-compressed"})
+    public ResponseEntity<ResponseDto> ingestZip(InputStream content) {
+        return withStatus(documentIngestionService.ingestZip(content));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseDto getJob(@PathVariable(name = "jobId") String jobId) {
+        return documentIngestionService.getJob(jobId);
+    }
+
+    /**
+     * Batch clients are expected to back off, so the status also goes on the response itself, with a Retry-After
+     * when the ingestion queue is full.
+     */
+    private static ResponseEntity<ResponseDto> withStatus(ResponseDto response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode());
+        if (response.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            builder.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        return builder.body(response);
+    }
+}
@@ -0,0 +1,49 @@
+package com.app.cargarage.controller;
+
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.service.DocumentUploadServiceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/car/document/uploads")
+public class DocumentUploadController {
+    private final DocumentUploadServiceImpl documentUploadService;
+
+    public DocumentUploadController(DocumentUploadServiceImpl documentUploadService) {
+        this.documentUploadService = documentUploadService;
+    }
+
+    @PostMapping
+    public ResponseDto createSession(@RequestParam(name = "licensePlate") String licensePlate,
+                                     @RequestParam(name = "fileName") String fileName,
+                                     @RequestParam(name = "contentType", required = false) String contentType,
+                                     @RequestParam(name = "length") long length) {
+        return documentUploadService.createSession(licensePlate, fileName, contentType, length);
+    }
+
+    @PutMapping("/{sessionId}")
+    public ResponseDto writeChunk(@PathVariable(name = "sessionId") String sessionId,
+                                  @RequestParam(name = "offset") long offset,
+                                  @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength,
+                                  InputStream content) {
+        return documentUploadService.writeChunk(sessionId, offset, contentLength, content);
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseDto getSession(@PathVariable(name = "sessionId") String sessionId) {
+        return documentUploadService.getSession(sessionId);
+    }
+
+    @PostMapping("/{sessionId}/finalize")
+    public ResponseDto finalizeSession(@PathVariable(name = "sessionId") String sessionId) {
+        return documentUploadService.finalizeSession(sessionId);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseDto cancelSession(@PathVariable(name = "sessionId") String sessionId) {
+        return documentUploadService.cancelSession(sessionId);
+    }
+}
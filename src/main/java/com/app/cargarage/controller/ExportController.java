@@ -0,0 +1,39 @@
+package com.app.cargarage.controller;
+
+import com.app.cargarage.service.ExportServiceImpl;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ExportServiceImpl exportService;
+
+    public ExportController(ExportServiceImpl exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping(value = "/cars", produces = NDJSON)
+    public void exportCars(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        exportService.exportCars(response.getOutputStream());
+    }
+
+    @GetMapping(value = "/customers", produces = NDJSON)
+    public void exportCustomers(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        exportService.exportCustomers(response.getOutputStream());
+    }
+
+    @GetMapping(value = "/receipts", produces = NDJSON)
+    public void exportReceipts(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        exportService.exportReceipts(response.getOutputStream());
+    }
+}
@@ -0,0 +1,30 @@
+package com.app.cargarage.controller;
+
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.service.ImportFormat;
+import com.app.cargarage.service.ImportServiceImpl;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private final ImportServiceImpl importService;
+
+    public ImportController(ImportServiceImpl importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(value = "/cars", consumes = "text/csv")
+    public ResponseDto importCarsFromCsv(InputStream content) {
+        return importService.importCars(content, ImportFormat.CSV);
+    }
+
+    @PostMapping(value = "/cars", consumes = {"application/x-ndjson", "application/jsonl"})
+    public ResponseDto importCarsFromNdjson(InputStream content) {
+        return importService.importCars(content, ImportFormat.NDJSON);
+    }
+}
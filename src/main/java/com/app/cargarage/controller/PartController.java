@@ -1,5 +1,6 @@
 package com.app.cargarage.controller;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Customer;
 import com.app.cargarage.model.Part;
@@ -23,8 +24,8 @@ public class PartController {
     }
 
     @GetMapping("/list")
-    public ResponseDto listOfParts() {
-        return partService.list();
+    public ResponseDto listOfParts(PageQuery pageQuery, @RequestParam(name = "name", required = false) String name) {
+        return partService.list(pageQuery, name);
     }
 
     @GetMapping("/changeStockOfPart")
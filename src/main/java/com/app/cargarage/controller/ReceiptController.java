@@ -1,5 +1,6 @@
 package com.app.cargarage.controller;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Part;
 import com.app.cargarage.model.Receipt;
@@ -7,6 +8,8 @@ import com.app.cargarage.service.ReceiptServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/receipts")
 public class ReceiptController {
@@ -24,8 +27,10 @@ public class ReceiptController {
     }
 
     @GetMapping("/list")
-    public ResponseDto listOfReceipts() {
-        return receiptService.listReceipts();
+    public ResponseDto listOfReceipts(PageQuery pageQuery,
+                                      @RequestParam(name = "status", required = false) String status,
+                                      @RequestParam(name = "licensePlate", required = false) String licensePlate) {
+        return receiptService.listReceipts(pageQuery, status, licensePlate);
     }
 
     @GetMapping("/getReceiptsByLicensePlate")
@@ -42,4 +47,9 @@ public class ReceiptController {
     public ResponseDto delete(@RequestParam(name = "receiptId") long receiptId) {
         return receiptService.deleteReceipt(receiptId);
     }
+
+    @PostMapping("/delete/bulk")
+    public ResponseDto deleteAll(@RequestBody List<Long> receiptIds) {
+        return receiptService.deleteReceipts(receiptIds);
+    }
 }
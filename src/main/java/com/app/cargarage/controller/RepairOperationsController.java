@@ -1,5 +1,6 @@
 package com.app.cargarage.controller;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Receipt;
 import com.app.cargarage.model.RepairOperations;
@@ -21,8 +22,8 @@ public class RepairOperationsController {
     }
 
     @GetMapping("/list")
-    public ResponseDto listOfRepairOperations() {
-        return repairOperationsService.listOfRepairOperations();
+    public ResponseDto listOfRepairOperations(PageQuery pageQuery, @RequestParam(name = "repairAction", required = false) String repairAction) {
+        return repairOperationsService.listOfRepairOperations(pageQuery, repairAction);
     }
 
     @PutMapping("/update")
@@ -1,11 +1,14 @@
 package com.app.cargarage.controller;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.RepairOperations;
 import com.app.cargarage.model.ScheduleRepairing;
 import com.app.cargarage.service.ScheduleRepairingServiceImpl;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/repairSchedule")
 public class RepairScheduleController {
@@ -22,8 +25,8 @@ public class RepairScheduleController {
     }
 
     @GetMapping("/list")
-    public ResponseDto listOfRepairSchedules() {
-        return repairingService.listOfRepairSchedules();
+    public ResponseDto listOfRepairSchedules(PageQuery pageQuery, @RequestParam(name = "status", required = false) String status) {
+        return repairingService.listOfRepairSchedules(pageQuery, status);
     }
 
     @PutMapping("/update")
@@ -36,4 +39,9 @@ public class RepairScheduleController {
         return repairingService.deleteScheduleRepairing(repairingScheduleId);
     }
 
+    @PostMapping("/delete/bulk")
+    public ResponseDto deleteAll(@RequestBody List<Long> repairingScheduleIds) {
+        return repairingService.deleteScheduleRepairings(repairingScheduleIds);
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.app.cargarage.controller;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.ScheduleRepairing;
 import com.app.cargarage.model.Voucher;
@@ -7,6 +8,8 @@ import com.app.cargarage.service.VoucherServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/vouchers/")
 public class VoucherController {
@@ -19,8 +22,8 @@ public class VoucherController {
     }
 
     @GetMapping("/list")
-    public ResponseDto listOfVouchers() {
-        return voucherService.listOfVouchers();
+    public ResponseDto listOfVouchers(PageQuery pageQuery, @RequestParam(name = "licensePlate", required = false) String licensePlate) {
+        return voucherService.listOfVouchers(pageQuery, licensePlate);
     }
 
     @PutMapping("/update")
@@ -32,4 +35,9 @@ public class VoucherController {
     public ResponseDto delete(@RequestParam(name = "voucherId") long voucherId) {
         return voucherService.deleteVoucher(voucherId);
     }
+
+    @PostMapping("/delete/bulk")
+    public ResponseDto deleteAll(@RequestBody List<Long> voucherIds) {
+        return voucherService.deleteVouchers(voucherIds);
+    }
 }
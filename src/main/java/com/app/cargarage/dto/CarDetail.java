@@ -0,0 +1,46 @@
+package com.app.cargarage.dto;
+
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Part;
+import com.app.cargarage.model.RepairOperations;
+import com.app.cargarage.model.RepairStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One car with its owner, repair operations and installed parts. Built from a car whose associations
+ * were fetched up front, so serializing it never triggers a lazy load.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarDetail implements Serializable {
+    private long id;
+    private String licensePlate;
+    private RepairStatus repairStatus;
+    private Long customerId;
+    private String customerSurname;
+    private String customerPhoneNumber;
+    private List<RepairOperations> repairOperations;
+    private List<Part> parts;
+
+    public static CarDetail of(Car car) {
+        return CarDetail.builder()
+                .id(car.getId())
+                .licensePlate(car.getLicensePlate())
+                .repairStatus(car.getRepairStatus())
+                .customerId(car.getCustomer() == null ? null : car.getCustomer().getId())
+                .customerSurname(car.getCustomer() == null ? null : car.getCustomer().getSurname())
+                .customerPhoneNumber(car.getCustomer() == null ? null : car.getCustomer().getPhoneNumber())
+                .repairOperations(car.getRepairOperationsList() == null ? new ArrayList<>() : new ArrayList<>(car.getRepairOperationsList()))
+                .parts(car.getPartsList() == null ? new ArrayList<>() : new ArrayList<>(car.getPartsList()))
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.app.cargarage.dto;
+
+import com.app.cargarage.model.RepairStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Row of the car lists. Filled by a constructor expression, so a page is a single select with the customer joined.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarSummary implements Serializable {
+    private long id;
+    private String licensePlate;
+    private RepairStatus repairStatus;
+    private Long customerId;
+    private String customerSurname;
+}
@@ -0,0 +1,22 @@
+package com.app.cargarage.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One part of a supplier catalog, as a CSV record with a header row or an NDJSON object.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CatalogRow {
+    private String sku;
+    private String name;
+    private Double price;
+    private Integer stock;
+}
@@ -0,0 +1,37 @@
+package com.app.cargarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a catalog sync. {@code missing} counts parts with a supplier SKU that the catalog no longer lists; they
+ * are kept, since cars and receipts may still refer to them. Only the first {@code parts.catalog-max-reported-errors}
+ * failed rows are listed.
+ */
+@Data
+@NoArgsConstructor
+public class CatalogSyncReport implements Serializable {
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long missing;
+    private long failed;
+    private boolean aborted;
+    private long durationMillis;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError implements Serializable {
+        private long row;
+        private String sku;
+        private String message;
+    }
+}
@@ -0,0 +1,39 @@
+package com.app.cargarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of a keyset-paginated list. {@code hasMore} comes from fetching one row beyond the page size,
+ * so no count query is needed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+    private List<T> items;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor;
+
+    public static <T> CursorPage<T> of(Slice<T> slice, PageQuery pageQuery, ToLongFunction<T> idOf) {
+        List<T> items = slice.getContent();
+        String nextCursor = slice.hasNext() && !items.isEmpty()
+                ? pageQuery.nextCursor(idOf.applyAsLong(items.get(items.size() - 1)))
+                : null;
+        return CursorPage.<T>builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.app.cargarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of a bulk delete. {@code requested} counts the distinct keys that were sent; keys that matched nothing make
+ * up the difference with {@code deleted}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteReport implements Serializable {
+    private int requested;
+    private int deleted;
+}
@@ -0,0 +1,35 @@
+package com.app.cargarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a car import. Rows are numbered from one, not counting the CSV header. Only the first
+ * {@code import.max-reported-errors} failed rows are listed, so the report stays small for any file size;
+ * {@code failed} always counts all of them.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport implements Serializable {
+    private long rows;
+    private long imported;
+    private long duplicates;
+    private long customersCreated;
+    private long failed;
+    private boolean aborted;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError implements Serializable {
+        private long row;
+        private String licensePlate;
+        private String message;
+    }
+}
@@ -0,0 +1,23 @@
+package com.app.cargarage.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a car import: a CSV record with a header row or an NDJSON object. The customer fields are optional; a
+ * car without them is imported without an owner.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportRow {
+    private String licensePlate;
+    private String surname;
+    private String phoneNumber;
+    private String address;
+}
@@ -0,0 +1,29 @@
+package com.app.cargarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a batch ingestion job. The job is finished once every document is either stored or failed;
+ * {@code failures} names each failed document with the reason.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionJobStatus implements Serializable {
+    private String id;
+    private int total;
+    private int stored;
+    private int failed;
+    private boolean finished;
+    private List<String> failures;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
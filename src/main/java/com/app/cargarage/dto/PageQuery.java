@@ -0,0 +1,102 @@
+package com.app.cargarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset (seek) pagination request on the id column. The cursor is opaque for clients: it encodes the last id
+ * that was returned and the sort direction it was produced for, so following pages never use an OFFSET.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageQuery implements Serializable {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String ASCENDING = "asc";
+    private static final String DESCENDING = "desc";
+
+    private String cursor;
+    private Integer size;
+    private String sort;
+
+    public int limit() {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    public boolean descending() {
+        if (hasCursor()) {
+            return DESCENDING.equals(decodeCursor()[0]);
+        }
+        if (sort == null || sort.isEmpty() || ASCENDING.equalsIgnoreCase(sort)) {
+            return false;
+        }
+        if (DESCENDING.equalsIgnoreCase(sort)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Sort must be either 'asc' or 'desc'");
+    }
+
+    /**
+     * Exclusive lower bound of the id range for the requested page.
+     */
+    public long afterId() {
+        return hasCursor() && !descending() ? lastSeenId() : Long.MIN_VALUE;
+    }
+
+    /**
+     * Exclusive upper bound of the id range for the requested page.
+     */
+    public long beforeId() {
+        return hasCursor() && descending() ? lastSeenId() : Long.MAX_VALUE;
+    }
+
+    public Pageable toPageable() {
+        return PageRequest.of(0, limit(), descending() ? Sort.by(Sort.Direction.DESC, "id") : Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    public String nextCursor(long lastId) {
+        String raw = (descending() ? DESCENDING : ASCENDING) + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private boolean hasCursor() {
+        return cursor != null && !cursor.isEmpty();
+    }
+
+    private long lastSeenId() {
+        try {
+            return Long.parseLong(decodeCursor()[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private String[] decodeCursor() {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = raw.split(":");
+        if (parts.length != 2 || !(ASCENDING.equals(parts[0]) || DESCENDING.equals(parts[0]))) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+}
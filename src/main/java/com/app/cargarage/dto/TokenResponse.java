@@ -0,0 +1,23 @@
+package com.app.cargarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * The tokens issued at login or refresh. The access token goes in an {@code Authorization: Bearer} header and expires
+ * after {@code expiresIn} seconds; the refresh token only buys a new pair at {@code /auth/refresh}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenResponse implements Serializable {
+    private String accessToken;
+    private String refreshToken;
+    private String tokenType;
+    private long expiresIn;
+}
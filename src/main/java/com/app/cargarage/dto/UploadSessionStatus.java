@@ -0,0 +1,28 @@
+package com.app.cargarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a chunked upload. {@code missing} lists the byte ranges that still have to be sent, as
+ * {@code [start, end)} pairs; a client that lost its connection resumes by sending exactly those.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionStatus implements Serializable {
+    private String id;
+    private String licensePlate;
+    private String fileName;
+    private long length;
+    private long receivedBytes;
+    private List<long[]> missing;
+    private LocalDateTime expiresAt;
+}
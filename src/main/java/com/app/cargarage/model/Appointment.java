@@ -13,7 +13,9 @@ import javax.persistence.*;
 @Table(name = "appointments")
 public class Appointment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointments_ids")
+    @TableGenerator(name = "appointments_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "appointments", allocationSize = 50)
     private long id;
     private String description;
     @OneToOne(cascade = CascadeType.MERGE)
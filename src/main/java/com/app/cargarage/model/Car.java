@@ -14,25 +14,32 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "cars")
+@Table(name = "cars", indexes = @Index(name = "idx_cars_repair_status", columnList = "repair_status"))
 public class Car implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cars_ids")
+    @TableGenerator(name = "cars_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "cars", allocationSize = 50)
     private long id;
     @Column(unique = true)
     private String licensePlate;
-    private String repairStatus;
-
-    @OneToOne
-    CarDocument carDocument;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "repair_status", length = 32)
+    private RepairStatus repairStatus;
 
     @ManyToOne(targetEntity = Customer.class, cascade = CascadeType.MERGE, fetch = FetchType.EAGER)
     @JsonBackReference
     Customer customer;
 
     @ManyToMany(targetEntity = RepairOperations.class, cascade = CascadeType.MERGE, fetch = FetchType.LAZY)
+    @JoinTable(name = "cars_repair_operations_list",
+            joinColumns = @JoinColumn(name = "car_id"),
+            inverseJoinColumns = @JoinColumn(name = "repair_operations_list_id"))
     List<RepairOperations> repairOperationsList = new ArrayList<>();
 
     @ManyToMany(targetEntity = Part.class, fetch = FetchType.LAZY)
+    @JoinTable(name = "cars_parts_list",
+            joinColumns = @JoinColumn(name = "car_id"),
+            inverseJoinColumns = @JoinColumn(name = "parts_list_id"))
     List<Part> partsList = new ArrayList<>();
 }
@@ -4,30 +4,33 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
+@NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Builder
-@Table(name = "car_document")
+@Table(name = "car_document", uniqueConstraints = @UniqueConstraint(columnNames = {"car_id", "document_name", "version"}))
 public class CarDocument {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "car_document_ids")
+    @TableGenerator(name = "car_document_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "car_document", allocationSize = 50)
     private long id;
-    @JsonIgnore
     private String documentType;
+    @Column(name = "document_name")
     private String documentName;
+    private int version;
     @JsonIgnore
-    @Lob
-    private byte[] document;
-
-    public CarDocument() {
-    }
+    @Column(length = 64)
+    private String contentHash;
+    private long contentLength;
+    private LocalDateTime uploadedAt;
 
-    public CarDocument(String documentType, String documentName, byte[] document) {
-        this.documentType = documentType;
-        this.documentName = documentName;
-        this.document = document;
-    }
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "car_id")
+    @JsonIgnore
+    private Car car;
 }
@@ -0,0 +1,23 @@
+package com.app.cargarage.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "document_blobs")
+public class DocumentBlob {
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+    private long contentLength;
+    private Long storedLength;
+    private int refCount;
+    private LocalDateTime createdAt;
+}
@@ -13,9 +13,13 @@ import javax.persistence.*;
 @Table(name = "parts")
 public class Part {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "parts_ids")
+    @TableGenerator(name = "parts_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "parts", allocationSize = 50)
     private long id;
     private double price;
     private String name;
     private int stock;
+    @Column(name = "supplier_sku", unique = true, length = 64)
+    private String supplierSku;
 }
@@ -15,7 +15,9 @@ import java.util.List;
 @Table(name = "receipts")
 public class Receipt {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "receipts_ids")
+    @TableGenerator(name = "receipts_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "receipts", allocationSize = 50)
     private long id;
     private String status;
     private String carLicensePlate;
@@ -26,8 +28,14 @@ public class Receipt {
     private double totalAmountOfRepairing;
 
     @ManyToMany(targetEntity = RepairOperations.class, fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
+    @JoinTable(name = "receipts_repair_operations_list",
+            joinColumns = @JoinColumn(name = "receipt_id"),
+            inverseJoinColumns = @JoinColumn(name = "repair_operations_list_id"))
     List<RepairOperations> repairOperationsList = new ArrayList<>();
 
     @ManyToMany(targetEntity = Part.class, fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
+    @JoinTable(name = "receipts_parts_list",
+            joinColumns = @JoinColumn(name = "receipt_id"),
+            inverseJoinColumns = @JoinColumn(name = "parts_list_id"))
     List<Part> partsList = new ArrayList<>();
 }
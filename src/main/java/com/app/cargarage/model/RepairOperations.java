@@ -13,7 +13,9 @@ import javax.persistence.*;
 @Table(name = "repair_operations")
 public class RepairOperations {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "repair_operations_ids")
+    @TableGenerator(name = "repair_operations_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "repair_operations", allocationSize = 50)
     private long id;
     private double price;
     private String repairAction;
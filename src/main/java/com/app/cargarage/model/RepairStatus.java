@@ -0,0 +1,41 @@
+package com.app.cargarage.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+public enum RepairStatus {
+    PENDING("pending"),
+    UNDER_REPAIRING("Under Repairing"),
+    REPAIRED("repaired"),
+    NOT_CARRIED_OUT("Not Carried out");
+
+    private final String label;
+
+    RepairStatus(String label) {
+        this.label = label;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Accepts the enum name as well as the free-text labels the API used before, ignoring case, spaces and dashes.
+     */
+    @JsonCreator
+    public static RepairStatus fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String key = value.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+        for (RepairStatus status : values()) {
+            if (status.name().equals(key)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown repair status: " + value);
+    }
+}
@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
 @Table(name = "schedule_repairing")
 public class ScheduleRepairing {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "schedule_repairing_ids")
+    @TableGenerator(name = "schedule_repairing_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "schedule_repairing", allocationSize = 50)
     private long id;
     private LocalDateTime startDateTime;
     private LocalDateTime endDateTime;
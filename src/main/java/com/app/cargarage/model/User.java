@@ -1,5 +1,6 @@
 package com.app.cargarage.model;
 
+import com.app.cargarage.service.UserChangeListener;
 import lombok.*;
 
 import javax.persistence.*;
@@ -11,9 +12,12 @@ import javax.persistence.*;
 @Entity
 @Builder
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "users_ids")
+    @TableGenerator(name = "users_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "users", allocationSize = 50)
     private long id;
     private String fullName;
     @Column(unique = true)
@@ -13,7 +13,9 @@ import javax.persistence.*;
 @Table(name = "vouchers")
 public class Voucher {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "vouchers_ids")
+    @TableGenerator(name = "vouchers_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "vouchers", allocationSize = 50)
     private long id;
     private double price;
     @OneToOne(cascade = CascadeType.MERGE)
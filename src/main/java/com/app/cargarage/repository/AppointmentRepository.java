@@ -1,9 +1,21 @@
 package com.app.cargarage.repository;
 
 import com.app.cargarage.model.Appointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+    @Query("select a from Appointment a where a.id > :afterId and a.id < :beforeId and (:customerId is null or a.customer.id = :customerId)")
+    Slice<Appointment> findPage(@Param("afterId") long afterId, @Param("beforeId") long beforeId, @Param("customerId") Long customerId, Pageable pageable);
+
+    @Query("select distinct a.customer.id from Appointment a where a.customer.id in :customerIds")
+    List<Long> findCustomerIdsWithAppointments(@Param("customerIds") Collection<Long> customerIds);
 }
@@ -2,8 +2,27 @@ package com.app.cargarage.repository;
 
 import com.app.cargarage.model.CarDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CarDocumentRepository extends JpaRepository<CarDocument, Long> {
+    @Query("select d from CarDocument d where d.car.id = :carId order by d.documentName asc, d.version desc")
+    List<CarDocument> findAllByCarId(@Param("carId") long carId);
+
+    @Query("select d from CarDocument d where d.id = (select max(l.id) from CarDocument l where l.car.id = :carId)")
+    Optional<CarDocument> findLatestByCarId(@Param("carId") long carId);
+
+    @Query("select coalesce(max(d.version), 0) from CarDocument d where d.car.id = :carId and d.documentName = :documentName")
+    int findLatestVersion(@Param("carId") long carId, @Param("documentName") String documentName);
+
+    @Modifying
+    @Query("delete from CarDocument d where d.car.id in :carIds")
+    int deleteAllByCarIds(@Param("carIds") Collection<Long> carIds);
 }
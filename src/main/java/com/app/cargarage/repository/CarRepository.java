@@ -1,11 +1,27 @@
 package com.app.cargarage.repository;
 
+import com.app.cargarage.dto.CarSummary;
 import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.model.RepairStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface CarRepository extends JpaRepository<Car, Long> {
@@ -13,5 +29,96 @@ public interface CarRepository extends JpaRepository<Car, Long> {
 
     Car getCarByLicensePlate(String licensePlate);
 
-    List<Car> findAllByRepairStatusIgnoreCase(String repairStatus);
+    @Query("select new com.app.cargarage.dto.CarSummary(c.id, c.licensePlate, c.repairStatus, cu.id, cu.surname)"
+            + " from Car c left join c.customer cu where c.repairStatus = :repairStatus order by c.id")
+    List<CarSummary> findSummariesByRepairStatus(@Param("repairStatus") RepairStatus repairStatus);
+
+    @EntityGraph(attributePaths = {"customer", "repairOperationsList"})
+    Optional<Car> findWithRepairOperationsById(long id);
+
+    @Query("select distinct c from Car c left join fetch c.partsList where c.id = :id")
+    Optional<Car> fetchPartsById(@Param("id") long id);
+
+    @Query("select c.repairStatus as status, count(c) as total from Car c group by c.repairStatus")
+    List<StatusCount> countCarsPerRepairStatus();
+
+    @Query("select new com.app.cargarage.dto.CarSummary(c.id, c.licensePlate, c.repairStatus, cu.id, cu.surname)"
+            + " from Car c left join c.customer cu"
+            + " where c.id > :afterId and c.id < :beforeId and (:repairStatus is null or c.repairStatus = :repairStatus)")
+    Slice<CarSummary> findPage(@Param("afterId") long afterId, @Param("beforeId") long beforeId, @Param("repairStatus") RepairStatus repairStatus, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select c from Car c left join fetch c.customer")
+    Stream<Car> streamAllWithCustomer();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select c.id as id, c.licensePlate as licensePlate from Car c")
+    Stream<CarPlate> streamPlates();
+
+    @Query("select c.customer from Car c where c.id = :carId")
+    Optional<Customer> findCustomerByCarId(@Param("carId") long carId);
+
+    @Query("select c.id from Car c where c.licensePlate = :licensePlate")
+    Optional<Long> findIdByLicensePlate(@Param("licensePlate") String licensePlate);
+
+    @Query("select c.licensePlate from Car c where c.id = :carId")
+    Optional<String> findLicensePlateById(@Param("carId") long carId);
+
+    @Query("select c.licensePlate from Car c where c.licensePlate in :licensePlates")
+    List<String> findExistingLicensePlates(@Param("licensePlates") Collection<String> licensePlates);
+
+    @Modifying
+    @Query(value = "insert into cars_parts_list (car_id, parts_list_id) values (:carId, :partId)", nativeQuery = true)
+    int addPartToCar(@Param("carId") long carId, @Param("partId") long partId);
+
+    @Modifying
+    @Query(value = "insert into cars_repair_operations_list (car_id, repair_operations_list_id) values (:carId, :operationId)", nativeQuery = true)
+    int addRepairOperationToCar(@Param("carId") long carId, @Param("operationId") long operationId);
+
+    @Query("select c.id as id, c.licensePlate as licensePlate, c.repairStatus as repairStatus from Car c where c.id in :carIds")
+    List<CarKey> findKeysByIds(@Param("carIds") Collection<Long> carIds);
+
+    @Modifying
+    @Query(value = "delete from cars_parts_list where car_id in (:carIds)", nativeQuery = true)
+    int deletePartLines(@Param("carIds") Collection<Long> carIds);
+
+    @Modifying
+    @Query(value = "delete from cars_repair_operations_list where car_id in (:carIds)", nativeQuery = true)
+    int deleteRepairOperationLines(@Param("carIds") Collection<Long> carIds);
+
+    @Modifying
+    @Query(value = "update schedule_repairing set car_id = null where car_id in (:carIds)", nativeQuery = true)
+    int detachRepairSchedules(@Param("carIds") Collection<Long> carIds);
+
+    @Modifying
+    @Query(value = "update vouchers set car_id = null where car_id in (:carIds)", nativeQuery = true)
+    int detachVouchers(@Param("carIds") Collection<Long> carIds);
+
+    @Modifying
+    @Query("update Car c set c.customer = null where c.customer.id in :customerIds")
+    int detachCustomers(@Param("customerIds") Collection<Long> customerIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Car c where c.id in :carIds")
+    int deleteByIds(@Param("carIds") Collection<Long> carIds);
+
+    interface StatusCount {
+        RepairStatus getStatus();
+
+        long getTotal();
+    }
+
+    interface CarPlate {
+        long getId();
+
+        String getLicensePlate();
+    }
+
+    interface CarKey {
+        long getId();
+
+        String getLicensePlate();
+
+        RepairStatus getRepairStatus();
+    }
 }
@@ -1,9 +1,35 @@
 package com.app.cargarage.repository;
 
 import com.app.cargarage.model.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    @Query("select c from Customer c where c.id > :afterId and c.id < :beforeId and (:surname is null or c.surname like concat(:surname, '%'))")
+    Slice<Customer> findPage(@Param("afterId") long afterId, @Param("beforeId") long beforeId, @Param("surname") String surname, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select c from Customer c")
+    Stream<Customer> streamAll();
+
+    List<Customer> findByPhoneNumberIn(Collection<String> phoneNumbers);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Customer c where c.id in :customerIds")
+    int deleteByIds(@Param("customerIds") Collection<Long> customerIds);
 }
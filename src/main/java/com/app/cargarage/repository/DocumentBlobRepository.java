@@ -0,0 +1,61 @@
+package com.app.cargarage.repository;
+
+import com.app.cargarage.model.DocumentBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+    @Modifying
+    @Query(value = "insert into document_blobs (content_hash, content_length, stored_length, ref_count, created_at)"
+            + " values (:contentHash, :contentLength, :storedLength, 1, :createdAt)"
+            + " on duplicate key update ref_count = ref_count + 1",
+            nativeQuery = true)
+    int acquire(@Param("contentHash") String contentHash, @Param("contentLength") long contentLength, @Param("storedLength") long storedLength, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query(value = "insert into document_blobs (content_hash, content_length, stored_length, ref_count, created_at)"
+            + " values (:contentHash, :contentLength, :storedLength, 0, :createdAt)"
+            + " on duplicate key update ref_count = ref_count",
+            nativeQuery = true)
+    int track(@Param("contentHash") String contentHash, @Param("contentLength") long contentLength, @Param("storedLength") long storedLength, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("update DocumentBlob b set b.refCount = b.refCount - 1 where b.contentHash = :contentHash and b.refCount > 0")
+    int release(@Param("contentHash") String contentHash);
+
+    @Modifying
+    @Query(value = "update document_blobs set ref_count = greatest(ref_count - (select count(*) from car_document d"
+            + " where d.content_hash = document_blobs.content_hash and d.car_id in (:carIds)), 0)"
+            + " where content_hash in (select d.content_hash from car_document d where d.car_id in (:carIds))",
+            nativeQuery = true)
+    int releaseAllForCars(@Param("carIds") Collection<Long> carIds);
+
+    @Query("select b.contentHash from DocumentBlob b where b.refCount = 0")
+    List<String> findUnreferenced(Pageable pageable);
+
+    @Query("select coalesce(sum(b.contentLength), 0) as contentBytes, coalesce(sum(b.storedLength), 0) as storedBytes"
+            + " from DocumentBlob b where b.storedLength is not null")
+    StorageTotals sumStorage();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from DocumentBlob b where b.contentHash = :contentHash and b.refCount = 0")
+    Optional<DocumentBlob> lockUnreferenced(@Param("contentHash") String contentHash);
+
+    interface StorageTotals {
+        long getContentBytes();
+
+        long getStoredBytes();
+    }
+}
@@ -1,9 +1,44 @@
 package com.app.cargarage.repository;
 
 import com.app.cargarage.model.Part;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface PartRepository extends JpaRepository<Part, Long> {
+    @Query("select p from Part p where p.id > :afterId and p.id < :beforeId and (:name is null or p.name like concat(:name, '%'))")
+    Slice<Part> findPage(@Param("afterId") long afterId, @Param("beforeId") long beforeId, @Param("name") String name, Pageable pageable);
+
+    @Modifying
+    @Query("update Part p set p.stock = p.stock - :quantity where p.id = :partId and p.stock >= :quantity")
+    int reserveStock(@Param("partId") long partId, @Param("quantity") int quantity);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select p.id as id, p.supplierSku as supplierSku, p.name as name, p.price as price, p.stock as stock"
+            + " from Part p where p.supplierSku is not null")
+    Stream<CatalogPart> streamCatalogParts();
+
+    interface CatalogPart {
+        long getId();
+
+        String getSupplierSku();
+
+        String getName();
+
+        double getPrice();
+
+        int getStock();
+    }
 }
@@ -1,12 +1,69 @@
 package com.app.cargarage.repository;
 
 import com.app.cargarage.model.Receipt;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
     List<Receipt> findAllByCarLicensePlate(String licensePlate);
+
+    @Query("select r from Receipt r where r.id > :afterId and r.id < :beforeId and (:status is null or r.status = :status) and (:carLicensePlate is null or r.carLicensePlate = :carLicensePlate)")
+    Slice<Receipt> findPage(@Param("afterId") long afterId, @Param("beforeId") long beforeId, @Param("status") String status, @Param("carLicensePlate") String carLicensePlate, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select r from Receipt r")
+    Stream<Receipt> streamAll();
+
+    @Query(value = "select"
+            + " (select coalesce(sum(ro.price), 0) from cars_repair_operations_list cro"
+            + " join repair_operations ro on ro.id = cro.repair_operations_list_id where cro.car_id = :carId) as operations,"
+            + " (select coalesce(sum(p.price), 0) from cars_parts_list cp"
+            + " join parts p on p.id = cp.parts_list_id where cp.car_id = :carId) as parts",
+            nativeQuery = true)
+    ReceiptAmounts sumAmountsForCar(@Param("carId") long carId);
+
+    @Modifying
+    @Query(value = "insert into receipts_repair_operations_list (receipt_id, repair_operations_list_id)"
+            + " select :receiptId, cro.repair_operations_list_id from cars_repair_operations_list cro where cro.car_id = :carId",
+            nativeQuery = true)
+    int copyRepairOperationLines(@Param("receiptId") long receiptId, @Param("carId") long carId);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into receipts_parts_list (receipt_id, parts_list_id)"
+            + " select :receiptId, cp.parts_list_id from cars_parts_list cp where cp.car_id = :carId",
+            nativeQuery = true)
+    int copyPartLines(@Param("receiptId") long receiptId, @Param("carId") long carId);
+
+    @Modifying
+    @Query(value = "delete from receipts_repair_operations_list where receipt_id in (:receiptIds)", nativeQuery = true)
+    int deleteRepairOperationLines(@Param("receiptIds") Collection<Long> receiptIds);
+
+    @Modifying
+    @Query(value = "delete from receipts_parts_list where receipt_id in (:receiptIds)", nativeQuery = true)
+    int deletePartLines(@Param("receiptIds") Collection<Long> receiptIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Receipt r where r.id in :receiptIds")
+    int deleteByIds(@Param("receiptIds") Collection<Long> receiptIds);
+
+    interface ReceiptAmounts {
+        double getOperations();
+
+        double getParts();
+    }
 }
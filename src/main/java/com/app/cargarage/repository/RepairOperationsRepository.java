@@ -1,9 +1,15 @@
 package com.app.cargarage.repository;
 
 import com.app.cargarage.model.RepairOperations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RepairOperationsRepository extends JpaRepository<RepairOperations, Long> {
+    @Query("select o from RepairOperations o where o.id > :afterId and o.id < :beforeId and (:repairAction is null or o.repairAction like concat(:repairAction, '%'))")
+    Slice<RepairOperations> findPage(@Param("afterId") long afterId, @Param("beforeId") long beforeId, @Param("repairAction") String repairAction, Pageable pageable);
 }
@@ -1,9 +1,22 @@
 package com.app.cargarage.repository;
 
 import com.app.cargarage.model.ScheduleRepairing;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface ScheduleRepairingRepository extends JpaRepository<ScheduleRepairing, Long> {
+    @Query("select s from ScheduleRepairing s where s.id > :afterId and s.id < :beforeId and (:status is null or s.status = :status)")
+    Slice<ScheduleRepairing> findPage(@Param("afterId") long afterId, @Param("beforeId") long beforeId, @Param("status") String status, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ScheduleRepairing s where s.id in :scheduleIds")
+    int deleteByIds(@Param("scheduleIds") Collection<Long> scheduleIds);
 }
@@ -4,7 +4,12 @@ import com.app.cargarage.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     User getUserByUsername(String username);
+
+    List<User> findAllByUsernameIn(Collection<String> usernames);
 }
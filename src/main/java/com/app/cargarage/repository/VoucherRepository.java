@@ -1,9 +1,22 @@
 package com.app.cargarage.repository;
 
 import com.app.cargarage.model.Voucher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface VoucherRepository extends JpaRepository<Voucher, Long> {
+    @Query("select v from Voucher v left join v.car c where v.id > :afterId and v.id < :beforeId and (:licensePlate is null or c.licensePlate = :licensePlate)")
+    Slice<Voucher> findPage(@Param("afterId") long afterId, @Param("beforeId") long beforeId, @Param("licensePlate") String licensePlate, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Voucher v where v.id in :voucherIds")
+    int deleteByIds(@Param("voucherIds") Collection<Long> voucherIds);
 }
@@ -1,5 +1,6 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Appointment;
 
@@ -7,7 +8,7 @@ public interface AppointmentService {
 
     ResponseDto create(Appointment appointment, long customerId);
 
-    ResponseDto listOfAppointments();
+    ResponseDto listOfAppointments(PageQuery pageQuery, Long customerId);
 
     ResponseDto deleteAppointment(long appointmentId);
 
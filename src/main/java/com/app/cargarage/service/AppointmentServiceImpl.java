@@ -1,5 +1,7 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Appointment;
 import com.app.cargarage.model.Customer;
@@ -7,8 +9,8 @@ import com.app.cargarage.repository.AppointmentRepository;
 import com.app.cargarage.repository.CustomerRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-
-import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 @Service
 public class AppointmentServiceImpl implements AppointmentService {
@@ -22,6 +24,7 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
 
     @Override
+    @Transactional
     public ResponseDto create(Appointment appointment, long customerId) {
         try {
             Customer customer = customerRepository.getById(customerId);
@@ -40,6 +43,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                     .statusCode(HttpStatus.OK.value())
                     .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -49,23 +53,32 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
 
     @Override
-    public ResponseDto listOfAppointments() {
+    @Transactional(readOnly = true)
+    public ResponseDto listOfAppointments(PageQuery pageQuery, Long customerId) {
         try {
-            List<Appointment> appointments = appointmentRepository.findAll();
-            if (appointments.isEmpty()) {
+            CursorPage<Appointment> appointmentsPage = CursorPage.of(appointmentRepository.findPage(pageQuery.afterId(), pageQuery.beforeId(), customerId, pageQuery.toPageable()), pageQuery, Appointment::getId);
+            if (appointmentsPage.getItems().isEmpty()) {
                 return ResponseDto.builder()
-                        .result(appointments)
+                        .result(appointmentsPage)
                         .message("There is no appointment registered yet in the database")
                         .statusCode(HttpStatus.NOT_FOUND.value())
                         .build();
             } else {
                 return ResponseDto.builder()
-                        .result(appointments)
+                        .result(appointmentsPage)
                         .message("This is the list of appointments that are in the database")
                         .statusCode(HttpStatus.OK.value())
                         .build();
             }
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -75,6 +88,7 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
 
     @Override
+    @Transactional
     public ResponseDto deleteAppointment(long appointmentId) {
         try {
             Appointment appointment = appointmentRepository.getById(appointmentId);
@@ -93,6 +107,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -102,6 +117,7 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
 
     @Override
+    @Transactional
     public ResponseDto updateAppointment(Appointment updatedAppointment) {
         try {
             Appointment appointment = appointmentRepository.getById(updatedAppointment.getId());
@@ -119,6 +135,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -0,0 +1,11 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.LoginRequest;
+import com.app.cargarage.dto.RefreshRequest;
+import com.app.cargarage.dto.ResponseDto;
+
+public interface AuthenticationService {
+    ResponseDto login(LoginRequest loginRequest);
+
+    ResponseDto refresh(RefreshRequest refreshRequest);
+}
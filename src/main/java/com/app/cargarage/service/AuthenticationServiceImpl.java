@@ -0,0 +1,86 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.LoginRequest;
+import com.app.cargarage.dto.RefreshRequest;
+import com.app.cargarage.dto.ResponseDto;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+
+/**
+ * The password is checked once, at login; after that the client sends the access token and is authorized from its
+ * claims. A refresh reloads the user, so a changed role or a removed account takes effect within one access token
+ * lifetime.
+ */
+@Service
+public class AuthenticationServiceImpl implements AuthenticationService {
+    private final AuthenticationManager authenticationManager;
+    private final UserDetailsService userDetailsService;
+    private final TokenService tokenService;
+
+    public AuthenticationServiceImpl(AuthenticationManager authenticationManager,
+                                     @Qualifier("userServiceImpl") UserDetailsService userDetailsService,
+                                     TokenService tokenService) {
+        this.authenticationManager = authenticationManager;
+        this.userDetailsService = userDetailsService;
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public ResponseDto login(LoginRequest loginRequest) {
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+            return ResponseDto.builder()
+                    .result(tokenService.issue((UserDetails) authentication.getPrincipal()))
+                    .message("Logged in successfully")
+                    .statusCode(HttpStatus.OK.value())
+                    .build();
+        } catch (PasswordVerificationExecutor.BusyException e) {
+            return ResponseDto.builder()
+                    .message(e.getMessage())
+                    .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                    .build();
+        } catch (AuthenticationException e) {
+            return unauthorized("The username or password is incorrect");
+        } catch (Exception e) {
+            return ResponseDto.builder()
+                    .message(e.getMessage())
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .build();
+        }
+    }
+
+    @Override
+    public ResponseDto refresh(RefreshRequest refreshRequest) {
+        try {
+            String username = tokenService.refreshSubject(refreshRequest.getRefreshToken());
+            UserDetails user = userDetailsService.loadUserByUsername(username);
+            return ResponseDto.builder()
+                    .result(tokenService.issue(user))
+                    .message("The tokens have been refreshed")
+                    .statusCode(HttpStatus.OK.value())
+                    .build();
+        } catch (AuthenticationException e) {
+            return unauthorized(e.getMessage());
+        } catch (Exception e) {
+            return ResponseDto.builder()
+                    .message(e.getMessage())
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .build();
+        }
+    }
+
+    private static ResponseDto unauthorized(String message) {
+        return ResponseDto.builder()
+                .message(message)
+                .statusCode(HttpStatus.UNAUTHORIZED.value())
+                .build();
+    }
+}
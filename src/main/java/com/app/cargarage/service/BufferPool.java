@@ -0,0 +1,41 @@
+package com.app.cargarage.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed-size copy buffers shared by all uploads, so an upload allocates nothing that grows with the size of the file.
+ * When every pooled buffer is in use a temporary one is handed out, which is dropped again on release instead of
+ * growing the pool.
+ */
+@Component
+public class BufferPool {
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BlockingQueue<byte[]> buffers;
+
+    public BufferPool(@Value("${documents.buffer-pool-size}") int poolSize) {
+        this.buffers = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            buffers.add(new byte[BUFFER_SIZE]);
+        }
+    }
+
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[BUFFER_SIZE];
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer.length == BUFFER_SIZE) {
+            buffers.offer(buffer);
+        }
+    }
+
+    public int available() {
+        return buffers.size();
+    }
+}
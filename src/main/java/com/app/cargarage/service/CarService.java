@@ -1,27 +1,43 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Car;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.util.Collection;
+
 public interface CarService {
     ResponseDto addCar(Car car);
 
-    ResponseDto listOfCars();
+    ResponseDto listOfCars(PageQuery pageQuery, String repairStatus);
 
     ResponseDto getCustomerByCarLicensePlate(String licenseNumber);
 
+    ResponseDto getCarDetail(String licensePlate);
+
     ResponseDto uploadDocument(String licensePlate, MultipartFile document);
 
-    ResponseEntity<byte[]> getDocumentsByCarLicensePlate(String licensePlate);
+    ResponseDto uploadDocumentStream(String licensePlate, String fileName, String contentType, long contentLength, InputStream content);
+
+    ResponseDto listDocuments(String licensePlate);
+
+    ResponseEntity<Resource> getDocumentsByCarLicensePlate(String licensePlate, WebRequest request);
+
+    ResponseEntity<Resource> getDocument(long documentId, WebRequest request);
 
     ResponseDto addRepairingActionsInCar(String carLicensePlate, long repairingActionId);
 
-    ResponseDto installPartsInCar(String carLicensePlate, long partId);
+    ResponseDto installPartsInCar(String carLicensePlate, long partId, int quantity);
 
     ResponseDto deleteCar(String carLicensePlate);
 
+    ResponseDto deleteCars(Collection<String> licensePlates);
+
     ResponseDto updateCar(Car car);
 
     ResponseDto getAllRepairedCarsList();
@@ -29,4 +45,8 @@ public interface CarService {
     ResponseDto getAllUnRepairedCarsList();
 
     ResponseDto changeStatusToRepaired(String licensePlate);
+
+    ResponseDto autocompleteLicensePlates(String prefix, int limit);
+
+    ResponseDto getRepairStatusCounts();
 }
@@ -1,21 +1,42 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.CarDetail;
+import com.app.cargarage.dto.CarSummary;
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.DeleteReport;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Car;
 import com.app.cargarage.model.CarDocument;
-import com.app.cargarage.model.Part;
-import com.app.cargarage.model.RepairOperations;
+import com.app.cargarage.model.RepairStatus;
 import com.app.cargarage.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class CarServiceImpl implements CarService {
@@ -24,32 +45,78 @@ public class CarServiceImpl implements CarService {
     private final CarDocumentRepository carDocumentRepository;
     private final RepairOperationsRepository operationsRepository;
     private final PartRepository partRepository;
+    private final LicensePlateIndex licensePlateIndex;
+    private final RepairStatusCounters repairStatusCounters;
+    private final DocumentStore documentStore;
+    private final DocumentBlobService documentBlobService;
+    private final DocumentVersionService documentVersionService;
+    private final DocumentMetrics documentMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSize maxUploadSize;
 
-    public CarServiceImpl(CarRepository carRepository, CustomerRepository customerRepository, CarDocumentRepository carDocumentRepository, RepairOperationsRepository operationsRepository, PartRepository partRepository) {
+    public CarServiceImpl(CarRepository carRepository, CustomerRepository customerRepository, CarDocumentRepository carDocumentRepository, RepairOperationsRepository operationsRepository, PartRepository partRepository, LicensePlateIndex licensePlateIndex, RepairStatusCounters repairStatusCounters, DocumentStore documentStore, DocumentBlobService documentBlobService, DocumentVersionService documentVersionService, DocumentMetrics documentMetrics, TransactionTemplate transactionTemplate, @Value("${documents.max-upload-size}") DataSize maxUploadSize) {
         this.carRepository = carRepository;
         this.customerRepository = customerRepository;
         this.carDocumentRepository = carDocumentRepository;
         this.operationsRepository = operationsRepository;
         this.partRepository = partRepository;
+        this.licensePlateIndex = licensePlateIndex;
+        this.repairStatusCounters = repairStatusCounters;
+        this.documentStore = documentStore;
+        this.documentBlobService = documentBlobService;
+        this.documentVersionService = documentVersionService;
+        this.documentMetrics = documentMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.maxUploadSize = maxUploadSize;
     }
 
     @Override
     public ResponseDto uploadDocument(String licensePlate, MultipartFile document) {
+        try (InputStream content = document.getInputStream()) {
+            return uploadDocumentStream(licensePlate, document.getOriginalFilename(), document.getContentType(), document.getSize(), content);
+        } catch (IOException e) {
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * Stages the upload in the document store while hashing it, outside of any transaction, and fails as soon as more
+     * than {@code documents.max-upload-size} bytes came in. The new version row and the reference to its content are
+     * then written in one short transaction; content that is already stored is shared instead of being written a second
+     * time.
+     */
+    @Override
+    public ResponseDto uploadDocumentStream(String licensePlate, String fileName, String contentType, long contentLength, InputStream content) {
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(licensePlate);
-            if (car.isPresent()) {
-                String fileName = StringUtils.cleanPath(document.getOriginalFilename());
-                CarDocument carDocument = carDocumentRepository
-                        .save(CarDocument.builder()
-                                .documentType(document.getContentType())
-                                .documentName("car_document-" + car.get().getLicensePlate() + "-" + fileName)
-                                .document(document.getBytes())
-                                .build());
-                car.get().setCarDocument(carDocument);
-                carRepository.save(car.get());
+            if (contentLength > maxUploadSize.toBytes()) {
+                return documentTooLarge();
+            }
+            if (!StringUtils.hasText(fileName)) {
+                return ResponseDto.builder()
+                        .result(null)
+                        .message("The document needs a file name")
+                        .statusCode(HttpStatus.BAD_REQUEST.value())
+                        .build();
+            }
+            Optional<Long> carId = licensePlateIndex.resolve(licensePlate);
+            if (carId.isPresent()) {
+                long start = System.nanoTime();
+                DocumentStore.StagedDocument stagedDocument = documentStore.stage(new SizeLimitedInputStream(content, maxUploadSize.toBytes()), contentType);
+                documentMetrics.uploaded(stagedDocument, System.nanoTime() - start);
+                CarDocument carDocument;
+                try {
+                    carDocument = transactionTemplate.execute(status -> documentVersionService.addVersion(carId.get(),
+                            documentVersionService.documentName(carId.get(), fileName), contentType, stagedDocument));
+                } finally {
+                    documentStore.discard(stagedDocument);
+                }
 
                 return ResponseDto.builder()
-                        .result(car.get())
+                        .result(carDocument)
                         .message("Document for this car has been added in the database")
                         .statusCode(HttpStatus.OK.value())
                         .build();
@@ -61,6 +128,14 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
 
+        } catch (SizeLimitedInputStream.LimitExceededException e) {
+            return documentTooLarge();
+        } catch (DataIntegrityViolationException e) {
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.CONFLICT.value())
+                    .message("Another version of this document was uploaded at the same time, please try again")
+                    .build();
         } catch (Exception e) {
             return ResponseDto.builder()
                     .result(null)
@@ -71,36 +146,79 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
-    public ResponseEntity<byte[]> getDocumentsByCarLicensePlate(String licensePlate) {
+    @Transactional(readOnly = true)
+    public ResponseDto listDocuments(String licensePlate) {
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(licensePlate);
+            Optional<Long> carId = licensePlateIndex.resolve(licensePlate);
+            if (carId.isPresent()) {
+                return ResponseDto.builder()
+                        .result(carDocumentRepository.findAllByCarId(carId.get()))
+                        .message("List of documents of this car")
+                        .statusCode(HttpStatus.OK.value())
+                        .build();
+            } else {
+                return ResponseDto.builder()
+                        .result(null)
+                        .message("There is no car against this license plate in the database")
+                        .statusCode(HttpStatus.NOT_FOUND.value())
+                        .build();
+            }
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
 
-            if (car.isPresent()) {
-                String documentName = car.get().getCarDocument().getDocumentName();
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType("application/octet-stream"))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + documentName + "\"")
-                        .body(car.get().getCarDocument().getDocument());
+    /**
+     * Returns the most recently uploaded document of the car.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<Resource> getDocumentsByCarLicensePlate(String licensePlate, WebRequest request) {
+        try {
+            Optional<Long> carId = licensePlateIndex.resolve(licensePlate);
+            Optional<CarDocument> carDocument = carId.isPresent() ? carDocumentRepository.findLatestByCarId(carId.get()) : Optional.empty();
+
+            if (carDocument.isPresent()) {
+                return documentResponse(carDocument.get(), request);
+            } else {
+                throw new RuntimeException("There is no document for a car with this license plate");
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Some error occurred", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<Resource> getDocument(long documentId, WebRequest request) {
+        try {
+            Optional<CarDocument> carDocument = carDocumentRepository.findById(documentId);
+
+            if (carDocument.isPresent()) {
+                return documentResponse(carDocument.get(), request);
             } else {
-                throw new RuntimeException("There is no car against this license plate");
+                throw new RuntimeException("There is no document against this id");
             }
         } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Some error occurred");
+            throw new RuntimeException("Some error occurred", e);
         }
     }
 
     @Override
+    @Transactional
     public ResponseDto addRepairingActionsInCar(String carLicensePlate, long repairingActionId) {
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(carLicensePlate);
-            if (car.isPresent()) {
-                Optional<RepairOperations> repairOperation = operationsRepository.findById(repairingActionId);
-                if (repairOperation.isPresent()) {
-                    car.get().getRepairOperationsList().add(repairOperation.get());
-                    carRepository.saveAndFlush(car.get());
+            Optional<Long> carId = licensePlateIndex.resolve(carLicensePlate);
+            if (carId.isPresent()) {
+                if (operationsRepository.existsById(repairingActionId)) {
+                    carRepository.addRepairOperationToCar(carId.get(), repairingActionId);
                     return ResponseDto.builder()
-                            .result(car.get().getRepairOperationsList())
+                            .result(carRepository.getById(carId.get()).getRepairOperationsList())
                             .message("The repairing action is added in the car repairing-list")
                             .statusCode(HttpStatus.OK.value())
                             .build();
@@ -119,6 +237,7 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -127,29 +246,46 @@ public class CarServiceImpl implements CarService {
         }
     }
 
+    /**
+     * Reserves the stock with a conditional {@code UPDATE ... WHERE stock >= quantity}, so concurrent installs of the
+     * last units can never oversell, and records the installed parts with plain join-table inserts in the same
+     * transaction.
+     */
     @Override
-    public ResponseDto installPartsInCar(String carLicensePlate, long partId) {
+    @Transactional
+    public ResponseDto installPartsInCar(String carLicensePlate, long partId, int quantity) {
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(carLicensePlate);
-            if (car.isPresent()) {
-                Optional<Part> part = partRepository.findById(partId);
-                if (part.isPresent() && part.get().getStock() > 0) {
-                    car.get().getPartsList().add(part.get());
-                    part.get().setStock(part.get().getStock() - 1);
-                    partRepository.save(part.get());
-                    carRepository.saveAndFlush(car.get());
-                    return ResponseDto.builder()
-                            .result(car.get().getPartsList())
-                            .message("The part is successfully installed in the car !!")
-                            .statusCode(HttpStatus.OK.value())
-                            .build();
-                } else {
+            if (quantity < 1) {
+                return ResponseDto.builder()
+                        .result(null)
+                        .statusCode(HttpStatus.BAD_REQUEST.value())
+                        .message("The quantity of parts to install must be at least 1")
+                        .build();
+            }
+            Optional<Long> carId = licensePlateIndex.resolve(carLicensePlate);
+            if (carId.isPresent()) {
+                if (partRepository.reserveStock(partId, quantity) == 0) {
+                    if (partRepository.existsById(partId)) {
+                        return ResponseDto.builder()
+                                .result(null)
+                                .statusCode(HttpStatus.CONFLICT.value())
+                                .message("There is not enough stock of this part to install " + quantity + " of them")
+                                .build();
+                    }
                     return ResponseDto.builder()
                             .result(null)
                             .statusCode(HttpStatus.NOT_FOUND.value())
                             .message("There is no part in the database against this id")
                             .build();
                 }
+                for (int i = 0; i < quantity; i++) {
+                    carRepository.addPartToCar(carId.get(), partId);
+                }
+                return ResponseDto.builder()
+                        .result(carRepository.getById(carId.get()).getPartsList())
+                        .message("The part is successfully installed in the car !!")
+                        .statusCode(HttpStatus.OK.value())
+                        .build();
             } else {
                 return ResponseDto.builder()
                         .result(null)
@@ -158,6 +294,7 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -166,17 +303,15 @@ public class CarServiceImpl implements CarService {
         }
     }
 
+    /**
+     * Removes the documents of the car together with the car and gives up their content references; files nobody else
+     * refers to are removed by the next sweep.
+     */
     @Override
+    @Transactional
     public ResponseDto deleteCar(String carLicensePlate) {
         try {
-            Car car = carRepository.getCarByLicensePlate(carLicensePlate);
-            if (car != null) {
-                car.setCarDocument(null);
-                car.setCustomer(null);
-                car.setPartsList(null);
-                car.setRepairOperationsList(null);
-                carRepository.saveAndFlush(car);
-                carRepository.delete(car);
+            if (deleteCarBatch(Collections.singletonList(carLicensePlate)) > 0) {
                 return ResponseDto.builder()
                         .result(null)
                         .message("Car is successfully deleted from the database.")
@@ -190,6 +325,7 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -199,12 +335,79 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
+    @Transactional
+    public ResponseDto deleteCars(Collection<String> licensePlates) {
+        try {
+            DeleteReport report = new DeleteReport();
+            for (List<String> batch : IdBatches.of(licensePlates)) {
+                report.setRequested(report.getRequested() + batch.size());
+                report.setDeleted(report.getDeleted() + deleteCarBatch(batch));
+            }
+            return ResponseDto.builder()
+                    .result(report)
+                    .message(report.getDeleted() + " cars have been deleted from the database.")
+                    .statusCode(report.getDeleted() > 0 ? HttpStatus.OK.value() : HttpStatus.NOT_FOUND.value())
+                    .build();
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * Deletes up to one {@code IN} list of cars with a fixed number of statements: the content references, documents
+     * and join table rows of all cars at once, then the cars themselves. Repair schedules and vouchers are kept without
+     * their car, as receipts already are. Plates are resolved through the {@link LicensePlateIndex}, so they match in
+     * any spelling, as they do everywhere else.
+     */
+    private int deleteCarBatch(List<String> licensePlates) {
+        Set<Long> resolvedIds = new LinkedHashSet<>();
+        for (String licensePlate : licensePlates) {
+            licensePlateIndex.resolve(licensePlate).ifPresent(resolvedIds::add);
+        }
+        if (resolvedIds.isEmpty()) {
+            return 0;
+        }
+        List<CarRepository.CarKey> cars = carRepository.findKeysByIds(resolvedIds);
+        if (cars.isEmpty()) {
+            return 0;
+        }
+        List<Long> carIds = new ArrayList<>(cars.size());
+        for (CarRepository.CarKey car : cars) {
+            carIds.add(car.getId());
+        }
+        documentBlobService.releaseAllForCars(carIds);
+        carDocumentRepository.deleteAllByCarIds(carIds);
+        carRepository.deletePartLines(carIds);
+        carRepository.deleteRepairOperationLines(carIds);
+        carRepository.detachRepairSchedules(carIds);
+        carRepository.detachVouchers(carIds);
+        int deleted = carRepository.deleteByIds(carIds);
+        for (CarRepository.CarKey car : cars) {
+            licensePlateIndex.remove(car.getLicensePlate(), car.getId());
+            repairStatusCounters.removed(car.getRepairStatus());
+        }
+        return deleted;
+    }
+
+    @Override
+    @Transactional
     public ResponseDto updateCar(Car car) {
         try {
             Car existingCar = carRepository.getById(car.getId());
             if (existingCar != null) {
+                String previousLicensePlate = existingCar.getLicensePlate();
+                RepairStatus previousRepairStatus = existingCar.getRepairStatus();
+                Car updatedCar = carRepository.saveAndFlush(car);
+                licensePlateIndex.remove(previousLicensePlate, updatedCar.getId());
+                licensePlateIndex.put(updatedCar.getLicensePlate(), updatedCar.getId());
+                repairStatusCounters.transition(previousRepairStatus, updatedCar.getRepairStatus());
                 return ResponseDto.builder()
-                        .result(carRepository.saveAndFlush(car))
+                        .result(updatedCar)
                         .message("Car is successfully updated in the database.")
                         .statusCode(HttpStatus.OK.value())
                         .build();
@@ -216,6 +419,7 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -225,9 +429,10 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseDto getAllRepairedCarsList() {
         try {
-            List<Car> repairedCarsList = carRepository.findAllByRepairStatusIgnoreCase("repaired");
+            List<CarSummary> repairedCarsList = carRepository.findSummariesByRepairStatus(RepairStatus.REPAIRED);
             if (repairedCarsList.isEmpty()) {
                 return ResponseDto.builder()
                         .result(repairedCarsList)
@@ -242,6 +447,7 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -251,9 +457,10 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseDto getAllUnRepairedCarsList() {
         try {
-            List<Car> repairedCarsList = carRepository.findAllByRepairStatusIgnoreCase("Under Repairing");
+            List<CarSummary> repairedCarsList = carRepository.findSummariesByRepairStatus(RepairStatus.UNDER_REPAIRING);
             if (repairedCarsList.isEmpty()) {
                 return ResponseDto.builder()
                         .result(repairedCarsList)
@@ -268,6 +475,7 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -277,13 +485,17 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
+    @Transactional
     public ResponseDto changeStatusToRepaired(String licensePlate) {
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(licensePlate);
+            Optional<Car> car = licensePlateIndex.resolve(licensePlate).flatMap(carRepository::findById);
             if (car.isPresent()) {
-                car.get().setRepairStatus("repaired");
+                RepairStatus previousRepairStatus = car.get().getRepairStatus();
+                car.get().setRepairStatus(RepairStatus.REPAIRED);
+                Car repairedCar = carRepository.save(car.get());
+                repairStatusCounters.transition(previousRepairStatus, RepairStatus.REPAIRED);
                 return ResponseDto.builder()
-                        .result(carRepository.save(car.get()))
+                        .result(repairedCar)
                         .message("Car is successfully added in the database")
                         .statusCode(HttpStatus.OK.value())
                         .build();
@@ -295,6 +507,7 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -304,15 +517,23 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
+    @Transactional
     public ResponseDto addCar(Car car) {
         try {
             car.setCustomer(customerRepository.save(car.getCustomer()));
+            if (car.getRepairStatus() == null) {
+                car.setRepairStatus(RepairStatus.PENDING);
+            }
+            Car savedCar = carRepository.save(car);
+            licensePlateIndex.put(savedCar.getLicensePlate(), savedCar.getId());
+            repairStatusCounters.added(savedCar.getRepairStatus());
             return ResponseDto.builder()
-                    .result(carRepository.save(car))
+                    .result(savedCar)
                     .message("Car is successfully added in the database")
                     .statusCode(HttpStatus.OK.value())
                     .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -322,23 +543,66 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
-    public ResponseDto listOfCars() {
+    @Transactional(readOnly = true)
+    public ResponseDto listOfCars(PageQuery pageQuery, String repairStatus) {
         try {
-            List<Car> carsList = carRepository.findAll();
-            if (carsList.isEmpty()) {
+            CursorPage<CarSummary> carsPage = CursorPage.of(carRepository.findPage(pageQuery.afterId(), pageQuery.beforeId(), RepairStatus.fromValue(repairStatus), pageQuery.toPageable()), pageQuery, CarSummary::getId);
+            if (carsPage.getItems().isEmpty()) {
                 return ResponseDto.builder()
-                        .result(carsList)
+                        .result(carsPage)
                         .message("There is no car registered yet in the database")
                         .statusCode(HttpStatus.NOT_FOUND.value())
                         .build();
             } else {
                 return ResponseDto.builder()
-                        .result(carsList)
+                        .result(carsPage)
                         .message("This is the list of cars that are in the database")
                         .statusCode(HttpStatus.OK.value())
                         .build();
             }
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * Loads the car with its customer and repair operations in one select and the parts in a second one;
+     * fetching both bags in the same query is not possible.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseDto getCarDetail(String licensePlate) {
+        try {
+            Optional<Long> carId = licensePlateIndex.resolve(licensePlate);
+            Optional<Car> car = carId.isPresent() ? carRepository.findWithRepairOperationsById(carId.get()) : Optional.empty();
+            if (car.isPresent()) {
+                carRepository.fetchPartsById(car.get().getId());
+                return ResponseDto.builder()
+                        .result(CarDetail.of(car.get()))
+                        .message("These are the details of the car")
+                        .statusCode(HttpStatus.OK.value())
+                        .build();
+            } else {
+                return ResponseDto.builder()
+                        .result(null)
+                        .message("There is no car against this license plate")
+                        .statusCode(HttpStatus.NOT_FOUND.value())
+                        .build();
+            }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -348,13 +612,14 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseDto getCustomerByCarLicensePlate(String licensePlate) {
 
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(licensePlate);
-            if (car.isPresent()) {
+            Optional<Long> carId = licensePlateIndex.resolve(licensePlate);
+            if (carId.isPresent()) {
                 return ResponseDto.builder()
-                        .result(car.get().getCustomer())
+                        .result(carRepository.findCustomerByCarId(carId.get()).orElse(null))
                         .message("This is the owner of this car")
                         .statusCode(HttpStatus.OK.value())
                         .build();
@@ -366,6 +631,7 @@ public class CarServiceImpl implements CarService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -374,4 +640,88 @@ public class CarServiceImpl implements CarService {
         }
     }
 
+    @Override
+    public ResponseDto autocompleteLicensePlates(String prefix, int limit) {
+        try {
+            return ResponseDto.builder()
+                    .result(licensePlateIndex.autocomplete(prefix, Math.max(1, Math.min(limit, 50))))
+                    .message("These are the license plates starting with: " + prefix)
+                    .statusCode(HttpStatus.OK.value())
+                    .build();
+        } catch (Exception e) {
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    @Override
+    public ResponseDto getRepairStatusCounts() {
+        return ResponseDto.builder()
+                .result(repairStatusCounters.snapshot())
+                .message("This is the number of cars per repair status")
+                .statusCode(HttpStatus.OK.value())
+                .build();
+    }
+
+    /**
+     * Returns the stored file as a {@link Resource}, which Spring copies to the response in small chunks instead of
+     * loading the document into memory. Content kept gzipped is sent as it is to clients that accept gzip, and inflated
+     * while it is copied for everyone else and for {@code Range} requests, whose offsets refer to the original bytes.
+     * The content hash is the ETag of the original bytes, so a matching {@code If-None-Match} or
+     * {@code If-Modified-Since} is answered with 304 before any content is read, and {@code Range} requests are
+     * answered with 206 by reading only the requested regions.
+     */
+    private ResponseEntity<Resource> documentResponse(CarDocument carDocument, WebRequest request) throws IOException {
+        String contentHash = carDocument.getContentHash();
+        DocumentEncoding storedEncoding = documentStore.storedEncoding(contentHash);
+        boolean passThrough = storedEncoding == DocumentEncoding.GZIP && request.getHeader(HttpHeaders.RANGE) == null
+                && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String eTag = "\"" + contentHash + (passThrough ? "-gzip" : "") + "\"";
+        long lastModified = carDocument.getUploadedAt() == null ? -1
+                : carDocument.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (request.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + carDocument.getDocumentName() + "\"");
+        if (passThrough) {
+            Resource stored = documentStore.loadStored(contentHash);
+            documentMetrics.downloaded("passthrough", stored.contentLength());
+            return response.header(HttpHeaders.CONTENT_ENCODING, DocumentEncoding.GZIP.getHeaderValue()).body(stored);
+        }
+        Resource content = documentStore.load(contentHash);
+        if (request.getHeader(HttpHeaders.RANGE) == null) {
+            documentMetrics.downloaded(storedEncoding == DocumentEncoding.GZIP ? "decoded" : "identity", carDocument.getContentLength());
+        }
+        return response.body(content);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            if (parameters[0].trim().equalsIgnoreCase("gzip")) {
+                return parameters.length < 2 || !parameters[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private ResponseDto documentTooLarge() {
+        return ResponseDto.builder()
+                .result(null)
+                .message("The document is larger than the maximum of " + maxUploadSize.toMegabytes() + " MB")
+                .statusCode(HttpStatus.PAYLOAD_TOO_LARGE.value())
+                .build();
+    }
 }
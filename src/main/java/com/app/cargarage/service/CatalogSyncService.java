@@ -0,0 +1,9 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.ResponseDto;
+
+import java.io.InputStream;
+
+public interface CatalogSyncService {
+    ResponseDto syncCatalog(InputStream content, ImportFormat format);
+}
@@ -0,0 +1,285 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.CatalogRow;
+import com.app.cargarage.dto.CatalogSyncReport;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.Part;
+import com.app.cargarage.repository.PartRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Brings the parts table in line with a full supplier catalog. The parts that carry a supplier SKU are loaded once into
+ * a hash table keyed by SKU, and the catalog is streamed past it row by row: unknown SKUs become inserts, rows whose
+ * name, price or stock differ become updates, and identical rows cost nothing beyond the comparison. Changes are
+ * written in transactions of {@code parts.catalog-chunk-size} rows, the inserts as batched persists and the updates
+ * as one JDBC batch.
+ * <p>
+ * Updates only apply while the stock is still what was loaded, so stock reserved for a repair while the sync runs is
+ * not overwritten; such rows are reported and picked up by the next sync.
+ */
+@Service
+public class CatalogSyncServiceImpl implements CatalogSyncService {
+    private static final int MAX_SKU_LENGTH = 64;
+
+    private final PartRepository partRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public CatalogSyncServiceImpl(PartRepository partRepository, EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                  @Value("${parts.catalog-chunk-size}") int chunkSize,
+                                  @Value("${parts.catalog-max-reported-errors}") int maxReportedErrors) {
+        this.partRepository = partRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ResponseDto syncCatalog(InputStream content, ImportFormat format) {
+        long start = System.nanoTime();
+        CatalogSyncReport report = new CatalogSyncReport();
+        try (RowReader<CatalogRow> rows = RowReader.open(content, format, CatalogRow.class, objectMapper)) {
+            Map<String, CatalogEntry> catalog = loadCatalog();
+            List<CatalogEntry> inserts = new ArrayList<>();
+            List<CatalogEntry> updates = new ArrayList<>();
+            while (true) {
+                long rowNumber = report.getRows() + 1;
+                CatalogRow row;
+                try {
+                    row = rows.next();
+                } catch (RowReader.UnreadableRowException e) {
+                    report.setRows(rowNumber);
+                    fail(report, rowNumber, null, e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                report.setRows(rowNumber);
+                String invalid = validate(row);
+                if (invalid != null) {
+                    fail(report, rowNumber, row.getSku(), invalid);
+                    continue;
+                }
+                String sku = row.getSku().trim();
+                CatalogEntry entry = catalog.get(sku);
+                if (entry != null && entry.row != 0) {
+                    fail(report, rowNumber, sku, "The SKU already appeared in row " + entry.row);
+                    continue;
+                }
+                if (entry == null) {
+                    entry = new CatalogEntry(sku);
+                    catalog.put(sku, entry);
+                    entry.row = rowNumber;
+                    entry.apply(row);
+                    inserts.add(entry);
+                } else {
+                    entry.row = rowNumber;
+                    if (entry.differsFrom(row)) {
+                        entry.apply(row);
+                        updates.add(entry);
+                    } else {
+                        report.setUnchanged(report.getUnchanged() + 1);
+                    }
+                }
+                if (inserts.size() + updates.size() >= chunkSize) {
+                    write(inserts, updates, report);
+                    inserts.clear();
+                    updates.clear();
+                }
+            }
+            write(inserts, updates, report);
+            long missing = 0;
+            for (CatalogEntry entry : catalog.values()) {
+                if (entry.row == 0) {
+                    missing++;
+                }
+            }
+            report.setMissing(missing);
+            report.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+            return ResponseDto.builder()
+                    .result(report)
+                    .message((report.getInserted() + report.getUpdated()) + " parts have been changed")
+                    .statusCode(HttpStatus.OK.value())
+                    .build();
+        } catch (Exception e) {
+            report.setAborted(true);
+            report.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+            fail(report, report.getRows(), null, "The sync stopped: " + e.getMessage());
+            return ResponseDto.builder()
+                    .result(report)
+                    .message(e.getMessage())
+                    .statusCode(e instanceof JsonProcessingException ? HttpStatus.BAD_REQUEST.value() : HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .build();
+        }
+    }
+
+    private Map<String, CatalogEntry> loadCatalog() {
+        return transactionTemplate.execute(status -> {
+            Map<String, CatalogEntry> catalog = new HashMap<>();
+            try (Stream<PartRepository.CatalogPart> parts = partRepository.streamCatalogParts()) {
+                parts.forEach(part -> catalog.put(part.getSupplierSku(), new CatalogEntry(part)));
+            }
+            return catalog;
+        });
+    }
+
+    private static String validate(CatalogRow row) {
+        if (!StringUtils.hasText(row.getSku()) || row.getSku().trim().length() > MAX_SKU_LENGTH) {
+            return "The SKU is missing or longer than " + MAX_SKU_LENGTH + " characters";
+        }
+        if (!StringUtils.hasText(row.getName())) {
+            return "The part needs a name";
+        }
+        if (row.getPrice() == null || row.getPrice() < 0 || row.getPrice().isNaN() || row.getPrice().isInfinite()) {
+            return "The price is missing or negative";
+        }
+        if (row.getStock() == null || row.getStock() < 0) {
+            return "The stock is missing or negative";
+        }
+        return null;
+    }
+
+    /**
+     * Writes one chunk of changes. When the chunk fails as a whole, for instance because the same SKU was inserted
+     * concurrently, its rows are retried one transaction each so only the offending rows are reported.
+     */
+    private void write(List<CatalogEntry> inserts, List<CatalogEntry> updates, CatalogSyncReport report) {
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> apply(inserts, updates, report));
+        } catch (RuntimeException e) {
+            for (CatalogEntry entry : inserts) {
+                retry(Collections.singletonList(entry), Collections.emptyList(), report);
+            }
+            for (CatalogEntry entry : updates) {
+                retry(Collections.emptyList(), Collections.singletonList(entry), report);
+            }
+        }
+    }
+
+    private void retry(List<CatalogEntry> inserts, List<CatalogEntry> updates, CatalogSyncReport report) {
+        CatalogEntry entry = inserts.isEmpty() ? updates.get(0) : inserts.get(0);
+        try {
+            transactionTemplate.execute(status -> apply(inserts, updates, report));
+        } catch (RuntimeException e) {
+            fail(report, entry.row, entry.sku, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    /**
+     * Counts are only added to the report once the transaction commits, so a chunk that rolls back and is retried is
+     * not counted twice.
+     */
+    private Void apply(List<CatalogEntry> inserts, List<CatalogEntry> updates, CatalogSyncReport report) {
+        for (CatalogEntry entry : inserts) {
+            entityManager.persist(Part.builder()
+                    .supplierSku(entry.sku)
+                    .name(entry.name)
+                    .price(entry.price)
+                    .stock(entry.stock)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Object[]> arguments = new ArrayList<>(updates.size());
+        for (CatalogEntry entry : updates) {
+            arguments.add(new Object[]{entry.name, entry.price, entry.stock, entry.id, entry.loadedStock});
+        }
+        int[] updateCounts = updates.isEmpty() ? new int[0]
+                : jdbcTemplate.batchUpdate("update parts set name = ?, price = ?, stock = ? where id = ? and stock = ?", arguments);
+
+        List<CatalogEntry> conflicts = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                conflicts.add(updates.get(i));
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                report.setInserted(report.getInserted() + inserts.size());
+                report.setUpdated(report.getUpdated() + updates.size() - conflicts.size());
+                for (CatalogEntry conflict : conflicts) {
+                    fail(report, conflict.row, conflict.sku, "The stock of this part changed during the sync");
+                }
+            }
+        });
+        return null;
+    }
+
+    private void fail(CatalogSyncReport report, long rowNumber, String sku, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new CatalogSyncReport.RowError(rowNumber, sku, message));
+        }
+    }
+
+    /**
+     * A part as loaded from the table, or a new part from the catalog, with the row of the catalog it was matched to.
+     * A row of zero means the catalog has not listed the part so far.
+     */
+    private static class CatalogEntry {
+        private final String sku;
+        private long id;
+        private String name;
+        private double price;
+        private int stock;
+        private int loadedStock;
+        private long row;
+
+        CatalogEntry(String sku) {
+            this.sku = sku;
+        }
+
+        CatalogEntry(PartRepository.CatalogPart part) {
+            this.sku = part.getSupplierSku();
+            this.id = part.getId();
+            this.name = part.getName();
+            this.price = part.getPrice();
+            this.stock = part.getStock();
+            this.loadedStock = part.getStock();
+        }
+
+        boolean differsFrom(CatalogRow row) {
+            return !Objects.equals(name, row.getName().trim()) || Double.compare(price, row.getPrice()) != 0 || stock != row.getStock();
+        }
+
+        void apply(CatalogRow row) {
+            name = row.getName().trim();
+            price = row.getPrice();
+            stock = row.getStock();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.app.cargarage.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which username and password pairs were verified recently, so a Basic auth client that sends the same
+ * credentials on every request pays for one BCrypt check per {@code security.credential-cache.ttl} instead of one per
+ * request. Only successful checks are cached, so a wrong password always goes through BCrypt.
+ * <p>
+ * The password is not kept: the key holds an HMAC-SHA256 of it under a key that only lives in this process, so a heap
+ * dump does not hand out fast hashes to brute-force. Entries expire on read and are all dropped whenever a user is
+ * created, changed or removed. When the cache is full, expired entries are purged and, if that does not free a slot,
+ * the new entry is simply not cached.
+ * <p>
+ * That drop only reaches the instance that made the change. Every other instance keeps accepting the old password of
+ * a changed or removed user until its entries expire, and a miss there is checked against its {@link UserDetailsCache},
+ * which can be {@code security.user-cache.ttl} old. Behind a load balancer an old password can therefore stay valid
+ * for up to the sum of both TTLs, so both are kept short and the user cache TTL defaults to this one.
+ * <p>
+ * Metrics: {@code security.credential.cache} counts hits and misses by {@code result},
+ * {@code security.credential.cache.hit.ratio} is hits over lookups and {@code security.credential.cache.size} the
+ * number of entries.
+ */
+@Component
+public class CredentialCache {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final SecretKeySpec hashKey;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CredentialCache(MeterRegistry meterRegistry,
+                           @Value("${security.credential-cache.ttl}") Duration ttl,
+                           @Value("${security.credential-cache.max-entries}") int maxEntries) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hashKey = new SecretKeySpec(key, ALGORITHM);
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        FunctionCounter.builder("security.credential.cache", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Basic auth credentials found in the verified-credential cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.credential.cache", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Basic auth credentials that had to be checked with BCrypt")
+                .register(meterRegistry);
+        Gauge.builder("security.credential.cache.hit.ratio", this, CredentialCache::hitRatio)
+                .description("Share of credential lookups answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("security.credential.cache.size", entries, Map::size)
+                .description("Verified credentials currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the user the credentials were verified for, or {@code null} when they have to be checked.
+     */
+    public UserDetails get(String username, String password) {
+        Key key = new Key(username, hash(password));
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt - System.nanoTime() <= 0) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.user;
+    }
+
+    public void put(String username, String password, UserDetails user) {
+        if (entries.size() >= maxEntries) {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(new Key(username, hash(password)), new Entry(user, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Drops every entry. User changes are rare, and a renamed user cannot be found by its new name, so everything goes.
+     */
+    public void evictAll() {
+        entries.clear();
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    private byte[] hash(String password) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(hashKey);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Key {
+        private final String username;
+        private final byte[] passwordHash;
+        private final int hashCode;
+
+        Key(String username, byte[] passwordHash) {
+            this.username = username;
+            this.passwordHash = passwordHash;
+            this.hashCode = 31 * username.hashCode() + Arrays.hashCode(passwordHash);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return username.equals(key.username) && Arrays.equals(passwordHash, key.passwordHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class Entry {
+        private final UserDetails user;
+        private final long expiresAt;
+
+        Entry(UserDetails user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Customer;
 
+import java.util.Collection;
+
 public interface CustomerService {
     ResponseDto addCustomer(Customer customer);
 
-    ResponseDto listOfCustomers();
+    ResponseDto listOfCustomers(PageQuery pageQuery, String surname);
 
     ResponseDto deleteCustomer(long customerId);
 
+    ResponseDto deleteCustomers(Collection<Long> customerIds);
+
     ResponseDto updateCustomer(Customer customer);
 }
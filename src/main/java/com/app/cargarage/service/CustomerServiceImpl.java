@@ -1,34 +1,47 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.DeleteReport;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Customer;
+import com.app.cargarage.repository.AppointmentRepository;
 import com.app.cargarage.repository.CarRepository;
 import com.app.cargarage.repository.CustomerRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
     private final CarRepository carRepository;
+    private final AppointmentRepository appointmentRepository;
 
-    public CustomerServiceImpl(CustomerRepository customerRepository, CarRepository carRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, CarRepository carRepository, AppointmentRepository appointmentRepository) {
         this.customerRepository = customerRepository;
         this.carRepository = carRepository;
+        this.appointmentRepository = appointmentRepository;
     }
 
     @Override
+    @Transactional
     public ResponseDto addCustomer(Customer customer) {
         try {
-            carRepository.saveAllAndFlush(customer.getCarList());
+            carRepository.saveAll(customer.getCarList());
             return ResponseDto.builder()
                     .result(customerRepository.saveAndFlush(customer))
                     .message("Customer is successfully added in the database")
                     .statusCode(HttpStatus.OK.value())
                     .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -38,23 +51,32 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public ResponseDto listOfCustomers() {
+    @Transactional(readOnly = true)
+    public ResponseDto listOfCustomers(PageQuery pageQuery, String surname) {
         try {
-            List<Customer> customerList = customerRepository.findAll();
-            if (customerList.isEmpty()) {
+            CursorPage<Customer> customersPage = CursorPage.of(customerRepository.findPage(pageQuery.afterId(), pageQuery.beforeId(), surname, pageQuery.toPageable()), pageQuery, Customer::getId);
+            if (customersPage.getItems().isEmpty()) {
                 return ResponseDto.builder()
-                        .result(customerList)
+                        .result(customersPage)
                         .message("There is no customer registered yet in the database")
                         .statusCode(HttpStatus.NOT_FOUND.value())
                         .build();
             } else {
                 return ResponseDto.builder()
-                        .result(customerList)
+                        .result(customersPage)
                         .message("This is the list of customers that are in the database")
                         .statusCode(HttpStatus.OK.value())
                         .build();
             }
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -64,13 +86,14 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional
     public ResponseDto deleteCustomer(long customerId) {
         try {
-            Customer customer = customerRepository.getById(customerId);
-            if (customer != null) {
-                customer.setCarList(null);
-                customerRepository.saveAndFlush(customer);
-                customerRepository.delete(customer);
+            List<Long> withAppointments = appointmentRepository.findCustomerIdsWithAppointments(Collections.singletonList(customerId));
+            if (!withAppointments.isEmpty()) {
+                return customersHaveAppointments(withAppointments);
+            }
+            if (deleteCustomerBatch(Collections.singletonList(customerId)) > 0) {
                 return ResponseDto.builder()
                         .result(null)
                         .message("Customer is successfully deleted from the database.")
@@ -84,6 +107,7 @@ public class CustomerServiceImpl implements CustomerService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -93,6 +117,55 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional
+    public ResponseDto deleteCustomers(Collection<Long> customerIds) {
+        try {
+            List<Long> withAppointments = new ArrayList<>();
+            for (List<Long> batch : IdBatches.of(customerIds)) {
+                withAppointments.addAll(appointmentRepository.findCustomerIdsWithAppointments(batch));
+            }
+            if (!withAppointments.isEmpty()) {
+                return customersHaveAppointments(withAppointments);
+            }
+            DeleteReport report = new DeleteReport();
+            for (List<Long> batch : IdBatches.of(customerIds)) {
+                report.setRequested(report.getRequested() + batch.size());
+                report.setDeleted(report.getDeleted() + deleteCustomerBatch(batch));
+            }
+            return ResponseDto.builder()
+                    .result(report)
+                    .message(report.getDeleted() + " customers have been deleted from the database.")
+                    .statusCode(report.getDeleted() > 0 ? HttpStatus.OK.value() : HttpStatus.NOT_FOUND.value())
+                    .build();
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * Unlinks the cars of the customers, which are kept, and deletes the customers. Customers with appointments are
+     * refused before this is reached, so appointments are never removed as a side effect.
+     */
+    private int deleteCustomerBatch(List<Long> customerIds) {
+        carRepository.detachCustomers(customerIds);
+        return customerRepository.deleteByIds(customerIds);
+    }
+
+    private static ResponseDto customersHaveAppointments(List<Long> customerIds) {
+        return ResponseDto.builder()
+                .result(customerIds)
+                .message("These customers still have appointments; delete their appointments first")
+                .statusCode(HttpStatus.CONFLICT.value())
+                .build();
+    }
+
+    @Override
+    @Transactional
     public ResponseDto updateCustomer(Customer customer) {
         try {
             Customer existingCustomer = customerRepository.getById(customer.getId());
@@ -110,6 +183,7 @@ public class CustomerServiceImpl implements CustomerService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
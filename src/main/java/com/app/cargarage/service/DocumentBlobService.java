@@ -0,0 +1,122 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.model.DocumentBlob;
+import com.app.cargarage.repository.DocumentBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reference counts for the files in the {@link DocumentStore}. Every car document holds one reference to the content
+ * it points to; identical uploads share a single file. Content whose count dropped to zero is removed by a periodic
+ * sweep.
+ * <p>
+ * Acquiring upserts the count row and then puts the staged file in place while the transaction still holds the lock
+ * on that row, so a document row is never committed for content that is not there. The sweep deletes a file only while
+ * it holds a lock on a row that still has no references. An upload racing a sweep of the same content therefore either
+ * waits for the sweep and then puts the file back, or makes the sweep skip the file. When the transaction rolls back,
+ * a row without references is left behind for the content, so the next sweep removes the file if nothing else
+ * acquired it meanwhile. Callers discard the staged file after the transaction.
+ */
+@Service
+public class DocumentBlobService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentBlobService.class);
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final DocumentStore documentStore;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    public DocumentBlobService(DocumentBlobRepository documentBlobRepository, DocumentStore documentStore, TransactionTemplate transactionTemplate) {
+        this.documentBlobRepository = documentBlobRepository;
+        this.documentStore = documentStore;
+        this.transactionTemplate = transactionTemplate;
+        this.newTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquire(DocumentStore.StagedDocument stagedDocument) {
+        documentBlobRepository.acquire(stagedDocument.getContentHash(), stagedDocument.getContentLength(), stagedDocument.getStoredLength(), LocalDateTime.now());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    leaveForSweep(stagedDocument);
+                }
+            }
+        });
+        try {
+            documentStore.commit(stagedDocument);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String contentHash) {
+        documentBlobRepository.release(contentHash);
+    }
+
+    /**
+     * Gives up the references of all documents of the cars in one statement; call it before the documents are deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseAllForCars(Collection<Long> carIds) {
+        documentBlobRepository.releaseAllForCars(carIds);
+    }
+
+    @Scheduled(fixedDelayString = "${documents.sweep-interval-ms}", initialDelayString = "${documents.sweep-interval-ms}")
+    public int sweep() {
+        int swept = 0;
+        List<String> candidates;
+        do {
+            candidates = documentBlobRepository.findUnreferenced(PageRequest.of(0, SWEEP_BATCH_SIZE));
+            for (String contentHash : candidates) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> sweep(contentHash)))) {
+                    swept++;
+                }
+            }
+        } while (candidates.size() == SWEEP_BATCH_SIZE);
+        return swept;
+    }
+
+    private void leaveForSweep(DocumentStore.StagedDocument stagedDocument) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> documentBlobRepository.track(stagedDocument.getContentHash(),
+                    stagedDocument.getContentLength(), stagedDocument.getStoredLength(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.warn("Could not record content {} of a rolled back upload; its file is not swept", stagedDocument.getContentHash(), e);
+        }
+    }
+
+    private boolean sweep(String contentHash) {
+        Optional<DocumentBlob> documentBlob = documentBlobRepository.lockUnreferenced(contentHash);
+        if (!documentBlob.isPresent()) {
+            return false;
+        }
+        try {
+            documentStore.delete(contentHash);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        documentBlobRepository.delete(documentBlob.get());
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package com.app.cargarage.service;
+
+/**
+ * How a document is kept in the {@link DocumentStore}. The header value is the HTTP content coding, so stored bytes
+ * can be sent as they are to clients that accept it.
+ */
+public enum DocumentEncoding {
+    IDENTITY("identity", ""),
+    GZIP("gzip", ".gz");
+
+    private final String headerValue;
+    private final String fileSuffix;
+
+    DocumentEncoding(String headerValue, String fileSuffix) {
+        this.headerValue = headerValue;
+        this.fileSuffix = fileSuffix;
+    }
+
+    public String getHeaderValue() {
+        return headerValue;
+    }
+
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+}
@@ -0,0 +1,15 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.ResponseDto;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+
+public interface DocumentIngestionService {
+    ResponseDto ingestZip(InputStream content);
+
+    ResponseDto ingestFiles(MultiValueMap<String, MultipartFile> documents);
+
+    ResponseDto getJob(String jobId);
+}
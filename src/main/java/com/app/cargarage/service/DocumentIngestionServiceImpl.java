@@ -0,0 +1,441 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.ResponseDto;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Batch ingestion: a ZIP whose entries are named {@code <licensePlate>/<fileName>}, or a multipart request whose
+ * field names are license plates, is spooled to disk on the request thread and answered with a job id straight away.
+ * Hashing and compressing the documents into the {@link DocumentStore} is fanned out over a fixed pool of
+ * {@code documents.ingestion-workers} threads, and the staged documents are written to the database in transactions
+ * of up to {@code documents.ingestion-batch-size} documents instead of one transaction each.
+ * <p>
+ * At most {@code documents.ingestion-queue-capacity} documents may wait for a worker. Each document takes its queue slot
+ * before it is spooled, and a request that finds the queue full is refused with 429 and nothing of it is kept, so a
+ * burst of uploads slows its clients down instead of piling up on disk. A request may spool at most
+ * {@code documents.ingestion-max-request-size} in total. Finished jobs stay queryable for
+ * {@code documents.ingestion-job-ttl}.
+ */
+@Service
+public class DocumentIngestionServiceImpl implements DocumentIngestionService, InitializingBean, DisposableBean {
+    private final LicensePlateIndex licensePlateIndex;
+    private final DocumentStore documentStore;
+    private final DocumentVersionService documentVersionService;
+    private final DocumentMetrics documentMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final BufferPool bufferPool;
+    private final Path spoolRoot;
+    private final DataSize maxUploadSize;
+    private final DataSize maxRequestSize;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration jobTtl;
+    private final Semaphore queueSlots;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    public DocumentIngestionServiceImpl(LicensePlateIndex licensePlateIndex, DocumentStore documentStore,
+                                        DocumentVersionService documentVersionService, DocumentMetrics documentMetrics,
+                                        TransactionTemplate transactionTemplate, BufferPool bufferPool,
+                                        @Value("${documents.ingestion-spool-path}") String spoolPath,
+                                        @Value("${documents.max-upload-size}") DataSize maxUploadSize,
+                                        @Value("${documents.ingestion-max-request-size}") DataSize maxRequestSize,
+                                        @Value("${documents.ingestion-workers}") int workerCount,
+                                        @Value("${documents.ingestion-queue-capacity}") int queueCapacity,
+                                        @Value("${documents.ingestion-batch-size}") int batchSize,
+                                        @Value("${documents.ingestion-job-ttl}") Duration jobTtl) {
+        this.licensePlateIndex = licensePlateIndex;
+        this.documentStore = documentStore;
+        this.documentVersionService = documentVersionService;
+        this.documentMetrics = documentMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.bufferPool = bufferPool;
+        this.spoolRoot = Paths.get(spoolPath).toAbsolutePath().normalize();
+        this.maxUploadSize = maxUploadSize;
+        this.maxRequestSize = maxRequestSize;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.jobTtl = jobTtl;
+        this.queueSlots = new Semaphore(queueCapacity);
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        FileSystemUtils.deleteRecursively(spoolRoot);
+        Files.createDirectories(spoolRoot);
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public ResponseDto ingestZip(InputStream content) {
+        if (queueSlots.availablePermits() == 0) {
+            return queueFull();
+        }
+        String jobId = UUID.randomUUID().toString();
+        Path jobDirectory = spoolRoot.resolve(jobId);
+        List<IngestionJob.Document> documents = new ArrayList<>();
+        boolean submitted = false;
+        try {
+            Files.createDirectories(jobDirectory);
+            List<String> rejected = new ArrayList<>();
+            long requestBytes = 0;
+            ZipInputStream zip = new ZipInputStream(content);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String name = StringUtils.cleanPath(entry.getName());
+                int slash = name.indexOf('/');
+                if (slash <= 0 || slash == name.length() - 1 || name.indexOf('/', slash + 1) >= 0) {
+                    rejected.add(name + ": the entry should be named <licensePlate>/<fileName>");
+                    continue;
+                }
+                if (documents.size() == queueCapacity) {
+                    return tooManyDocuments(jobDirectory);
+                }
+                if (!queueSlots.tryAcquire()) {
+                    deleteSpool(jobDirectory);
+                    return queueFull();
+                }
+                String fileName = name.substring(slash + 1);
+                IngestionJob.Document document = new IngestionJob.Document(name.substring(0, slash), fileName,
+                        MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString(),
+                        jobDirectory.resolve(documents.size() + ".part"));
+                documents.add(document);
+                long limit = Math.min(maxUploadSize.toBytes(), maxRequestSize.toBytes() - requestBytes);
+                try {
+                    requestBytes += spool(new SizeLimitedInputStream(zip, limit), document.getSpooledFile());
+                } catch (SizeLimitedInputStream.LimitExceededException e) {
+                    if (limit < maxUploadSize.toBytes()) {
+                        return requestTooLarge(jobDirectory);
+                    }
+                    documents.remove(documents.size() - 1);
+                    queueSlots.release();
+                    Files.deleteIfExists(document.getSpooledFile());
+                    rejected.add(name + ": the document is larger than the maximum of " + maxUploadSize.toMegabytes() + " MB");
+                }
+            }
+            submitted = true;
+            return submit(jobId, jobDirectory, documents, rejected);
+        } catch (ZipException e) {
+            deleteSpool(jobDirectory);
+            return ResponseDto.builder()
+                    .result(null)
+                    .message("The request body is not a valid ZIP file: " + e.getMessage())
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .build();
+        } catch (Exception e) {
+            deleteSpool(jobDirectory);
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        } finally {
+            if (!submitted) {
+                queueSlots.release(documents.size());
+            }
+        }
+    }
+
+    /**
+     * The multipart files only live as long as the request, so each is copied into the job's spool directory first.
+     */
+    @Override
+    public ResponseDto ingestFiles(MultiValueMap<String, MultipartFile> documentsByLicensePlate) {
+        if (queueSlots.availablePermits() == 0) {
+            return queueFull();
+        }
+        String jobId = UUID.randomUUID().toString();
+        Path jobDirectory = spoolRoot.resolve(jobId);
+        List<IngestionJob.Document> documents = new ArrayList<>();
+        boolean submitted = false;
+        try {
+            Files.createDirectories(jobDirectory);
+            List<String> rejected = new ArrayList<>();
+            long requestBytes = 0;
+            for (Map.Entry<String, List<MultipartFile>> entry : documentsByLicensePlate.entrySet()) {
+                for (MultipartFile file : entry.getValue()) {
+                    String name = entry.getKey() + "/" + file.getOriginalFilename();
+                    if (!StringUtils.hasText(file.getOriginalFilename())) {
+                        rejected.add(name + ": the document needs a file name");
+                        continue;
+                    }
+                    if (file.getSize() > maxUploadSize.toBytes()) {
+                        rejected.add(name + ": the document is larger than the maximum of " + maxUploadSize.toMegabytes() + " MB");
+                        continue;
+                    }
+                    if (documents.size() == queueCapacity) {
+                        return tooManyDocuments(jobDirectory);
+                    }
+                    requestBytes += file.getSize();
+                    if (requestBytes > maxRequestSize.toBytes()) {
+                        return requestTooLarge(jobDirectory);
+                    }
+                    if (!queueSlots.tryAcquire()) {
+                        deleteSpool(jobDirectory);
+                        return queueFull();
+                    }
+                    IngestionJob.Document document = new IngestionJob.Document(entry.getKey(), file.getOriginalFilename(),
+                            file.getContentType(), jobDirectory.resolve(documents.size() + ".part"));
+                    documents.add(document);
+                    try (InputStream content = file.getInputStream()) {
+                        spool(content, document.getSpooledFile());
+                    }
+                }
+            }
+            submitted = true;
+            return submit(jobId, jobDirectory, documents, rejected);
+        } catch (Exception e) {
+            deleteSpool(jobDirectory);
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        } finally {
+            if (!submitted) {
+                queueSlots.release(documents.size());
+            }
+        }
+    }
+
+    @Override
+    public ResponseDto getJob(String jobId) {
+        IngestionJob job = jobs.get(jobId);
+        if (job == null) {
+            return ResponseDto.builder()
+                    .result(null)
+                    .message("There is no ingestion job against this id, it may have expired")
+                    .statusCode(HttpStatus.NOT_FOUND.value())
+                    .build();
+        }
+        return ResponseDto.builder()
+                .result(job.status())
+                .message("Progress of this ingestion job")
+                .statusCode(HttpStatus.OK.value())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${documents.ingestion-job-cleanup-ms}", initialDelayString = "${documents.ingestion-job-cleanup-ms}")
+    public int expireJobs() {
+        LocalDateTime expired = LocalDateTime.now().minus(jobTtl);
+        int removed = 0;
+        for (IngestionJob job : jobs.values()) {
+            LocalDateTime finishedAt = job.getFinishedAt();
+            if (finishedAt != null && finishedAt.isBefore(expired)) {
+                jobs.remove(job.getId(), job);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private ResponseDto submit(String jobId, Path jobDirectory, List<IngestionJob.Document> documents, List<String> rejected) {
+        if (documents.isEmpty() && rejected.isEmpty()) {
+            deleteSpool(jobDirectory);
+            return ResponseDto.builder()
+                    .result(null)
+                    .message("The request contains no documents")
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .build();
+        }
+        IngestionJob job = new IngestionJob(jobId, documents.size(), rejected);
+        jobs.put(jobId, job);
+        if (job.isFinished()) {
+            deleteSpool(jobDirectory);
+        }
+        for (IngestionJob.Document document : documents) {
+            try {
+                workers.execute(() -> process(job, document));
+            } catch (RejectedExecutionException e) {
+                queueSlots.release();
+                deleteSpooledFile(document);
+                flush(job, job.skipped(document, "the ingestion workers are shutting down"));
+            }
+        }
+        return ResponseDto.builder()
+                .result(job.status())
+                .message("Documents have been queued for ingestion")
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .build();
+    }
+
+    private void process(IngestionJob job, IngestionJob.Document document) {
+        List<IngestionJob.Document> batch;
+        try {
+            Optional<Long> carId = licensePlateIndex.resolve(document.getLicensePlate());
+            if (carId.isPresent()) {
+                long start = System.nanoTime();
+                DocumentStore.StagedDocument stagedDocument;
+                try (InputStream content = Files.newInputStream(document.getSpooledFile())) {
+                    stagedDocument = documentStore.stage(content, document.getContentType());
+                }
+                documentMetrics.uploaded(stagedDocument, System.nanoTime() - start);
+                document.staged(carId.get(), stagedDocument);
+                batch = job.staged(document, batchSize);
+            } else {
+                batch = job.skipped(document, "there is no car against this license plate");
+            }
+        } catch (Exception e) {
+            batch = job.skipped(document, String.valueOf(e.getMessage()));
+        } finally {
+            deleteSpooledFile(document);
+            queueSlots.release();
+        }
+        flush(job, batch);
+    }
+
+    /**
+     * Writes a batch of staged documents in one transaction. When that fails, the documents are retried one
+     * transaction each, so a single bad document does not take the rest of its batch down with it.
+     */
+    private void flush(IngestionJob job, List<IngestionJob.Document> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (IngestionJob.Document document : batch) {
+                    addVersion(document);
+                }
+            });
+            job.stored(batch.size());
+        } catch (RuntimeException e) {
+            for (IngestionJob.Document document : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> addVersion(document));
+                    job.stored(1);
+                } catch (RuntimeException documentFailure) {
+                    job.failed(document, String.valueOf(documentFailure.getMessage()));
+                }
+            }
+        } finally {
+            for (IngestionJob.Document document : batch) {
+                documentStore.discard(document.getStagedDocument());
+            }
+            if (job.isFinished()) {
+                deleteSpool(spoolRoot.resolve(job.getId()));
+            }
+        }
+    }
+
+    private void addVersion(IngestionJob.Document document) {
+        documentVersionService.addVersion(document.getCarId(),
+                documentVersionService.documentName(document.getCarId(), document.getFileName()),
+                document.getContentType(), document.getStagedDocument());
+    }
+
+    private long spool(InputStream content, Path spooledFile) throws IOException {
+        byte[] buffer = bufferPool.acquire();
+        long length = 0;
+        try (OutputStream out = Files.newOutputStream(spooledFile)) {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                length += read;
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+        return length;
+    }
+
+    private ResponseDto tooManyDocuments(Path jobDirectory) {
+        deleteSpool(jobDirectory);
+        return ResponseDto.builder()
+                .result(null)
+                .message("A batch may hold at most " + queueCapacity + " documents")
+                .statusCode(HttpStatus.PAYLOAD_TOO_LARGE.value())
+                .build();
+    }
+
+    private ResponseDto requestTooLarge(Path jobDirectory) {
+        deleteSpool(jobDirectory);
+        return ResponseDto.builder()
+                .result(null)
+                .message("A batch may hold at most " + maxRequestSize.toMegabytes() + " MB of documents")
+                .statusCode(HttpStatus.PAYLOAD_TOO_LARGE.value())
+                .build();
+    }
+
+    private static ResponseDto queueFull() {
+        return ResponseDto.builder()
+                .result(null)
+                .message("Too many documents are waiting for ingestion, try again later")
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .build();
+    }
+
+    private static void deleteSpooledFile(IngestionJob.Document document) {
+        try {
+            Files.deleteIfExists(document.getSpooledFile());
+        } catch (IOException e) {
+            // the job directory is removed once the job finishes
+        }
+    }
+
+    private static void deleteSpool(Path jobDirectory) {
+        try {
+            FileSystemUtils.deleteRecursively(jobDirectory);
+        } catch (IOException e) {
+            // leftovers are removed at the next startup
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "document-ingestion-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.repository.DocumentBlobRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Document storage metrics, published under {@code /actuator/metrics}:
+ * <ul>
+ *     <li>{@code documents.store.content.bytes} and {@code documents.store.stored.bytes}: the size of all distinct
+ *     content before and after compression, read from the reference count table when the gauges are sampled;</li>
+ *     <li>{@code documents.upload} and {@code documents.upload.bytes}: time spent hashing and writing uploads and the
+ *     bytes received and stored, tagged by the encoding the content is kept in, so upload MB/s is bytes over time;</li>
+ *     <li>{@code documents.download.bytes}: bytes sent per full download, tagged by whether stored gzip was passed
+ *     through, decoded on the fly or stored plain.</li>
+ * </ul>
+ */
+@Component
+public class DocumentMetrics {
+    private final MeterRegistry meterRegistry;
+
+    public DocumentMetrics(MeterRegistry meterRegistry, DocumentBlobRepository documentBlobRepository) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("documents.store.content.bytes", documentBlobRepository, repository -> repository.sumStorage().getContentBytes())
+                .description("Size of all distinct stored documents before compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("documents.store.stored.bytes", documentBlobRepository, repository -> repository.sumStorage().getStoredBytes())
+                .description("Size of all distinct stored documents on disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void uploaded(DocumentStore.StagedDocument stagedDocument, long nanos) {
+        Tags tags = Tags.of("encoding", stagedDocument.getEncoding().getHeaderValue());
+        meterRegistry.timer("documents.upload", tags).record(nanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("documents.upload.bytes", tags.and("representation", "content")).increment(stagedDocument.getContentLength());
+        meterRegistry.counter("documents.upload.bytes", tags.and("representation", "stored")).increment(stagedDocument.getStoredLength());
+    }
+
+    public void downloaded(String transfer, long bytes) {
+        DistributionSummary.builder("documents.download.bytes")
+                .tag("transfer", transfer)
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .record(bytes);
+    }
+}
@@ -0,0 +1,63 @@
+package com.app.cargarage.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Content-addressed storage for uploaded documents. Content is identified by the SHA-256 hash of the uploaded bytes,
+ * so storing the same file twice keeps a single copy. Depending on the content type, content may be kept compressed;
+ * {@link #load} always returns the original bytes, while {@link #loadStored} returns them as they are kept.
+ * <p>
+ * Storing happens in two steps: {@link #stage} writes and hashes the upload outside the final location and
+ * {@link #commit} puts it in place. Callers that keep reference counts commit while their transaction holds the lock on
+ * the count, so a concurrent sweep of the same content can not remove the file from under them.
+ */
+public interface DocumentStore {
+    StagedDocument stage(InputStream content, String contentType) throws IOException;
+
+    void commit(StagedDocument stagedDocument) throws IOException;
+
+    void discard(StagedDocument stagedDocument);
+
+    Resource load(String contentHash) throws IOException;
+
+    Resource loadStored(String contentHash) throws IOException;
+
+    DocumentEncoding storedEncoding(String contentHash) throws IOException;
+
+    boolean exists(String contentHash);
+
+    void delete(String contentHash) throws IOException;
+
+    default StoredDocument store(InputStream content, String contentType) throws IOException {
+        StagedDocument stagedDocument = stage(content, contentType);
+        try {
+            commit(stagedDocument);
+            return new StoredDocument(stagedDocument.getContentHash(), stagedDocument.getContentLength());
+        } finally {
+            discard(stagedDocument);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    class StoredDocument {
+        private String contentHash;
+        private long contentLength;
+    }
+
+    @Data
+    @AllArgsConstructor
+    class StagedDocument {
+        private String contentHash;
+        private long contentLength;
+        private long storedLength;
+        private DocumentEncoding encoding;
+        private Path stagedFile;
+    }
+}
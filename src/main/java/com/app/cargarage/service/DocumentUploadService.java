@@ -0,0 +1,17 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.ResponseDto;
+
+import java.io.InputStream;
+
+public interface DocumentUploadService {
+    ResponseDto createSession(String licensePlate, String fileName, String contentType, long length);
+
+    ResponseDto writeChunk(String sessionId, long offset, long contentLength, InputStream content);
+
+    ResponseDto getSession(String sessionId);
+
+    ResponseDto finalizeSession(String sessionId);
+
+    ResponseDto cancelSession(String sessionId);
+}
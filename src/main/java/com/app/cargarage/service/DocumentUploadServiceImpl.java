@@ -0,0 +1,388 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.CarDocument;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunked uploads: a client opens a session for a document of known length, sends its bytes in chunks of any size at
+ * any offset and finalizes the session once every byte arrived. Chunks are written straight to their position in the
+ * session file, so they may arrive out of order, in parallel or more than once; after a dropped connection the client
+ * asks which ranges are missing and sends only those.
+ * <p>
+ * Each session keeps its bytes in {@code <id>.part} and its metadata, including the ranges received so far, in
+ * {@code <id>.json} under {@code documents.upload-session-path}. Sessions are reloaded from there at startup, so an
+ * upload survives a restart of the application; a file without readable metadata is removed. Sessions that saw no
+ * chunk for {@code documents.upload-session-ttl} are removed by a periodic cleanup. At most
+ * {@code documents.upload-session-max-count} sessions, together declaring at most
+ * {@code documents.upload-session-max-bytes}, may be open; further sessions are refused with 429. Nothing touches the
+ * database before finalize, which hands the assembled file to the regular upload path.
+ */
+@Service
+public class DocumentUploadServiceImpl implements DocumentUploadService, InitializingBean {
+    private static final String PART = ".part";
+    private static final String METADATA = ".json";
+
+    private final CarService carService;
+    private final BufferPool bufferPool;
+    private final ObjectMapper objectMapper;
+    private final Path sessionRoot;
+    private final DataSize maxUploadSize;
+    private final Duration sessionTtl;
+    private final int maxSessions;
+    private final long maxSessionBytes;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private int sessionCount;
+    private long sessionBytes;
+
+    public DocumentUploadServiceImpl(CarService carService, BufferPool bufferPool, ObjectMapper objectMapper,
+                                     @Value("${documents.upload-session-path}") String sessionPath,
+                                     @Value("${documents.max-upload-size}") DataSize maxUploadSize,
+                                     @Value("${documents.upload-session-ttl}") Duration sessionTtl,
+                                     @Value("${documents.upload-session-max-count}") int maxSessions,
+                                     @Value("${documents.upload-session-max-bytes}") DataSize maxSessionBytes) {
+        this.carService = carService;
+        this.bufferPool = bufferPool;
+        this.objectMapper = objectMapper;
+        this.sessionRoot = Paths.get(sessionPath).toAbsolutePath().normalize();
+        this.maxUploadSize = maxUploadSize;
+        this.sessionTtl = sessionTtl;
+        this.maxSessions = maxSessions;
+        this.maxSessionBytes = maxSessionBytes.toBytes();
+    }
+
+    /**
+     * Reloads the sessions that were open before a restart and removes files that belong to no readable session.
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        Files.createDirectories(sessionRoot);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(sessionRoot)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(PART)) {
+                    UploadSession session = load(name.substring(0, name.length() - PART.length()), file);
+                    if (session != null) {
+                        sessions.put(session.getId(), session);
+                        sessionCount++;
+                        sessionBytes += session.getLength();
+                        continue;
+                    }
+                } else if (name.endsWith(METADATA) && Files.exists(partFile(name.substring(0, name.length() - METADATA.length())))) {
+                    continue;
+                }
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Override
+    public ResponseDto createSession(String licensePlate, String fileName, String contentType, long length) {
+        try {
+            if (!StringUtils.hasText(licensePlate) || !StringUtils.hasText(fileName) || length < 1) {
+                return ResponseDto.builder()
+                        .result(null)
+                        .message("An upload needs a license plate, a file name and a length of at least one byte")
+                        .statusCode(HttpStatus.BAD_REQUEST.value())
+                        .build();
+            }
+            if (length > maxUploadSize.toBytes()) {
+                return ResponseDto.builder()
+                        .result(null)
+                        .message("The document is larger than the maximum of " + maxUploadSize.toMegabytes() + " MB")
+                        .statusCode(HttpStatus.PAYLOAD_TOO_LARGE.value())
+                        .build();
+            }
+            if (!reserve(length)) {
+                return ResponseDto.builder()
+                        .result(null)
+                        .message("Too many uploads are in progress, try again later")
+                        .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                        .build();
+            }
+            String id = UUID.randomUUID().toString();
+            UploadSession session;
+            try {
+                session = new UploadSession(id, licensePlate, fileName, contentType, length, Files.createFile(partFile(id)));
+                save(session);
+            } catch (IOException | RuntimeException e) {
+                release(length);
+                Files.deleteIfExists(partFile(id));
+                Files.deleteIfExists(metadataFile(id));
+                throw e;
+            }
+            sessions.put(id, session);
+            return ResponseDto.builder()
+                    .result(session.status(sessionTtl))
+                    .message("Upload session has been created")
+                    .statusCode(HttpStatus.OK.value())
+                    .build();
+        } catch (Exception e) {
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * Writes the chunk at {@code offset} with positional writes through a pooled buffer. Whatever part of the chunk
+     * reached the file counts as received, also when the connection drops halfway; it is forced to disk before the
+     * metadata records it, so a restart never reports bytes as received that were lost.
+     */
+    @Override
+    public ResponseDto writeChunk(String sessionId, long offset, long contentLength, InputStream content) {
+        try {
+            UploadSession session = sessions.get(sessionId);
+            if (session == null) {
+                return sessionNotFound();
+            }
+            if (session.isFinalizing()) {
+                return ResponseDto.builder()
+                        .result(session.status(sessionTtl))
+                        .message("This upload is being finalized")
+                        .statusCode(HttpStatus.CONFLICT.value())
+                        .build();
+            }
+            if (offset < 0 || offset > session.getLength() || (contentLength >= 0 && offset + contentLength > session.getLength())) {
+                return chunkOutOfRange(session);
+            }
+            session.touch();
+            long position = offset;
+            byte[] buffer = bufferPool.acquire();
+            try (FileChannel channel = FileChannel.open(session.getFile(), StandardOpenOption.WRITE);
+                 InputStream in = new SizeLimitedInputStream(content, session.getLength() - offset)) {
+                int read;
+                try {
+                    while ((read = in.read(buffer)) != -1) {
+                        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                        while (bytes.hasRemaining()) {
+                            position += channel.write(bytes, position);
+                        }
+                    }
+                } finally {
+                    channel.force(false);
+                }
+            } catch (SizeLimitedInputStream.LimitExceededException e) {
+                return chunkOutOfRange(session);
+            } finally {
+                bufferPool.release(buffer);
+                session.received(offset, position);
+                save(session);
+            }
+            return ResponseDto.builder()
+                    .result(session.status(sessionTtl))
+                    .message("Chunk has been received")
+                    .statusCode(HttpStatus.OK.value())
+                    .build();
+        } catch (Exception e) {
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    @Override
+    public ResponseDto getSession(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null) {
+            return sessionNotFound();
+        }
+        return ResponseDto.builder()
+                .result(session.status(sessionTtl))
+                .message("Progress of this upload")
+                .statusCode(HttpStatus.OK.value())
+                .build();
+    }
+
+    @Override
+    public ResponseDto finalizeSession(String sessionId) {
+        try {
+            UploadSession session = sessions.get(sessionId);
+            if (session == null) {
+                return sessionNotFound();
+            }
+            if (!session.isComplete()) {
+                return ResponseDto.builder()
+                        .result(session.status(sessionTtl))
+                        .message("Not every byte of this upload has been received yet")
+                        .statusCode(HttpStatus.CONFLICT.value())
+                        .build();
+            }
+            if (!session.startFinalizing()) {
+                return ResponseDto.builder()
+                        .result(session.status(sessionTtl))
+                        .message("This upload is being finalized")
+                        .statusCode(HttpStatus.CONFLICT.value())
+                        .build();
+            }
+            ResponseDto response;
+            try (InputStream content = Files.newInputStream(session.getFile())) {
+                response = carService.uploadDocumentStream(session.getLicensePlate(), session.getFileName(),
+                        session.getContentType(), session.getLength(), content);
+            } catch (IOException | RuntimeException e) {
+                session.finalizingFailed();
+                throw e;
+            }
+            if (response.getResult() instanceof CarDocument) {
+                remove(session);
+            } else {
+                session.finalizingFailed();
+            }
+            return response;
+        } catch (Exception e) {
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    @Override
+    public ResponseDto cancelSession(String sessionId) {
+        try {
+            UploadSession session = sessions.get(sessionId);
+            if (session == null) {
+                return sessionNotFound();
+            }
+            remove(session);
+            return ResponseDto.builder()
+                    .result(null)
+                    .message("Upload session has been cancelled")
+                    .statusCode(HttpStatus.OK.value())
+                    .build();
+        } catch (Exception e) {
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${documents.upload-session-cleanup-ms}", initialDelayString = "${documents.upload-session-cleanup-ms}")
+    public int expireSessions() throws IOException {
+        LocalDateTime expired = LocalDateTime.now().minus(sessionTtl);
+        int removed = 0;
+        for (UploadSession session : sessions.values()) {
+            if (session.getLastTouched().isBefore(expired) && !session.isFinalizing()) {
+                remove(session);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private void remove(UploadSession session) throws IOException {
+        if (sessions.remove(session.getId(), session)) {
+            release(session.getLength());
+        }
+        Files.deleteIfExists(session.getFile());
+        Files.deleteIfExists(metadataFile(session.getId()));
+    }
+
+    private synchronized boolean reserve(long length) {
+        if (sessionCount >= maxSessions || sessionBytes + length > maxSessionBytes) {
+            return false;
+        }
+        sessionCount++;
+        sessionBytes += length;
+        return true;
+    }
+
+    private synchronized void release(long length) {
+        sessionCount--;
+        sessionBytes -= length;
+    }
+
+    private Path partFile(String id) {
+        return sessionRoot.resolve(id + PART);
+    }
+
+    private Path metadataFile(String id) {
+        return sessionRoot.resolve(id + METADATA);
+    }
+
+    /**
+     * Replaces the session's metadata file atomically, so a crash leaves either the old or the new version.
+     */
+    private void save(UploadSession session) throws IOException {
+        synchronized (session) {
+            ObjectNode metadata = objectMapper.createObjectNode()
+                    .put("licensePlate", session.getLicensePlate())
+                    .put("fileName", session.getFileName())
+                    .put("contentType", session.getContentType())
+                    .put("length", session.getLength())
+                    .put("lastTouched", session.getLastTouched().toString());
+            ArrayNode received = metadata.putArray("received");
+            for (long[] range : session.receivedRanges()) {
+                received.addArray().add(range[0]).add(range[1]);
+            }
+            Path temp = sessionRoot.resolve(session.getId() + METADATA + ".tmp");
+            Files.write(temp, objectMapper.writeValueAsBytes(metadata));
+            Files.move(temp, metadataFile(session.getId()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private UploadSession load(String id, Path file) {
+        try {
+            JsonNode metadata = objectMapper.readTree(metadataFile(id).toFile());
+            UploadSession session = new UploadSession(id, metadata.path("licensePlate").asText(), metadata.path("fileName").asText(),
+                    metadata.hasNonNull("contentType") ? metadata.get("contentType").asText() : null, metadata.path("length").asLong(), file);
+            session.setLastTouched(LocalDateTime.parse(metadata.path("lastTouched").asText()));
+            for (JsonNode range : metadata.path("received")) {
+                session.received(range.path(0).asLong(), range.path(1).asLong());
+            }
+            return session;
+        } catch (IOException | RuntimeException e) {
+            // metadata that is missing or unreadable leaves the file to be removed
+            return null;
+        }
+    }
+
+    private static ResponseDto sessionNotFound() {
+        return ResponseDto.builder()
+                .result(null)
+                .message("There is no upload session against this id, it may have expired")
+                .statusCode(HttpStatus.NOT_FOUND.value())
+                .build();
+    }
+
+    private ResponseDto chunkOutOfRange(UploadSession session) {
+        return ResponseDto.builder()
+                .result(session.status(sessionTtl))
+                .message("The chunk does not fit within the " + session.getLength() + " bytes of this upload")
+                .statusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value())
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.model.CarDocument;
+import com.app.cargarage.repository.CarDocumentRepository;
+import com.app.cargarage.repository.CarRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes the next version of a car document for content that has been staged in the {@link DocumentStore}. Runs in
+ * the caller's transaction, so a single upload and a whole batch of ingested documents commit the same way.
+ */
+@Service
+public class DocumentVersionService {
+    private final CarRepository carRepository;
+    private final CarDocumentRepository carDocumentRepository;
+    private final DocumentBlobService documentBlobService;
+
+    public DocumentVersionService(CarRepository carRepository, CarDocumentRepository carDocumentRepository, DocumentBlobService documentBlobService) {
+        this.carRepository = carRepository;
+        this.carDocumentRepository = carDocumentRepository;
+        this.documentBlobService = documentBlobService;
+    }
+
+    private static String documentName(String licensePlate, String fileName) {
+        return "car_document-" + licensePlate + "-" + StringUtils.cleanPath(fileName);
+    }
+
+    /**
+     * Names the document after the plate stored on the car rather than the spelling the caller used, so every upload
+     * of a file for the same car becomes a version of the same document.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String documentName(long carId, String fileName) {
+        String licensePlate = carRepository.findLicensePlateById(carId)
+                .orElseThrow(() -> new EntityNotFoundException("There is no car against this id"));
+        return documentName(licensePlate, fileName);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CarDocument addVersion(long carId, String documentName, String documentType, DocumentStore.StagedDocument stagedDocument) {
+        documentBlobService.acquire(stagedDocument);
+        return carDocumentRepository.save(CarDocument.builder()
+                .car(carRepository.getById(carId))
+                .documentType(documentType)
+                .documentName(documentName)
+                .version(carDocumentRepository.findLatestVersion(carId, documentName) + 1)
+                .contentHash(stagedDocument.getContentHash())
+                .contentLength(stagedDocument.getContentLength())
+                .uploadedAt(LocalDateTime.now())
+                .build());
+    }
+}
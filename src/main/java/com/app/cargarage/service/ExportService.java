@@ -0,0 +1,12 @@
+package com.app.cargarage.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+    long exportCars(OutputStream outputStream) throws IOException;
+
+    long exportCustomers(OutputStream outputStream) throws IOException;
+
+    long exportReceipts(OutputStream outputStream) throws IOException;
+}
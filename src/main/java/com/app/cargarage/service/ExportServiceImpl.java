@@ -0,0 +1,132 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.model.Receipt;
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.repository.CustomerRepository;
+import com.app.cargarage.repository.ReceiptRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as newline-delimited JSON while they are read from the database cursor. Rows are written
+ * as soon as they arrive and the persistence context is cleared every {@code export.clear-interval} rows, so the
+ * heap stays flat whatever the table size.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+    private final CarRepository carRepository;
+    private final CustomerRepository customerRepository;
+    private final ReceiptRepository receiptRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int clearInterval;
+
+    public ExportServiceImpl(CarRepository carRepository, CustomerRepository customerRepository, ReceiptRepository receiptRepository,
+                             EntityManager entityManager, ObjectMapper objectMapper,
+                             @Value("${export.clear-interval:500}") int clearInterval) {
+        this.carRepository = carRepository;
+        this.customerRepository = customerRepository;
+        this.receiptRepository = receiptRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.clearInterval = clearInterval;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportCars(OutputStream outputStream) throws IOException {
+        try (Stream<Car> cars = carRepository.streamAllWithCustomer();
+             JsonGenerator generator = createGenerator(outputStream)) {
+            long rows = 0;
+            Iterator<Car> iterator = cars.iterator();
+            while (iterator.hasNext()) {
+                Car car = iterator.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", car.getId());
+                generator.writeStringField("licensePlate", car.getLicensePlate());
+                generator.writeStringField("repairStatus", car.getRepairStatus() == null ? null : car.getRepairStatus().getLabel());
+                if (car.getCustomer() != null) {
+                    generator.writeNumberField("customerId", car.getCustomer().getId());
+                } else {
+                    generator.writeNullField("customerId");
+                }
+                generator.writeEndObject();
+                rows = endRow(generator, rows);
+            }
+            return rows;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportCustomers(OutputStream outputStream) throws IOException {
+        try (Stream<Customer> customers = customerRepository.streamAll();
+             JsonGenerator generator = createGenerator(outputStream)) {
+            long rows = 0;
+            Iterator<Customer> iterator = customers.iterator();
+            while (iterator.hasNext()) {
+                Customer customer = iterator.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", customer.getId());
+                generator.writeStringField("surname", customer.getSurname());
+                generator.writeStringField("phoneNumber", customer.getPhoneNumber());
+                generator.writeStringField("address", customer.getAddress());
+                generator.writeEndObject();
+                rows = endRow(generator, rows);
+            }
+            return rows;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportReceipts(OutputStream outputStream) throws IOException {
+        try (Stream<Receipt> receipts = receiptRepository.streamAll();
+             JsonGenerator generator = createGenerator(outputStream)) {
+            long rows = 0;
+            Iterator<Receipt> iterator = receipts.iterator();
+            while (iterator.hasNext()) {
+                Receipt receipt = iterator.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", receipt.getId());
+                generator.writeStringField("status", receipt.getStatus());
+                generator.writeStringField("carLicensePlate", receipt.getCarLicensePlate());
+                generator.writeNumberField("repairOperationsAmount", receipt.getRepairOperationsAmount());
+                generator.writeNumberField("inspectionAmount", receipt.getInspectionAmount());
+                generator.writeNumberField("partsAmount", receipt.getPartsAmount());
+                generator.writeNumberField("totalAmountOfRepairing", receipt.getTotalAmountOfRepairing());
+                generator.writeEndObject();
+                rows = endRow(generator, rows);
+            }
+            return rows;
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private long endRow(JsonGenerator generator, long rows) throws IOException {
+        generator.writeRaw('\n');
+        rows++;
+        if (rows % clearInterval == 0) {
+            generator.flush();
+            entityManager.clear();
+        }
+        return rows;
+    }
+}
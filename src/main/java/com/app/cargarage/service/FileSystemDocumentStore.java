@@ -0,0 +1,259 @@
+package com.app.cargarage.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps every document as a file named after its SHA-256 hash under {@code <root>/ab/cd/abcd...}. Uploads are written
+ * to a temp file under the same root while they are hashed and then renamed into place, so a reader never sees a
+ * partially written document and the content is never held in memory. Hashing, counting and writing happen in one
+ * pass through a buffer borrowed from the {@link BufferPool}.
+ * <p>
+ * Text-like content is gzipped with the default level and other content with the fastest level while it is written,
+ * and kept as {@code abcd....gz}. Formats that are compressed already, such as images, archives and office documents,
+ * are written as they are, and so is anything gzip does not shrink by at least 5 percent.
+ */
+@Service
+public class FileSystemDocumentStore implements DocumentStore {
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = BufferPool.BUFFER_SIZE;
+    private static final int MIN_SAVING_PERCENT = 5;
+    private static final Set<String> TEXT_TYPES = new HashSet<>(Arrays.asList(
+            "application/json", "application/xml", "application/javascript", "application/x-ndjson",
+            "application/csv", "application/rtf", "image/svg+xml"));
+    private static final Set<String> COMPRESSED_TYPES = new HashSet<>(Arrays.asList(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/heic",
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+            "application/x-rar-compressed", "application/x-bzip2", "application/vnd.rar"));
+
+    private final Path root;
+    private final Path uploads;
+    private final BufferPool bufferPool;
+
+    public FileSystemDocumentStore(@Value("${documents.store-path}") String storePath, BufferPool bufferPool) {
+        this.root = Paths.get(storePath).toAbsolutePath().normalize();
+        this.uploads = root.resolve("tmp");
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public StagedDocument stage(InputStream content, String contentType) throws IOException {
+        MessageDigest digest = sha256();
+        Files.createDirectories(uploads);
+        Path temp = Files.createTempFile(uploads, "upload-", ".tmp");
+        try {
+            int level = compressionLevel(contentType);
+            long contentLength = 0;
+            byte[] buffer = bufferPool.acquire();
+            try (InputStream in = new DigestInputStream(content, digest); OutputStream out = level == Deflater.NO_COMPRESSION
+                    ? Files.newOutputStream(temp) : gzip(Files.newOutputStream(temp), level)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    contentLength += read;
+                }
+            } finally {
+                bufferPool.release(buffer);
+            }
+            String contentHash = toHex(digest.digest());
+            long storedLength = Files.size(temp);
+            if (level == Deflater.NO_COMPRESSION) {
+                return new StagedDocument(contentHash, contentLength, storedLength, DocumentEncoding.IDENTITY, temp);
+            }
+            if (storedLength * 100 > contentLength * (100 - MIN_SAVING_PERCENT)) {
+                Path inflated = inflate(temp);
+                Files.delete(temp);
+                return new StagedDocument(contentHash, contentLength, contentLength, DocumentEncoding.IDENTITY, inflated);
+            }
+            return new StagedDocument(contentHash, contentLength, storedLength, DocumentEncoding.GZIP, temp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Puts the staged file in place unless the content is stored already, in either encoding.
+     */
+    @Override
+    public void commit(StagedDocument stagedDocument) throws IOException {
+        if (!exists(stagedDocument.getContentHash())) {
+            Path target = pathOf(stagedDocument.getContentHash(), stagedDocument.getEncoding());
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(stagedDocument.getStagedFile(), target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // the same content was stored concurrently
+            }
+        }
+    }
+
+    @Override
+    public void discard(StagedDocument stagedDocument) {
+        try {
+            Files.deleteIfExists(stagedDocument.getStagedFile());
+        } catch (IOException e) {
+            // a leftover temp file only wastes space
+        }
+    }
+
+    @Override
+    public Resource load(String contentHash) throws IOException {
+        DocumentEncoding encoding = storedEncoding(contentHash);
+        Path path = pathOf(contentHash, encoding);
+        return encoding == DocumentEncoding.GZIP ? new GzipFileResource(path) : new FileSystemResource(path);
+    }
+
+    @Override
+    public Resource loadStored(String contentHash) throws IOException {
+        return new FileSystemResource(pathOf(contentHash, storedEncoding(contentHash)));
+    }
+
+    @Override
+    public DocumentEncoding storedEncoding(String contentHash) throws IOException {
+        for (DocumentEncoding encoding : DocumentEncoding.values()) {
+            if (Files.isRegularFile(pathOf(contentHash, encoding))) {
+                return encoding;
+            }
+        }
+        throw new FileNotFoundException("There is no document stored with hash " + contentHash);
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        for (DocumentEncoding encoding : DocumentEncoding.values()) {
+            if (Files.isRegularFile(pathOf(contentHash, encoding))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void delete(String contentHash) throws IOException {
+        for (DocumentEncoding encoding : DocumentEncoding.values()) {
+            Files.deleteIfExists(pathOf(contentHash, encoding));
+        }
+    }
+
+    private static int compressionLevel(String contentType) {
+        String type = contentType == null ? "" : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (type.startsWith("text/") || TEXT_TYPES.contains(type) || type.endsWith("+xml") || type.endsWith("+json")) {
+            return Deflater.DEFAULT_COMPRESSION;
+        }
+        if (COMPRESSED_TYPES.contains(type) || type.startsWith("video/") || type.startsWith("audio/")
+                || type.startsWith("application/vnd.openxmlformats-officedocument.")
+                || type.startsWith("application/vnd.oasis.opendocument.")) {
+            return Deflater.NO_COMPRESSION;
+        }
+        return Deflater.BEST_SPEED;
+    }
+
+    private Path inflate(Path gzipped) throws IOException {
+        Path temp = Files.createTempFile(uploads, "upload-", ".tmp");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gzipped), BUFFER_SIZE)) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private Path pathOf(String contentHash, DocumentEncoding encoding) {
+        if (contentHash == null || !CONTENT_HASH.matcher(contentHash).matches()) {
+            throw new IllegalArgumentException("Invalid content hash: " + contentHash);
+        }
+        return root.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4))
+                .resolve(contentHash + encoding.getFileSuffix());
+    }
+
+    private static OutputStream gzip(OutputStream out, int level) throws IOException {
+        return new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * A gzipped file read back as its original content. The length comes from the size field at the end of the gzip
+     * trailer, which is exact for the single-member files written here below 4 GB, so responses and byte ranges can
+     * be served without inflating the file first.
+     */
+    private static class GzipFileResource extends AbstractResource {
+        private final Path path;
+
+        GzipFileResource(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public boolean exists() {
+            return Files.isRegularFile(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE);
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            try (FileChannel channel = FileChannel.open(path)) {
+                ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                channel.read(trailer, channel.size() - 4);
+                trailer.flip();
+                return trailer.getInt() & 0xffffffffL;
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "gzipped file [" + path + "]";
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.app.cargarage.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Splits the keys of a bulk operation into batches that fit one {@code IN} list, dropping duplicates and {@code null}s.
+ * Bounding the list keeps the statements within the packet size and lets Hibernate reuse a few padded query plans
+ * instead of compiling one per list length.
+ */
+final class IdBatches {
+    static final int SIZE = 1000;
+
+    private IdBatches() {
+    }
+
+    static <T> List<List<T>> of(Collection<T> keys) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        distinct.removeIf(key -> key == null);
+        List<List<T>> batches = new ArrayList<>();
+        for (int start = 0; start < distinct.size(); start += SIZE) {
+            batches.add(distinct.subList(start, Math.min(start + SIZE, distinct.size())));
+        }
+        return batches;
+    }
+}
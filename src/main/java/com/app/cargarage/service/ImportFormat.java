@@ -0,0 +1,34 @@
+package com.app.cargarage.service;
+
+import java.util.Locale;
+import java.util.Optional;
+
+public enum ImportFormat {
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String mediaType;
+    private final String fileSuffix;
+
+    ImportFormat(String mediaType, String fileSuffix) {
+        this.mediaType = mediaType;
+        this.fileSuffix = fileSuffix;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static Optional<ImportFormat> fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jsonl")) {
+            return Optional.of(NDJSON);
+        }
+        for (ImportFormat format : values()) {
+            if (name.endsWith(format.fileSuffix)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,9 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.ResponseDto;
+
+import java.io.InputStream;
+
+public interface ImportService {
+    ResponseDto importCars(InputStream content, ImportFormat format);
+}
@@ -0,0 +1,275 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.ImportReport;
+import com.app.cargarage.dto.ImportRow;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.model.RepairStatus;
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Imports cars and their owners from a CSV file with a header row or from NDJSON. The file is read one row at a time
+ * and written in transactions of {@code import.chunk-size} rows whose inserts go out as JDBC batches, so memory use
+ * does not depend on the size of the file.
+ * <p>
+ * License plates are upper-cased with separators turned into dashes, and phone numbers are stripped to digits with an
+ * optional leading {@code +}. Plates that are already registered, or appear earlier in the file, are skipped; they are
+ * compared in the {@link PlateTable#normalize(String)} form the license plate index uses, so {@code 81PNPK} and
+ * {@code 81-PN-PK} count as the same car. Rows with the phone number of an existing customer are added to that
+ * customer. A chunk that fails as a whole, for instance because the same plate was registered concurrently, is
+ * retried one row per transaction so only the offending rows are reported.
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+    private static final Pattern LICENSE_PLATE = Pattern.compile("(?=.{2,12}$)[A-Z0-9]+(-[A-Z0-9]+)*");
+    private static final Pattern LICENSE_PLATE_SEPARATORS = Pattern.compile("[\\s_.]+");
+    private static final Pattern PHONE_NUMBER = Pattern.compile("\\+?[0-9]{6,15}");
+    private static final Pattern PHONE_NUMBER_SEPARATORS = Pattern.compile("[\\s().\\-/]");
+
+    private final CarRepository carRepository;
+    private final CustomerRepository customerRepository;
+    private final LicensePlateIndex licensePlateIndex;
+    private final RepairStatusCounters repairStatusCounters;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public ImportServiceImpl(CarRepository carRepository, CustomerRepository customerRepository, LicensePlateIndex licensePlateIndex,
+                             RepairStatusCounters repairStatusCounters, EntityManager entityManager,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Value("${import.chunk-size}") int chunkSize,
+                             @Value("${import.max-reported-errors}") int maxReportedErrors) {
+        this.carRepository = carRepository;
+        this.customerRepository = customerRepository;
+        this.licensePlateIndex = licensePlateIndex;
+        this.repairStatusCounters = repairStatusCounters;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ResponseDto importCars(InputStream content, ImportFormat format) {
+        ImportReport report = new ImportReport();
+        try (RowReader<ImportRow> rows = RowReader.open(content, format, ImportRow.class, objectMapper)) {
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            Set<String> chunkPlates = new HashSet<>();
+            while (true) {
+                long rowNumber = report.getRows() + 1;
+                ImportRow row;
+                try {
+                    row = rows.next();
+                } catch (RowReader.UnreadableRowException e) {
+                    report.setRows(rowNumber);
+                    fail(report, rowNumber, null, e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                report.setRows(rowNumber);
+                PendingRow pending = validate(rowNumber, row, report);
+                if (pending == null) {
+                    continue;
+                }
+                if (!chunkPlates.add(PlateTable.normalize(pending.licensePlate))) {
+                    report.setDuplicates(report.getDuplicates() + 1);
+                    continue;
+                }
+                chunk.add(pending);
+                if (chunk.size() == chunkSize) {
+                    write(chunk, report);
+                    chunk.clear();
+                    chunkPlates.clear();
+                }
+            }
+            write(chunk, report);
+            return ResponseDto.builder()
+                    .result(report)
+                    .message(report.getImported() + " cars have been imported")
+                    .statusCode(HttpStatus.OK.value())
+                    .build();
+        } catch (Exception e) {
+            report.setAborted(true);
+            fail(report, report.getRows(), null, "The import stopped: " + e.getMessage());
+            return ResponseDto.builder()
+                    .result(report)
+                    .message(e.getMessage())
+                    .statusCode(e instanceof JsonProcessingException ? HttpStatus.BAD_REQUEST.value() : HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .build();
+        }
+    }
+
+    public static String normalizeLicensePlate(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        String licensePlate = LICENSE_PLATE_SEPARATORS.matcher(value.trim().toUpperCase(Locale.ROOT)).replaceAll("-");
+        return LICENSE_PLATE.matcher(licensePlate).matches() ? licensePlate : null;
+    }
+
+    public static String normalizePhoneNumber(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        String phoneNumber = PHONE_NUMBER_SEPARATORS.matcher(value.trim()).replaceAll("");
+        if (phoneNumber.startsWith("00")) {
+            phoneNumber = "+" + phoneNumber.substring(2);
+        }
+        return PHONE_NUMBER.matcher(phoneNumber).matches() ? phoneNumber : null;
+    }
+
+    private PendingRow validate(long rowNumber, ImportRow row, ImportReport report) {
+        String licensePlate = normalizeLicensePlate(row.getLicensePlate());
+        if (licensePlate == null) {
+            fail(report, rowNumber, row.getLicensePlate(), "The license plate is missing or not valid");
+            return null;
+        }
+        String phoneNumber = null;
+        if (StringUtils.hasText(row.getSurname()) || StringUtils.hasText(row.getPhoneNumber()) || StringUtils.hasText(row.getAddress())) {
+            phoneNumber = normalizePhoneNumber(row.getPhoneNumber());
+            if (phoneNumber == null) {
+                fail(report, rowNumber, licensePlate, "The customer needs a valid phone number");
+                return null;
+            }
+        }
+        return new PendingRow(rowNumber, licensePlate, trimToNull(row.getSurname()), phoneNumber, trimToNull(row.getAddress()));
+    }
+
+    private void write(List<PendingRow> chunk, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            add(report, transactionTemplate.execute(status -> insert(chunk)));
+        } catch (RuntimeException e) {
+            for (PendingRow row : chunk) {
+                try {
+                    add(report, transactionTemplate.execute(status -> insert(Collections.singletonList(row))));
+                } catch (RuntimeException rowFailure) {
+                    fail(report, row.number, row.licensePlate, NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+    }
+
+    private ChunkResult insert(List<PendingRow> rows) {
+        Set<String> licensePlates = new HashSet<>();
+        Set<String> phoneNumbers = new HashSet<>();
+        for (PendingRow row : rows) {
+            licensePlates.add(row.licensePlate);
+            if (row.phoneNumber != null) {
+                phoneNumbers.add(row.phoneNumber);
+            }
+        }
+        Set<String> registered = new HashSet<>();
+        for (String licensePlate : carRepository.findExistingLicensePlates(licensePlates)) {
+            registered.add(PlateTable.normalize(licensePlate));
+        }
+        Map<String, Customer> customers = new HashMap<>();
+        if (!phoneNumbers.isEmpty()) {
+            for (Customer customer : customerRepository.findByPhoneNumberIn(phoneNumbers)) {
+                customers.putIfAbsent(customer.getPhoneNumber(), customer);
+            }
+        }
+
+        ChunkResult result = new ChunkResult();
+        for (PendingRow row : rows) {
+            if (registered.contains(PlateTable.normalize(row.licensePlate)) || licensePlateIndex.isRegistered(row.licensePlate)) {
+                result.duplicates++;
+                continue;
+            }
+            Customer customer = null;
+            if (row.phoneNumber != null) {
+                customer = customers.get(row.phoneNumber);
+                if (customer == null) {
+                    customer = Customer.builder()
+                            .surname(row.surname)
+                            .phoneNumber(row.phoneNumber)
+                            .address(row.address)
+                            .build();
+                    entityManager.persist(customer);
+                    customers.put(row.phoneNumber, customer);
+                    result.customersCreated++;
+                }
+            }
+            Car car = Car.builder()
+                    .licensePlate(row.licensePlate)
+                    .repairStatus(RepairStatus.PENDING)
+                    .customer(customer)
+                    .build();
+            entityManager.persist(car);
+            licensePlateIndex.put(car.getLicensePlate(), car.getId());
+            repairStatusCounters.added(car.getRepairStatus());
+            result.imported++;
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return result;
+    }
+
+    private static void add(ImportReport report, ChunkResult result) {
+        report.setImported(report.getImported() + result.imported);
+        report.setDuplicates(report.getDuplicates() + result.duplicates);
+        report.setCustomersCreated(report.getCustomersCreated() + result.customersCreated);
+    }
+
+    private void fail(ImportReport report, long rowNumber, String licensePlate, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportReport.RowError(rowNumber, licensePlate, message));
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    private static class PendingRow {
+        private final long number;
+        private final String licensePlate;
+        private final String surname;
+        private final String phoneNumber;
+        private final String address;
+
+        PendingRow(long number, String licensePlate, String surname, String phoneNumber, String address) {
+            this.number = number;
+            this.licensePlate = licensePlate;
+            this.surname = surname;
+            this.phoneNumber = phoneNumber;
+            this.address = address;
+        }
+    }
+
+    private static class ChunkResult {
+        private long imported;
+        private long duplicates;
+        private long customersCreated;
+    }
+}
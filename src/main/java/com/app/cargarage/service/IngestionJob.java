@@ -0,0 +1,143 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.IngestionJobStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One batch of documents being ingested. Workers hand in every document they staged; once enough staged documents
+ * piled up, or the last document of the job was processed, the pile is handed back to be written in one transaction.
+ */
+public class IngestionJob {
+    private final String id;
+    private final int total;
+    private final LocalDateTime createdAt;
+    private final List<Document> pending = new ArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+    private int processed;
+    private int stored;
+    private LocalDateTime finishedAt;
+
+    public IngestionJob(String id, int documents, List<String> rejected) {
+        this.id = id;
+        this.total = documents + rejected.size();
+        this.createdAt = LocalDateTime.now();
+        this.processed = rejected.size();
+        this.failures.addAll(rejected);
+        finishIfDone();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public synchronized LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized List<Document> staged(Document document, int batchSize) {
+        processed++;
+        pending.add(document);
+        return drain(pending.size() >= batchSize);
+    }
+
+    public synchronized List<Document> skipped(Document document, String reason) {
+        processed++;
+        failed(document, reason);
+        return drain(false);
+    }
+
+    public synchronized void stored(int count) {
+        stored += count;
+        finishIfDone();
+    }
+
+    public synchronized void failed(Document document, String reason) {
+        failures.add(document.getLicensePlate() + "/" + document.getFileName() + ": " + reason);
+        finishIfDone();
+    }
+
+    public synchronized IngestionJobStatus status() {
+        return IngestionJobStatus.builder()
+                .id(id)
+                .total(total)
+                .stored(stored)
+                .failed(failures.size())
+                .finished(finishedAt != null)
+                .failures(new ArrayList<>(failures))
+                .createdAt(createdAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+
+    private List<Document> drain(boolean full) {
+        if (pending.isEmpty() || (!full && processed < total)) {
+            return Collections.emptyList();
+        }
+        List<Document> batch = new ArrayList<>(pending);
+        pending.clear();
+        return batch;
+    }
+
+    private void finishIfDone() {
+        if (finishedAt == null && stored + failures.size() == total) {
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * A document of the job, spooled to disk until a worker stages it in the {@link DocumentStore}.
+     */
+    public static class Document {
+        private final String licensePlate;
+        private final String fileName;
+        private final String contentType;
+        private final Path spooledFile;
+        private long carId;
+        private DocumentStore.StagedDocument stagedDocument;
+
+        public Document(String licensePlate, String fileName, String contentType, Path spooledFile) {
+            this.licensePlate = licensePlate;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.spooledFile = spooledFile;
+        }
+
+        public String getLicensePlate() {
+            return licensePlate;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Path getSpooledFile() {
+            return spooledFile;
+        }
+
+        public long getCarId() {
+            return carId;
+        }
+
+        public DocumentStore.StagedDocument getStagedDocument() {
+            return stagedDocument;
+        }
+
+        public void staged(long carId, DocumentStore.StagedDocument stagedDocument) {
+            this.carId = carId;
+            this.stagedDocument = stagedDocument;
+        }
+    }
+}
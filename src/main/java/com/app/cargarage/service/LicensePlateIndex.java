@@ -0,0 +1,154 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.repository.CarRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Resolves license plates to car ids without touching the database on the hot path. The table is rebuilt from the
+ * cars table once the application is ready; until then, and for plates it does not know, lookups fall back to a
+ * single id query. Changes made inside a transaction are applied after it commits.
+ * <p>
+ * Only changes made by this instance reach the table, so with several instances it is rebuilt every
+ * {@code license-plates.rebuild-interval-ms} to drop cars that were deleted or re-plated elsewhere. Until then such a
+ * plate keeps resolving to its old id. A rebuild briefly holds a second table next to the one in use.
+ */
+@Service
+public class LicensePlateIndex {
+    private final CarRepository carRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private PlateTable table = new PlateTable(16);
+    private List<Consumer<PlateTable>> pendingChanges;
+    private volatile boolean ready;
+
+    public LicensePlateIndex(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${license-plates.rebuild-interval-ms}", initialDelayString = "${license-plates.rebuild-interval-ms}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                return;
+            }
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        PlateTable rebuilt = new PlateTable((int) carRepository.count());
+        try (Stream<CarRepository.CarPlate> plates = carRepository.streamPlates()) {
+            plates.forEach(plate -> rebuilt.put(plate.getLicensePlate(), plate.getId()));
+        }
+        rebuilt.snapshot();
+
+        lock.writeLock().lock();
+        try {
+            for (Consumer<PlateTable> change : pendingChanges) {
+                change.accept(rebuilt);
+            }
+            pendingChanges = null;
+            table = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Long> resolve(String licensePlate) {
+        long carId = PlateTable.MISSING;
+        if (ready) {
+            lock.readLock().lock();
+            try {
+                carId = table.get(licensePlate);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        if (carId >= 0) {
+            return Optional.of(carId);
+        }
+        Optional<Long> storedId = carRepository.findIdByLicensePlate(licensePlate);
+        if (carId == PlateTable.MISSING) {
+            storedId.ifPresent(id -> put(licensePlate, id));
+        }
+        return storedId;
+    }
+
+    /**
+     * Whether a car is registered under this plate in any spelling, so {@code 81PNPK} finds {@code 81-PN-PK}. Unlike
+     * {@link #resolve(String)} a plate the table does not know is taken as unregistered, which lets a bulk import
+     * check a whole chunk without a query per plate; the database is only asked until the table has been built.
+     */
+    public boolean isRegistered(String licensePlate) {
+        if (!ready) {
+            return carRepository.findIdByLicensePlate(licensePlate).isPresent();
+        }
+        lock.readLock().lock();
+        try {
+            return table.get(licensePlate) != PlateTable.MISSING;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> autocomplete(String prefix, int limit) {
+        if (!ready) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return table.startingWith(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String licensePlate, long carId) {
+        afterCommit(table -> table.put(licensePlate, carId));
+    }
+
+    public void remove(String licensePlate, long carId) {
+        afterCommit(table -> table.remove(licensePlate, carId));
+    }
+
+    private void afterCommit(Consumer<PlateTable> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<PlateTable> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(table);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Part;
 
 public interface PartService {
     ResponseDto save(Part part);
 
-    ResponseDto list();
+    ResponseDto list(PageQuery pageQuery, String name);
 
     ResponseDto changeStockOfPart(long partId, int quantity);
 
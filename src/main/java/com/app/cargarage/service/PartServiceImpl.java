@@ -1,12 +1,15 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Part;
 import com.app.cargarage.repository.PartRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
-import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -19,6 +22,7 @@ public class PartServiceImpl implements PartService {
 
 
     @Override
+    @Transactional
     public ResponseDto save(Part part) {
         try {
             return ResponseDto.builder()
@@ -27,6 +31,7 @@ public class PartServiceImpl implements PartService {
                     .statusCode(HttpStatus.OK.value())
                     .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -36,23 +41,32 @@ public class PartServiceImpl implements PartService {
     }
 
     @Override
-    public ResponseDto list() {
+    @Transactional(readOnly = true)
+    public ResponseDto list(PageQuery pageQuery, String name) {
         try {
-            List<Part> partList = partRepository.findAll();
-            if (partList.isEmpty()) {
+            CursorPage<Part> partsPage = CursorPage.of(partRepository.findPage(pageQuery.afterId(), pageQuery.beforeId(), name, pageQuery.toPageable()), pageQuery, Part::getId);
+            if (partsPage.getItems().isEmpty()) {
                 return ResponseDto.builder()
-                        .result(partList)
+                        .result(partsPage)
                         .message("There is no part added yet in the database")
                         .statusCode(HttpStatus.NOT_FOUND.value())
                         .build();
             } else {
                 return ResponseDto.builder()
-                        .result(partList)
+                        .result(partsPage)
                         .message("This is the list of parts that are in the database")
                         .statusCode(HttpStatus.OK.value())
                         .build();
             }
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -62,6 +76,7 @@ public class PartServiceImpl implements PartService {
     }
 
     @Override
+    @Transactional
     public ResponseDto changeStockOfPart(long partId, int quantity) {
         try {
             Optional<Part> part = partRepository.findById(partId);
@@ -80,6 +95,7 @@ public class PartServiceImpl implements PartService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -89,6 +105,7 @@ public class PartServiceImpl implements PartService {
     }
 
     @Override
+    @Transactional
     public ResponseDto deletePart(long partId) {
         try {
             Optional<Part> part = partRepository.findById(partId);
@@ -107,6 +124,7 @@ public class PartServiceImpl implements PartService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -116,6 +134,7 @@ public class PartServiceImpl implements PartService {
     }
 
     @Override
+    @Transactional
     public ResponseDto updatePart(Part part) {
         try {
             Optional<Part> existingPart = partRepository.findById(part.getId());
@@ -133,6 +152,7 @@ public class PartServiceImpl implements PartService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -0,0 +1,109 @@
+package com.app.cargarage.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password checks on a small fixed pool with a bounded queue. BCrypt is slow on purpose, so a burst of logins
+ * would otherwise occupy one request thread per attempt for its full cost; here at most
+ * {@code security.bcrypt.threads} hashes run at once, at most {@code security.bcrypt.queue-capacity} more wait, and
+ * anything beyond that is turned away with a {@link BusyException} straight away.
+ * <p>
+ * Metrics: {@code security.bcrypt.queue.depth} and {@code security.bcrypt.active} are sampled from the pool and
+ * {@code security.bcrypt.rejected} counts checks that were turned away or timed out.
+ */
+@Component
+public class PasswordVerificationExecutor implements DisposableBean {
+    private final ThreadPoolExecutor workers;
+    private final long maxWaitNanos;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordVerificationExecutor(MeterRegistry meterRegistry,
+                                        @Value("${security.bcrypt.threads}") int threads,
+                                        @Value("${security.bcrypt.queue-capacity}") int queueCapacity,
+                                        @Value("${security.bcrypt.max-wait}") Duration maxWait) {
+        this.meterRegistry = meterRegistry;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("security.bcrypt.queue.depth", workers, pool -> pool.getQueue().size())
+                .description("Password checks waiting for a BCrypt thread")
+                .register(meterRegistry);
+        Gauge.builder("security.bcrypt.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks being hashed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Runs the check on the pool and waits for it, for at most {@code security.bcrypt.max-wait}. Exceptions of the
+     * check are rethrown as they are.
+     */
+    public <T> T verify(Callable<T> check) throws Exception {
+        Future<T> result;
+        try {
+            result = workers.submit(check);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw busy();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private BusyException busy() {
+        meterRegistry.counter("security.bcrypt.rejected").increment();
+        return new BusyException();
+    }
+
+    /**
+     * Thrown when too many password checks are in progress. It is an internal authentication failure, so Spring
+     * Security reports it as such instead of trying the next provider.
+     */
+    public static class BusyException extends InternalAuthenticationServiceException {
+        public BusyException() {
+            super("Too many logins are being checked, try again shortly");
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-verification-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
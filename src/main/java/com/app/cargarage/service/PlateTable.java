@@ -0,0 +1,335 @@
+package com.app.cargarage.service;
+
+import java.util.*;
+
+/**
+ * Map from a normalized license plate to a car id that keeps its data in primitive arrays.
+ * <p>
+ * Plates of up to twelve characters from {@code [0-9A-Z]} are packed into a single {@code long} (base 37, padded on
+ * the right, so the numeric order equals the alphabetical order) and stored in an open-addressing table with linear
+ * probing. A sorted copy of the packed keys plus a small delta answers prefix queries; longer or exotic plates live in
+ * an ordinary map. Not thread-safe, {@link LicensePlateIndex} guards every access.
+ */
+public class PlateTable {
+    public static final long MISSING = Long.MIN_VALUE;
+    public static final long AMBIGUOUS = -1L;
+
+    static final int MAX_PACKED_LENGTH = 12;
+    private static final int RADIX = 37;
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int COMPACT_THRESHOLD = 1 << 16;
+    private static final long[] SPAN = new long[MAX_PACKED_LENGTH + 1];
+
+    static {
+        SPAN[0] = 1;
+        for (int i = 1; i <= MAX_PACKED_LENGTH; i++) {
+            SPAN[i] = SPAN[i - 1] * RADIX;
+        }
+    }
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private final Map<String, Long> longPlates = new HashMap<>();
+
+    private long[] sortedKeys;
+    private final TreeSet<Long> addedKeys = new TreeSet<>();
+    private final Set<Long> removedKeys = new HashSet<>();
+
+    public PlateTable(int expectedSize) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(Math.max(expectedSize, 16) / LOAD_FACTOR));
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    /**
+     * Upper-cases the plate and drops everything that is not a letter or a digit, so {@code 81-pn-pk}, {@code 81PNPK}
+     * and {@code 81 pn pk} are the same key.
+     */
+    public static String normalize(String licensePlate) {
+        if (licensePlate == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(licensePlate.length());
+        for (int i = 0; i < licensePlate.length(); i++) {
+            char c = licensePlate.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    public int size() {
+        return size + longPlates.size();
+    }
+
+    /**
+     * Returns the car id for the plate, {@link #MISSING} when it is unknown or {@link #AMBIGUOUS} when two cars share
+     * the normalized plate and only the database can tell them apart.
+     */
+    public long get(String licensePlate) {
+        String plate = normalize(licensePlate);
+        long key = pack(plate);
+        if (key == 0) {
+            Long carId = longPlates.get(plate);
+            return carId == null ? MISSING : carId;
+        }
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : MISSING;
+    }
+
+    public void put(String licensePlate, long carId) {
+        String plate = normalize(licensePlate);
+        if (plate.isEmpty()) {
+            return;
+        }
+        long key = pack(plate);
+        if (key == 0) {
+            Long current = longPlates.get(plate);
+            longPlates.put(plate, current == null || current == carId ? carId : AMBIGUOUS);
+            return;
+        }
+        int slot = find(key);
+        if (keys[slot] == key) {
+            if (values[slot] != carId) {
+                values[slot] = AMBIGUOUS;
+            }
+            return;
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            resize();
+            slot = find(key);
+        }
+        keys[slot] = key;
+        values[slot] = carId;
+        size++;
+        if (sortedKeys != null && !removedKeys.remove(key)) {
+            addedKeys.add(key);
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Removes the plate if it still points to the given car, an ambiguous entry is left for the next rebuild.
+     */
+    public void remove(String licensePlate, long carId) {
+        String plate = normalize(licensePlate);
+        long key = pack(plate);
+        if (key == 0) {
+            longPlates.remove(plate, carId);
+            return;
+        }
+        int slot = find(key);
+        if (keys[slot] != key || values[slot] != carId) {
+            return;
+        }
+        deleteSlot(slot);
+        size--;
+        if (sortedKeys != null && !addedKeys.remove(key)) {
+            removedKeys.add(key);
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Takes the sorted snapshot of all packed keys that prefix queries start from. Called once after a bulk load so
+     * the load itself does not have to track a delta.
+     */
+    public void snapshot() {
+        long[] sorted = new long[size];
+        int n = 0;
+        for (long key : keys) {
+            if (key != 0) {
+                sorted[n++] = key;
+            }
+        }
+        Arrays.sort(sorted);
+        sortedKeys = sorted;
+        addedKeys.clear();
+        removedKeys.clear();
+    }
+
+    /**
+     * Returns up to {@code limit} normalized plates starting with the normalized prefix, in alphabetical order.
+     */
+    public List<String> startingWith(String prefix, int limit) {
+        if (sortedKeys == null) {
+            throw new IllegalStateException("Prefix queries need a snapshot of the table");
+        }
+        String normalizedPrefix = normalize(prefix);
+        List<String> plates = new ArrayList<>();
+        if (limit <= 0) {
+            return plates;
+        }
+        long low = normalizedPrefix.isEmpty() ? 1 : pack(normalizedPrefix);
+        if (low != 0) {
+            long high = normalizedPrefix.isEmpty() ? SPAN[MAX_PACKED_LENGTH] : low + SPAN[MAX_PACKED_LENGTH - normalizedPrefix.length()];
+            int i = lowerBound(sortedKeys, low);
+            Iterator<Long> added = addedKeys.subSet(low, high).iterator();
+            long nextAdded = added.hasNext() ? added.next() : Long.MAX_VALUE;
+            while (plates.size() < limit) {
+                long nextBase = i < sortedKeys.length && sortedKeys[i] < high ? sortedKeys[i] : Long.MAX_VALUE;
+                if (nextBase == Long.MAX_VALUE && nextAdded == Long.MAX_VALUE) {
+                    break;
+                }
+                if (nextBase < nextAdded) {
+                    i++;
+                    if (!removedKeys.contains(nextBase)) {
+                        plates.add(unpack(nextBase));
+                    }
+                } else {
+                    plates.add(unpack(nextAdded));
+                    nextAdded = added.hasNext() ? added.next() : Long.MAX_VALUE;
+                }
+            }
+        }
+        if (!longPlates.isEmpty()) {
+            for (String plate : longPlates.keySet()) {
+                if (plate.startsWith(normalizedPrefix)) {
+                    plates.add(plate);
+                }
+            }
+            Collections.sort(plates);
+            if (plates.size() > limit) {
+                plates = new ArrayList<>(plates.subList(0, limit));
+            }
+        }
+        return plates;
+    }
+
+    /**
+     * Heap taken by the primitive arrays, which hold everything except plates that do not fit in a {@code long}.
+     */
+    public long estimatedBytes() {
+        long bytes = 16L * keys.length;
+        if (sortedKeys != null) {
+            bytes += 8L * sortedKeys.length;
+        }
+        return bytes;
+    }
+
+    static long pack(String plate) {
+        if (plate.isEmpty() || plate.length() > MAX_PACKED_LENGTH) {
+            return 0;
+        }
+        long packed = 0;
+        for (int i = 0; i < MAX_PACKED_LENGTH; i++) {
+            int digit = 0;
+            if (i < plate.length()) {
+                char c = plate.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digit = c - '0' + 1;
+                } else if (c >= 'A' && c <= 'Z') {
+                    digit = c - 'A' + 11;
+                } else {
+                    return 0;
+                }
+            }
+            packed = packed * RADIX + digit;
+        }
+        return packed;
+    }
+
+    static String unpack(long packed) {
+        char[] plate = new char[MAX_PACKED_LENGTH];
+        int length = 0;
+        for (int i = MAX_PACKED_LENGTH - 1; i >= 0; i--) {
+            int digit = (int) (packed % RADIX);
+            packed /= RADIX;
+            if (digit != 0 && length == 0) {
+                length = i + 1;
+            }
+            plate[i] = digit <= 10 ? (char) ('0' + digit - 1) : (char) ('A' + digit - 11);
+        }
+        return new String(plate, 0, length);
+    }
+
+    private int home(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (((hash >>> 32) * keys.length) >>> 32);
+    }
+
+    private int find(long key) {
+        int slot = home(key);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = slot + 1 == keys.length ? 0 : slot + 1;
+        }
+        return slot;
+    }
+
+    private void deleteSlot(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = slot + 1 == keys.length ? 0 : slot + 1;
+            if (keys[slot] == 0) {
+                break;
+            }
+            int home = home(keys[slot]);
+            boolean movable = hole <= slot ? home <= hole || home > slot : home <= hole && home > slot;
+            if (movable) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, oldKeys.length * 2L);
+        keys = new long[capacity];
+        values = new long[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (addedKeys.size() + removedKeys.size() < COMPACT_THRESHOLD) {
+            return;
+        }
+        long[] merged = new long[sortedKeys.length - removedKeys.size() + addedKeys.size()];
+        Iterator<Long> added = addedKeys.iterator();
+        long nextAdded = added.hasNext() ? added.next() : Long.MAX_VALUE;
+        int n = 0;
+        for (long key : sortedKeys) {
+            if (removedKeys.contains(key)) {
+                continue;
+            }
+            while (nextAdded < key) {
+                merged[n++] = nextAdded;
+                nextAdded = added.hasNext() ? added.next() : Long.MAX_VALUE;
+            }
+            merged[n++] = key;
+        }
+        while (nextAdded != Long.MAX_VALUE) {
+            merged[n++] = nextAdded;
+            nextAdded = added.hasNext() ? added.next() : Long.MAX_VALUE;
+        }
+        sortedKeys = merged;
+        addedKeys.clear();
+        removedKeys.clear();
+    }
+
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,199 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets per user and route group, configured by {@link RateLimitProperties}. Each bucket is a single long in
+ * an {@link AtomicLongArray}: the time at which the bucket will be full again (the generic cell rate algorithm), moved
+ * forward by one emission interval per request with a compare-and-set. Checking a request therefore takes no lock
+ * and allocates nothing once the user has been seen.
+ * <p>
+ * A user's limits are worked out from their roles when they are first seen. Users whose buckets are all full again
+ * are dropped every {@code rate-limit.sweep-interval-ms}, which loses no state and picks up changed roles on their
+ * next request. At most {@code rate-limit.max-users} users get buckets of their own; beyond that new users share one
+ * set of buckets until the sweep frees room.
+ * <p>
+ * Metrics: {@code rate.limit.rejected} counts refused requests by {@code group} and {@code rate.limit.users} the users
+ * holding buckets.
+ */
+@Component
+public class RateLimiter {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int maxUsers;
+    private final String[] prefixes;
+    private final int[] prefixGroups;
+    private final List<String> groupNames;
+    private final Map<String, Map<String, RateLimitProperties.Limit>> roleLimits;
+    private final Counter[] rejected;
+    private final Map<String, Buckets> users = new ConcurrentHashMap<>();
+    private final AtomicLongArray overflow;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.maxUsers = properties.getMaxUsers();
+        this.groupNames = new ArrayList<>(properties.getGroups().keySet());
+        List<String[]> routes = new ArrayList<>();
+        for (Map.Entry<String, List<String>> group : properties.getGroups().entrySet()) {
+            for (String prefix : group.getValue()) {
+                routes.add(new String[]{prefix.trim(), group.getKey()});
+            }
+        }
+        routes.sort(Comparator.comparingInt((String[] route) -> route[0].length()).reversed());
+        this.prefixes = new String[routes.size()];
+        this.prefixGroups = new int[routes.size()];
+        for (int i = 0; i < routes.size(); i++) {
+            prefixes[i] = routes.get(i)[0];
+            prefixGroups[i] = groupNames.indexOf(routes.get(i)[1]);
+        }
+        this.roleLimits = new HashMap<>();
+        properties.getRoles().forEach((role, limits) -> roleLimits.put("ROLE_" + role.toUpperCase(), limits));
+        this.rejected = new Counter[groupNames.size()];
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = Counter.builder("rate.limit.rejected")
+                    .tag("group", groupNames.get(i))
+                    .description("Requests refused because the user exceeded the limit of the route group")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("rate.limit.users", users, Map::size)
+                .description("Users holding rate limit buckets")
+                .register(meterRegistry);
+        this.overflow = full(groupNames.size());
+    }
+
+    /**
+     * Takes one request from the user's bucket for the group the path belongs to. Returns zero when the request may go
+     * ahead, otherwise the nanoseconds until it would be allowed.
+     */
+    public long tryAcquire(Authentication authentication, String path, int offset) {
+        int group = group(path, offset);
+        if (group < 0) {
+            return 0;
+        }
+        Buckets buckets = users.get(authentication.getName());
+        if (buckets == null) {
+            buckets = register(authentication);
+        }
+        long interval = buckets.intervals[group];
+        if (interval == 0) {
+            return 0;
+        }
+        long tolerance = buckets.tolerances[group];
+        AtomicLongArray fullAt = buckets.fullAt;
+        long now = System.nanoTime();
+        while (true) {
+            long stored = fullAt.get(group);
+            long next = (stored - now < 0 ? now : stored) + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                rejected[group].increment();
+                return wait;
+            }
+            if (fullAt.compareAndSet(group, stored, next)) {
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms}", initialDelayString = "${rate-limit.sweep-interval-ms}")
+    public void sweepIdleUsers() {
+        long now = System.nanoTime();
+        users.values().removeIf(buckets -> buckets.idle(now));
+    }
+
+    private int group(String path, int offset) {
+        for (int i = 0; i < prefixes.length; i++) {
+            if (path.startsWith(prefixes[i], offset)) {
+                return prefixGroups[i];
+            }
+        }
+        return -1;
+    }
+
+    private Buckets register(Authentication authentication) {
+        int groups = groupNames.size();
+        long[] intervals = new long[groups];
+        long[] tolerances = new long[groups];
+        for (int i = 0; i < groups; i++) {
+            RateLimitProperties.Limit limit = mostGenerous(authentication.getAuthorities(), groupNames.get(i));
+            if (limit != null) {
+                intervals[i] = Math.max(1, (long) (NANOS_PER_SECOND / limit.getRate()));
+                tolerances[i] = intervals[i] * Math.max(1, limit.getBurst());
+            }
+        }
+        if (users.size() >= maxUsers) {
+            sweepIdleUsers();
+            if (users.size() >= maxUsers) {
+                return new Buckets(intervals, tolerances, overflow);
+            }
+        }
+        Buckets buckets = new Buckets(intervals, tolerances, full(groups));
+        Buckets existing = users.putIfAbsent(authentication.getName(), buckets);
+        return existing != null ? existing : buckets;
+    }
+
+    /**
+     * Returns the limit that lets the most requests through, or {@code null} when one of the roles is not limited on
+     * the group, or none of them is configured.
+     */
+    private RateLimitProperties.Limit mostGenerous(Collection<? extends GrantedAuthority> authorities, String group) {
+        RateLimitProperties.Limit best = null;
+        for (GrantedAuthority authority : authorities) {
+            Map<String, RateLimitProperties.Limit> limits = roleLimits.get(authority.getAuthority());
+            RateLimitProperties.Limit limit = limits == null ? null : limits.get(group);
+            if (limit == null || limit.getRate() <= 0) {
+                return null;
+            }
+            if (best == null || limit.getRate() > best.getRate()
+                    || limit.getRate() == best.getRate() && limit.getBurst() > best.getBurst()) {
+                best = limit;
+            }
+        }
+        return best;
+    }
+
+    private static AtomicLongArray full(int groups) {
+        AtomicLongArray fullAt = new AtomicLongArray(groups);
+        long now = System.nanoTime();
+        for (int i = 0; i < groups; i++) {
+            fullAt.set(i, now);
+        }
+        return fullAt;
+    }
+
+    private static final class Buckets {
+        private final long[] intervals;
+        private final long[] tolerances;
+        private final AtomicLongArray fullAt;
+
+        Buckets(long[] intervals, long[] tolerances, AtomicLongArray fullAt) {
+            this.intervals = intervals;
+            this.tolerances = tolerances;
+            this.fullAt = fullAt;
+        }
+
+        boolean idle(long now) {
+            for (int i = 0; i < fullAt.length(); i++) {
+                if (fullAt.get(i) - now > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Receipt;
 
+import java.util.Collection;
+
 public interface ReceiptService {
     ResponseDto generateReceipt(String carLicensePlate);
 
-    ResponseDto listReceipts();
+    ResponseDto listReceipts(PageQuery pageQuery, String status, String carLicensePlate);
 
     ResponseDto getReceiptsByLicensePlate(String licensePlate);
 
     ResponseDto deleteReceipt(long receiptId);
 
+    ResponseDto deleteReceipts(Collection<Long> receiptIds);
+
     ResponseDto updateReceipt(Receipt receipt);
 
     ResponseDto changeStatusToPaid(long receiptId);
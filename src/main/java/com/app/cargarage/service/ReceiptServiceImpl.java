@@ -1,51 +1,54 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.DeleteReport;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
-import com.app.cargarage.model.Car;
-import com.app.cargarage.model.Part;
 import com.app.cargarage.model.Receipt;
-import com.app.cargarage.model.RepairOperations;
 import com.app.cargarage.repository.CarRepository;
 import com.app.cargarage.repository.ReceiptRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class ReceiptServiceImpl implements ReceiptService {
+    private static final double INSPECTION_AMOUNT = 45.0;
+    private static final double VAT_RATE = 0.21;
+
     @Autowired
     ReceiptRepository receiptRepository;
     @Autowired
     CarRepository carRepository;
+    @Autowired
+    LicensePlateIndex licensePlateIndex;
 
+    /**
+     * Computes the receipt totals with one aggregate query over the car's join tables and copies the receipt lines
+     * with {@code INSERT ... SELECT}, so neither the car nor its operations and parts are loaded into memory. The
+     * receipt keeps the plate as the car has it, not the caller's spelling, so receipts can be found by it.
+     */
     @Override
+    @Transactional
     public ResponseDto generateReceipt(String carLicensePlate) {
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(carLicensePlate);
+            Optional<Long> carId = licensePlateIndex.resolve(carLicensePlate);
             Receipt receipt = new Receipt();
-            receipt.setCarLicensePlate(carLicensePlate);
-            receipt.setInspectionAmount(45.0);
+            receipt.setInspectionAmount(INSPECTION_AMOUNT);
             receipt.setStatus("pending");
 
-            if (car.isPresent()) {
-                double totalRepairingOperationsAmount = 0;
-                for (RepairOperations operation : car.get().getRepairOperationsList()
-                ) {
-                    receipt.getRepairOperationsList().add(operation);
-                    totalRepairingOperationsAmount = operation.getPrice() + totalRepairingOperationsAmount;
-                }
-                receipt.setRepairOperationsAmount(totalRepairingOperationsAmount);
-
-                double totalPartsInstallationAmount = 0;
-                for (Part part : car.get().getPartsList()
-                ) {
-                    receipt.getPartsList().add(part);
-                    totalPartsInstallationAmount = part.getPrice() + totalPartsInstallationAmount;
-                }
-                receipt.setPartsAmount(totalPartsInstallationAmount);
+            if (carId.isPresent()) {
+                receipt.setCarLicensePlate(carRepository.findLicensePlateById(carId.get()).orElse(carLicensePlate));
+                ReceiptRepository.ReceiptAmounts amounts = receiptRepository.sumAmountsForCar(carId.get());
+                receipt.setRepairOperationsAmount(amounts.getOperations());
+                receipt.setPartsAmount(amounts.getParts());
 
                 receipt.setTotalAmountOfRepairing(receipt.getTotalAmountOfRepairing()
                         + receipt.getPartsAmount()
@@ -53,10 +56,14 @@ public class ReceiptServiceImpl implements ReceiptService {
                         + receipt.getRepairOperationsAmount());
 
                 receipt.setTotalAmountOfRepairing(receipt.getTotalAmountOfRepairing()
-                        + (0.21 * receipt.getTotalAmountOfRepairing()));
+                        + (VAT_RATE * receipt.getTotalAmountOfRepairing()));
+
+                Receipt savedReceipt = receiptRepository.saveAndFlush(receipt);
+                receiptRepository.copyRepairOperationLines(savedReceipt.getId(), carId.get());
+                receiptRepository.copyPartLines(savedReceipt.getId(), carId.get());
 
                 return ResponseDto.builder()
-                        .result(receiptRepository.save(receipt))
+                        .result(receiptRepository.findById(savedReceipt.getId()).orElse(savedReceipt))
                         .statusCode(HttpStatus.OK.value())
                         .message("The receipt has been generated against car having licence plate: " + carLicensePlate)
                         .build();
@@ -68,6 +75,7 @@ public class ReceiptServiceImpl implements ReceiptService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -77,23 +85,32 @@ public class ReceiptServiceImpl implements ReceiptService {
     }
 
     @Override
-    public ResponseDto listReceipts() {
+    @Transactional(readOnly = true)
+    public ResponseDto listReceipts(PageQuery pageQuery, String status, String carLicensePlate) {
         try {
-            List<Receipt> receipts = receiptRepository.findAll();
-            if (receipts.isEmpty()) {
+            CursorPage<Receipt> receiptsPage = CursorPage.of(receiptRepository.findPage(pageQuery.afterId(), pageQuery.beforeId(), status, carLicensePlate, pageQuery.toPageable()), pageQuery, Receipt::getId);
+            if (receiptsPage.getItems().isEmpty()) {
                 return ResponseDto.builder()
-                        .result(receipts)
+                        .result(receiptsPage)
                         .statusCode(HttpStatus.OK.value())
                         .message("There is no receipt generated yet in the database")
                         .build();
             } else {
                 return ResponseDto.builder()
-                        .result(receipts)
+                        .result(receiptsPage)
                         .statusCode(HttpStatus.OK.value())
                         .message("This is the list of generated receipts in the database")
                         .build();
             }
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -103,6 +120,7 @@ public class ReceiptServiceImpl implements ReceiptService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseDto getReceiptsByLicensePlate(String licensePlate) {
         try {
             List<Receipt> receipts = receiptRepository.findAllByCarLicensePlate(licensePlate);
@@ -120,6 +138,7 @@ public class ReceiptServiceImpl implements ReceiptService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -129,14 +148,10 @@ public class ReceiptServiceImpl implements ReceiptService {
     }
 
     @Override
+    @Transactional
     public ResponseDto deleteReceipt(long receiptId) {
         try {
-            Optional<Receipt> receipt = receiptRepository.findById(receiptId);
-            if (receipt.isPresent()) {
-                receipt.get().setPartsList(null);
-                receipt.get().setRepairOperationsList(null);
-                receiptRepository.saveAndFlush(receipt.get());
-                receiptRepository.delete(receipt.get());
+            if (deleteReceiptBatch(Collections.singletonList(receiptId)) > 0) {
                 return ResponseDto.builder()
                         .result(null)
                         .message("Receipt is successfully deleted from the database.")
@@ -150,6 +165,31 @@ public class ReceiptServiceImpl implements ReceiptService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    @Override
+    @Transactional
+    public ResponseDto deleteReceipts(Collection<Long> receiptIds) {
+        try {
+            DeleteReport report = new DeleteReport();
+            for (List<Long> batch : IdBatches.of(receiptIds)) {
+                report.setRequested(report.getRequested() + batch.size());
+                report.setDeleted(report.getDeleted() + deleteReceiptBatch(batch));
+            }
+            return ResponseDto.builder()
+                    .result(report)
+                    .message(report.getDeleted() + " receipts have been deleted from the database.")
+                    .statusCode(report.getDeleted() > 0 ? HttpStatus.OK.value() : HttpStatus.NOT_FOUND.value())
+                    .build();
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -158,7 +198,14 @@ public class ReceiptServiceImpl implements ReceiptService {
         }
     }
 
+    private int deleteReceiptBatch(List<Long> receiptIds) {
+        receiptRepository.deleteRepairOperationLines(receiptIds);
+        receiptRepository.deletePartLines(receiptIds);
+        return receiptRepository.deleteByIds(receiptIds);
+    }
+
     @Override
+    @Transactional
     public ResponseDto updateReceipt(Receipt receipt) {
         try {
             Optional<Receipt> existingReceipt = receiptRepository.findById(receipt.getId());
@@ -176,6 +223,7 @@ public class ReceiptServiceImpl implements ReceiptService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -185,6 +233,7 @@ public class ReceiptServiceImpl implements ReceiptService {
     }
 
     @Override
+    @Transactional
     public ResponseDto changeStatusToPaid(long receiptId) {
         try {
             Optional<Receipt> receipt = receiptRepository.findById(receiptId);
@@ -203,6 +252,7 @@ public class ReceiptServiceImpl implements ReceiptService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -1,12 +1,13 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.RepairOperations;
 
 public interface RepairOperationsService {
 
     ResponseDto addRepairOperations(RepairOperations repairOperations);
-    ResponseDto listOfRepairOperations();
+    ResponseDto listOfRepairOperations(PageQuery pageQuery, String repairAction);
 
     ResponseDto updateRepairOperation(RepairOperations updatedRepairOperation);
 
@@ -1,12 +1,15 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.RepairOperations;
 import com.app.cargarage.repository.RepairOperationsRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
-import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -19,6 +22,7 @@ public class RepairOperationsServiceImpl implements RepairOperationsService {
     }
 
     @Override
+    @Transactional
     public ResponseDto addRepairOperations(RepairOperations repairOperations) {
         try {
             return ResponseDto.builder()
@@ -27,6 +31,7 @@ public class RepairOperationsServiceImpl implements RepairOperationsService {
                     .statusCode(HttpStatus.OK.value())
                     .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -36,23 +41,32 @@ public class RepairOperationsServiceImpl implements RepairOperationsService {
     }
 
     @Override
-    public ResponseDto listOfRepairOperations() {
+    @Transactional(readOnly = true)
+    public ResponseDto listOfRepairOperations(PageQuery pageQuery, String repairAction) {
         try {
-            List<RepairOperations> repairOperationsList = repairOperationsRepository.findAll();
-            if (repairOperationsList.isEmpty()) {
+            CursorPage<RepairOperations> repairOperationsPage = CursorPage.of(repairOperationsRepository.findPage(pageQuery.afterId(), pageQuery.beforeId(), repairAction, pageQuery.toPageable()), pageQuery, RepairOperations::getId);
+            if (repairOperationsPage.getItems().isEmpty()) {
                 return ResponseDto.builder()
-                        .result(repairOperationsList)
+                        .result(repairOperationsPage)
                         .statusCode(HttpStatus.OK.value())
                         .message("There is no repair operation generated yet in the database")
                         .build();
             } else {
                 return ResponseDto.builder()
-                        .result(repairOperationsList)
+                        .result(repairOperationsPage)
                         .statusCode(HttpStatus.OK.value())
                         .message("This is the list of generated repair operation in the database")
                         .build();
             }
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -62,6 +76,7 @@ public class RepairOperationsServiceImpl implements RepairOperationsService {
     }
 
     @Override
+    @Transactional
     public ResponseDto updateRepairOperation(RepairOperations updatedRepairOperation) {
         try {
             Optional<RepairOperations> repairOperation = repairOperationsRepository.findById(updatedRepairOperation.getId());
@@ -79,6 +94,7 @@ public class RepairOperationsServiceImpl implements RepairOperationsService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -88,6 +104,7 @@ public class RepairOperationsServiceImpl implements RepairOperationsService {
     }
 
     @Override
+    @Transactional
     public ResponseDto deleteRepairOperation(long operationId) {
         try {
             Optional<RepairOperations> repairOperation = repairOperationsRepository.findById(operationId);
@@ -106,6 +123,7 @@ public class RepairOperationsServiceImpl implements RepairOperationsService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
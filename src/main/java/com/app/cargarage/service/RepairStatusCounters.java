@@ -0,0 +1,107 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.config.RepairStatusMigration;
+import com.app.cargarage.model.RepairStatus;
+import com.app.cargarage.repository.CarRepository;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of cars per repair status. Seeded with one grouped count over the indexed status column at startup and kept
+ * up to date by the services that move cars between statuses, so reading the counts never touches the database.
+ * Transitions made inside a transaction are counted after it commits.
+ * <p>
+ * Only transitions made by this instance are counted, so with several instances the counts are recounted from the
+ * database every {@code repair-status.reconcile-interval-ms} to pick up the others' changes. A transition that commits
+ * while the recount runs can be off by one until the next recount.
+ */
+@Service
+public class RepairStatusCounters implements InitializingBean {
+    private final CarRepository carRepository;
+    private final Map<RepairStatus, AtomicLong> counts = new EnumMap<>(RepairStatus.class);
+
+    /**
+     * The statuses have to be migrated before they are counted, when this instance runs the startup migrations.
+     */
+    public RepairStatusCounters(CarRepository carRepository, ObjectProvider<RepairStatusMigration> repairStatusMigration) {
+        repairStatusMigration.getIfAvailable();
+        this.carRepository = carRepository;
+        for (RepairStatus status : RepairStatus.values()) {
+            counts.put(status, new AtomicLong());
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reconcile();
+    }
+
+    /**
+     * Replaces every count with the one in the database, including the statuses no car has any more.
+     */
+    @Scheduled(fixedDelayString = "${repair-status.reconcile-interval-ms}", initialDelayString = "${repair-status.reconcile-interval-ms}")
+    public void reconcile() {
+        Map<RepairStatus, Long> totals = new EnumMap<>(RepairStatus.class);
+        for (RepairStatus status : RepairStatus.values()) {
+            totals.put(status, 0L);
+        }
+        for (CarRepository.StatusCount statusCount : carRepository.countCarsPerRepairStatus()) {
+            if (statusCount.getStatus() != null) {
+                totals.put(statusCount.getStatus(), statusCount.getTotal());
+            }
+        }
+        for (Map.Entry<RepairStatus, Long> total : totals.entrySet()) {
+            counts.get(total.getKey()).set(total.getValue());
+        }
+    }
+
+    public void added(RepairStatus status) {
+        transition(null, status);
+    }
+
+    public void removed(RepairStatus status) {
+        transition(status, null);
+    }
+
+    public void transition(RepairStatus from, RepairStatus to) {
+        if (from == to) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(from, to);
+                }
+            });
+        } else {
+            apply(from, to);
+        }
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<RepairStatus, AtomicLong> count : counts.entrySet()) {
+            snapshot.put(count.getKey().getLabel(), count.getValue().get());
+        }
+        return snapshot;
+    }
+
+    private void apply(RepairStatus from, RepairStatus to) {
+        if (from != null) {
+            counts.get(from).decrementAndGet();
+        }
+        if (to != null) {
+            counts.get(to).incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.app.cargarage.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads an import file one row at a time: CSV records mapped by their header row, or NDJSON objects one per line.
+ * Unknown columns are ignored when the row type allows it.
+ */
+public abstract class RowReader<T> implements Closeable {
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    /**
+     * Returns the next row, or {@code null} after the last one. An {@link UnreadableRowException} fails only the row it
+     * was thrown for; reading continues with the next row.
+     */
+    public abstract T next() throws IOException;
+
+    public static <T> RowReader<T> open(InputStream content, ImportFormat format, Class<T> rowType, ObjectMapper objectMapper) throws IOException {
+        Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8);
+        if (format == ImportFormat.CSV) {
+            MappingIterator<T> rows = CSV_MAPPER.readerFor(rowType)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .with(CsvParser.Feature.TRIM_SPACES)
+                    .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                    .readValues(reader);
+            return new RowReader<T>() {
+                @Override
+                public T next() throws IOException {
+                    if (!rows.hasNextValue()) {
+                        return null;
+                    }
+                    try {
+                        return rows.nextValue();
+                    } catch (JsonProcessingException e) {
+                        throw new UnreadableRowException(e.getOriginalMessage());
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    rows.close();
+                }
+            };
+        }
+        BufferedReader lines = new BufferedReader(reader);
+        return new RowReader<T>() {
+            @Override
+            public T next() throws IOException {
+                String line;
+                do {
+                    line = lines.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                } while (line.trim().isEmpty());
+                T row;
+                try {
+                    row = objectMapper.readValue(line, rowType);
+                } catch (JsonProcessingException e) {
+                    throw new UnreadableRowException(e.getOriginalMessage());
+                }
+                if (row == null) {
+                    throw new UnreadableRowException("The row is not a JSON object");
+                }
+                return row;
+            }
+
+            @Override
+            public void close() throws IOException {
+                lines.close();
+            }
+        };
+    }
+
+    public static class UnreadableRowException extends IOException {
+        public UnreadableRowException(String message) {
+            super("The row could not be read: " + message);
+        }
+    }
+}
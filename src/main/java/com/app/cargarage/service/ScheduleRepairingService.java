@@ -1,15 +1,20 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.RepairOperations;
 import com.app.cargarage.model.ScheduleRepairing;
 
+import java.util.Collection;
+
 public interface ScheduleRepairingService {
     ResponseDto createRepairSchedule(String licensePlate, ScheduleRepairing scheduleRepairing);
 
-    ResponseDto listOfRepairSchedules();
+    ResponseDto listOfRepairSchedules(PageQuery pageQuery, String status);
 
     ResponseDto updateScheduleRepairing(ScheduleRepairing updatedScheduleRepairing);
 
     ResponseDto deleteScheduleRepairing(long scheduleId);
+
+    ResponseDto deleteScheduleRepairings(Collection<Long> scheduleIds);
 }
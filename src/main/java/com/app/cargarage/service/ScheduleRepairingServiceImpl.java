@@ -1,13 +1,21 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.DeleteReport;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Car;
+import com.app.cargarage.model.RepairStatus;
 import com.app.cargarage.model.ScheduleRepairing;
 import com.app.cargarage.repository.CarRepository;
 import com.app.cargarage.repository.ScheduleRepairingRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,20 +24,28 @@ public class ScheduleRepairingServiceImpl implements ScheduleRepairingService {
 
     private final ScheduleRepairingRepository scheduleRepairingRepository;
     private final CarRepository carRepository;
+    private final RepairStatusCounters repairStatusCounters;
+    private final LicensePlateIndex licensePlateIndex;
 
-    public ScheduleRepairingServiceImpl(ScheduleRepairingRepository scheduleRepairingRepository, CarRepository carRepository) {
+    public ScheduleRepairingServiceImpl(ScheduleRepairingRepository scheduleRepairingRepository, CarRepository carRepository,
+                                        RepairStatusCounters repairStatusCounters, LicensePlateIndex licensePlateIndex) {
         this.scheduleRepairingRepository = scheduleRepairingRepository;
         this.carRepository = carRepository;
+        this.repairStatusCounters = repairStatusCounters;
+        this.licensePlateIndex = licensePlateIndex;
     }
 
     @Override
+    @Transactional
     public ResponseDto createRepairSchedule(String licensePlate, ScheduleRepairing scheduleRepairing) {
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(licensePlate);
+            Optional<Car> car = licensePlateIndex.resolve(licensePlate).flatMap(carRepository::findById);
             if (car.isPresent()) {
                 scheduleRepairing.setCar(car.get());
-                car.get().setRepairStatus("Under Repairing");
+                RepairStatus previousRepairStatus = car.get().getRepairStatus();
+                car.get().setRepairStatus(RepairStatus.UNDER_REPAIRING);
                 carRepository.save(car.get());
+                repairStatusCounters.transition(previousRepairStatus, RepairStatus.UNDER_REPAIRING);
                 return ResponseDto.builder()
                         .result(scheduleRepairingRepository.save(scheduleRepairing))
                         .message("The repairing service is successfully scheduled against this car with license plate: " + car.get().getLicensePlate())
@@ -44,6 +60,7 @@ public class ScheduleRepairingServiceImpl implements ScheduleRepairingService {
             }
 
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -53,23 +70,32 @@ public class ScheduleRepairingServiceImpl implements ScheduleRepairingService {
     }
 
     @Override
-    public ResponseDto listOfRepairSchedules() {
+    @Transactional(readOnly = true)
+    public ResponseDto listOfRepairSchedules(PageQuery pageQuery, String status) {
         try {
-            List<ScheduleRepairing> scheduleRepairingList = scheduleRepairingRepository.findAll();
-            if (scheduleRepairingList.isEmpty()) {
+            CursorPage<ScheduleRepairing> scheduleRepairingPage = CursorPage.of(scheduleRepairingRepository.findPage(pageQuery.afterId(), pageQuery.beforeId(), status, pageQuery.toPageable()), pageQuery, ScheduleRepairing::getId);
+            if (scheduleRepairingPage.getItems().isEmpty()) {
                 return ResponseDto.builder()
-                        .result(scheduleRepairingList)
+                        .result(scheduleRepairingPage)
                         .message("There is no schedule created yet in the database")
                         .statusCode(HttpStatus.NOT_FOUND.value())
                         .build();
             } else {
                 return ResponseDto.builder()
-                        .result(scheduleRepairingList)
+                        .result(scheduleRepairingPage)
                         .message("This is the list of repairing schedules that are in the database")
                         .statusCode(HttpStatus.OK.value())
                         .build();
             }
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -79,6 +105,7 @@ public class ScheduleRepairingServiceImpl implements ScheduleRepairingService {
     }
 
     @Override
+    @Transactional
     public ResponseDto updateScheduleRepairing(ScheduleRepairing updatedScheduleRepairing) {
         try {
             Optional<ScheduleRepairing> scheduleRepairingObject = scheduleRepairingRepository.findById(updatedScheduleRepairing.getId());
@@ -96,6 +123,7 @@ public class ScheduleRepairingServiceImpl implements ScheduleRepairingService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -105,13 +133,10 @@ public class ScheduleRepairingServiceImpl implements ScheduleRepairingService {
     }
 
     @Override
+    @Transactional
     public ResponseDto deleteScheduleRepairing(long scheduleId) {
         try {
-            Optional<ScheduleRepairing> scheduleRepairingObject = scheduleRepairingRepository.findById(scheduleId);
-            if (scheduleRepairingObject.isPresent()) {
-                scheduleRepairingObject.get().setCar(null);
-                scheduleRepairingRepository.saveAndFlush(scheduleRepairingObject.get());
-                scheduleRepairingRepository.delete(scheduleRepairingObject.get());
+            if (deleteScheduleBatch(Collections.singletonList(scheduleId)) > 0) {
                 return ResponseDto.builder()
                         .result(null)
                         .message("Repairing Schedule is successfully deleted from the database.")
@@ -125,6 +150,7 @@ public class ScheduleRepairingServiceImpl implements ScheduleRepairingService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -132,4 +158,32 @@ public class ScheduleRepairingServiceImpl implements ScheduleRepairingService {
                     .build();
         }
     }
+
+    @Override
+    @Transactional
+    public ResponseDto deleteScheduleRepairings(Collection<Long> scheduleIds) {
+        try {
+            DeleteReport report = new DeleteReport();
+            for (List<Long> batch : IdBatches.of(scheduleIds)) {
+                report.setRequested(report.getRequested() + batch.size());
+                report.setDeleted(report.getDeleted() + deleteScheduleBatch(batch));
+            }
+            return ResponseDto.builder()
+                    .result(report)
+                    .message(report.getDeleted() + " repair schedules have been deleted from the database.")
+                    .statusCode(report.getDeleted() > 0 ? HttpStatus.OK.value() : HttpStatus.NOT_FOUND.value())
+                    .build();
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    private int deleteScheduleBatch(List<Long> scheduleIds) {
+        return scheduleRepairingRepository.deleteByIds(scheduleIds);
+    }
 }
@@ -0,0 +1,62 @@
+package com.app.cargarage.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails the read that would go past {@code maxSize} bytes, so an oversized upload is rejected while it streams in
+ * instead of after it was stored.
+ */
+public class SizeLimitedInputStream extends FilterInputStream {
+    private final long maxSize;
+    private long count;
+
+    public SizeLimitedInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = super.read();
+        if (read != -1) {
+            count(1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long read) throws LimitExceededException {
+        count += read;
+        if (count > maxSize) {
+            throw new LimitExceededException(maxSize);
+        }
+    }
+
+    public static class LimitExceededException extends IOException {
+        public LimitExceededException(long maxSize) {
+            super("The document is larger than the maximum of " + maxSize + " bytes");
+        }
+    }
+}
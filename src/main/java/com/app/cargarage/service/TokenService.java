@@ -0,0 +1,171 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.TokenResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed JWTs. The username and roles travel in the token, so a request carrying a
+ * valid access token is authorized from the signature and claims alone, without a password check or a user lookup.
+ * <p>
+ * All nodes must share {@code security.token.secret}, so the application refuses to start without one. Only with
+ * {@code security.token.allow-random-secret=true}, which the {@code dev} profile sets, is a random key generated
+ * instead; tokens signed with it are valid on this node only and are lost on restart.
+ */
+@Service
+public class TokenService {
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+
+    public TokenService(ObjectMapper objectMapper,
+                        @Value("${security.token.secret}") String secret,
+                        @Value("${security.token.allow-random-secret}") boolean allowRandomSecret,
+                        @Value("${security.token.access-ttl}") Duration accessTtl,
+                        @Value("${security.token.refresh-ttl}") Duration refreshTtl) {
+        this.objectMapper = objectMapper;
+        this.key = new SecretKeySpec(secretBytes(secret, allowRandomSecret), ALGORITHM);
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+    }
+
+    public TokenResponse issue(UserDetails user) {
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : user.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        return TokenResponse.builder()
+                .accessToken(sign(user.getUsername(), roles, ACCESS, accessTtl))
+                .refreshToken(sign(user.getUsername(), roles, REFRESH, refreshTtl))
+                .tokenType("Bearer")
+                .expiresIn(accessTtl.getSeconds())
+                .build();
+    }
+
+    /**
+     * Turns a valid access token into an authentication carrying its roles, or throws a
+     * {@link BadCredentialsException} for a token that is malformed, forged, expired or not an access token.
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String accessToken) {
+        JsonNode claims = verify(accessToken, ACCESS);
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (JsonNode role : claims.path("roles")) {
+            authorities.add(new SimpleGrantedAuthority(role.asText()));
+        }
+        return new UsernamePasswordAuthenticationToken(claims.path("sub").asText(), null, authorities);
+    }
+
+    /**
+     * Returns the username of a valid refresh token.
+     */
+    public String refreshSubject(String refreshToken) {
+        return verify(refreshToken, REFRESH).path("sub").asText();
+    }
+
+    private String sign(String username, List<String> roles, String type, Duration ttl) {
+        long now = System.currentTimeMillis() / 1000;
+        ObjectNode claims = objectMapper.createObjectNode();
+        claims.put("sub", username);
+        ArrayNode roleClaims = claims.putArray("roles");
+        roles.forEach(roleClaims::add);
+        claims.put("typ", type);
+        claims.put("iat", now);
+        claims.put("exp", now + ttl.getSeconds());
+        try {
+            String signingInput = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return signingInput + "." + ENCODER.encodeToString(mac(signingInput));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Only the exact header this service writes is accepted, so a token cannot pick another algorithm or
+     * {@code none}. The signature is compared in constant time before the claims are parsed.
+     */
+    private JsonNode verify(String token, String type) {
+        String[] parts = token == null ? new String[0] : token.split("\\.", -1);
+        if (parts.length != 3 || !HEADER.equals(parts[0])) {
+            throw new BadCredentialsException("The token is malformed");
+        }
+        JsonNode claims;
+        try {
+            byte[] signature = DECODER.decode(parts[2]);
+            if (!MessageDigest.isEqual(signature, mac(parts[0] + "." + parts[1]))) {
+                throw new BadCredentialsException("The token signature is invalid");
+            }
+            claims = objectMapper.readTree(DECODER.decode(parts[1]));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadCredentialsException("The token is malformed");
+        }
+        if (!type.equals(claims.path("typ").asText())) {
+            throw new BadCredentialsException("The token is not an " + type + " token");
+        }
+        if (claims.path("exp").asLong() <= System.currentTimeMillis() / 1000) {
+            throw new BadCredentialsException("The token has expired");
+        }
+        return claims;
+    }
+
+    private byte[] mac(String signingInput) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret, boolean allowRandomSecret) {
+        if (!StringUtils.hasText(secret)) {
+            if (!allowRandomSecret) {
+                throw new IllegalStateException("security.token.secret must be set to a base64 key of at least " + MIN_SECRET_BYTES
+                        + " bytes shared by all nodes; set security.token.allow-random-secret=true to use a random key in development");
+            }
+            log.warn("security.token.secret is not set; tokens are signed with a random key that only this node knows and that is lost on restart");
+            byte[] random = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] bytes = Base64.getDecoder().decode(secret.trim());
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("security.token.secret must be a base64 key of at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,150 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.dto.UploadSessionStatus;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One chunked upload in progress: where its bytes are assembled and which byte ranges arrived so far. Ranges are kept
+ * merged, so re-sending a chunk that was already received changes nothing.
+ */
+public class UploadSession {
+    private final String id;
+    private final String licensePlate;
+    private final String fileName;
+    private final String contentType;
+    private final long length;
+    private final Path file;
+    private final TreeMap<Long, Long> received = new TreeMap<>();
+    private volatile LocalDateTime lastTouched;
+    private boolean finalizing;
+
+    public UploadSession(String id, String licensePlate, String fileName, String contentType, long length, Path file) {
+        this.id = id;
+        this.licensePlate = licensePlate;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.length = length;
+        this.file = file;
+        this.lastTouched = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public LocalDateTime getLastTouched() {
+        return lastTouched;
+    }
+
+    public void setLastTouched(LocalDateTime lastTouched) {
+        this.lastTouched = lastTouched;
+    }
+
+    public void touch() {
+        lastTouched = LocalDateTime.now();
+    }
+
+    /**
+     * The merged ranges received so far as {@code [start, end)} pairs, in order.
+     */
+    public synchronized List<long[]> receivedRanges() {
+        List<long[]> ranges = new ArrayList<>(received.size());
+        for (Map.Entry<Long, Long> range : received.entrySet()) {
+            ranges.add(new long[]{range.getKey(), range.getValue()});
+        }
+        return ranges;
+    }
+
+    public synchronized void received(long start, long end) {
+        if (start >= end) {
+            return;
+        }
+        Map.Entry<Long, Long> before = received.floorEntry(start);
+        if (before != null && before.getValue() >= start) {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+        }
+        Map.Entry<Long, Long> next = received.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            received.remove(next.getKey());
+            next = received.ceilingEntry(start);
+        }
+        received.put(start, end);
+    }
+
+    public synchronized boolean isComplete() {
+        return received.size() == 1 && received.firstKey() == 0 && received.firstEntry().getValue() == length;
+    }
+
+    public synchronized boolean isFinalizing() {
+        return finalizing;
+    }
+
+    /**
+     * Marks the session as being finalized, so a second finalize of the same session is refused.
+     */
+    public synchronized boolean startFinalizing() {
+        if (finalizing) {
+            return false;
+        }
+        finalizing = true;
+        return true;
+    }
+
+    public synchronized void finalizingFailed() {
+        finalizing = false;
+    }
+
+    public synchronized UploadSessionStatus status(Duration ttl) {
+        long receivedBytes = 0;
+        List<long[]> missing = new ArrayList<>();
+        long position = 0;
+        for (Map.Entry<Long, Long> range : received.entrySet()) {
+            if (range.getKey() > position) {
+                missing.add(new long[]{position, range.getKey()});
+            }
+            receivedBytes += range.getValue() - range.getKey();
+            position = range.getValue();
+        }
+        if (position < length) {
+            missing.add(new long[]{position, length});
+        }
+        return UploadSessionStatus.builder()
+                .id(id)
+                .licensePlate(licensePlate)
+                .fileName(fileName)
+                .length(length)
+                .receivedBytes(receivedBytes)
+                .missing(missing)
+                .expiresAt(lastTouched.plus(ttl))
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.model.User;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Drops cached credentials and user details when a user is created, changed or removed. The caches are cleared right
+ * away and again after the commit, so a login that races the transaction cannot put the old state back.
+ */
+@Component
+public class UserChangeListener {
+    private final CredentialCache credentialCache;
+    private final UserDetailsCache userDetailsCache;
+
+    public UserChangeListener(CredentialCache credentialCache, UserDetailsCache userDetailsCache) {
+        this.credentialCache = credentialCache;
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        evictAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAll();
+                }
+            });
+        }
+    }
+
+    private void evictAll() {
+        credentialCache.evictAll();
+        userDetailsCache.evictAll();
+    }
+}
@@ -0,0 +1,120 @@
+package com.app.cargarage.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recently loaded {@link UserSnapshot}s by username, so authenticating a known user does not query the users table.
+ * Entries expire {@code security.user-cache.ttl} after loading and are dropped whenever a user is created, changed or
+ * removed. When the cache is full, expired entries are purged and, if that does not free a slot, the new entry is not
+ * cached.
+ * <p>
+ * Snapshots carry the password hash and roles, and the drop on changes only reaches the instance that made the change.
+ * Other instances keep checking passwords against, and issuing tokens with the roles of, a snapshot up to
+ * {@code security.user-cache.ttl} old, so the TTL must not be longer than {@code security.credential-cache.ttl}.
+ * <p>
+ * A load that started before a change and finishes after it must not put the old state back, so every eviction moves
+ * a generation on and {@link #put} only accepts snapshots read in the current generation.
+ * <p>
+ * Metrics: {@code security.user.cache} counts hits and misses by {@code result},
+ * {@code security.user.cache.hit.ratio} is hits over lookups and {@code security.user.cache.size} the number of
+ * entries.
+ */
+@Component
+public class UserDetailsCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${security.user-cache.ttl}") Duration ttl,
+                            @Value("${security.user-cache.max-entries}") int maxEntries,
+                            @Value("${security.credential-cache.ttl}") Duration credentialTtl) {
+        if (ttl.compareTo(credentialTtl) > 0) {
+            throw new IllegalStateException("security.user-cache.ttl must not be longer than security.credential-cache.ttl");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        FunctionCounter.builder("security.user.cache", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Users found in the user details cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.user.cache", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Users that had to be read from the users table")
+                .register(meterRegistry);
+        Gauge.builder("security.user.cache.hit.ratio", this, UserDetailsCache::hitRatio)
+                .description("Share of user lookups answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("security.user.cache.size", entries, Map::size)
+                .description("Users currently cached")
+                .register(meterRegistry);
+    }
+
+    public UserSnapshot get(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null || entry.expiresAt - System.nanoTime() <= 0) {
+            if (entry != null) {
+                entries.remove(username, entry);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.user;
+    }
+
+    /**
+     * The generation to pass to {@link #put}; take it before reading the user.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(UserSnapshot user, long readInGeneration) {
+        if (entries.size() >= maxEntries) {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        Entry entry = new Entry(user, System.nanoTime() + ttlNanos);
+        entries.put(user.getUsername(), entry);
+        if (generation.get() != readInGeneration) {
+            entries.remove(user.getUsername(), entry);
+        }
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    private static final class Entry {
+        private final UserSnapshot user;
+        private final long expiresAt;
+
+        Entry(UserSnapshot user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
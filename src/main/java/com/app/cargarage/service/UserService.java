@@ -2,6 +2,12 @@ package com.app.cargarage.service;
 
 import com.app.cargarage.model.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
 public interface UserService {
-    void insertUsersOnRuntime(User user);
+    void insertMissingUsers(List<User> users, UnaryOperator<String> passwordEncoder);
+
+    void warmUpUserDetails(Collection<String> usernames);
 }
@@ -3,41 +3,73 @@ package com.app.cargarage.service;
 import com.app.cargarage.model.User;
 import com.app.cargarage.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 @Service
 public class UserServiceImpl implements UserService, UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    UserDetailsCache userDetailsCache;
+
+    /**
+     * Served from the {@link UserDetailsCache} when possible. Deliberately not transactional: a cache hit should not
+     * take a connection, and a miss is a single query that runs in the repository's own read-only transaction.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserSnapshot cached = userDetailsCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = userDetailsCache.generation();
         User user = userRepository.getUserByUsername(username);
         if (user != null) {
-            return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), getAuthority(user));
+            UserSnapshot snapshot = new UserSnapshot(user);
+            userDetailsCache.put(snapshot, generation);
+            return snapshot;
         } else {
-            throw new RuntimeException("User doesn't exists against this username");
+            throw new UsernameNotFoundException("User doesn't exists against this username");
         }
     }
 
-    private Set<SimpleGrantedAuthority> getAuthority(User user) {
-        Set<SimpleGrantedAuthority> authorities = new HashSet<>();
-        authorities.add(new SimpleGrantedAuthority(user.getRole()));
-        return authorities;
+    @Override
+    @Transactional(readOnly = true)
+    public void warmUpUserDetails(Collection<String> usernames) {
+        long generation = userDetailsCache.generation();
+        for (User user : userRepository.findAllByUsernameIn(usernames)) {
+            userDetailsCache.put(new UserSnapshot(user), generation);
+        }
     }
 
+    /**
+     * Saves the users whose username is not taken yet. The passwords are given in plain text and only encoded for the
+     * users that are actually inserted.
+     */
     @Override
-    public void insertUsersOnRuntime(User user) {
-        User user1 = userRepository.getUserByUsername(user.getUsername());
-        if (user1 == null) {
-            userRepository.saveAndFlush(user);
+    @Transactional
+    public void insertMissingUsers(List<User> users, UnaryOperator<String> passwordEncoder) {
+        Set<String> existing = new HashSet<>();
+        for (User user : userRepository.findAllByUsernameIn(users.stream().map(User::getUsername).collect(Collectors.toList()))) {
+            existing.add(user.getUsername());
         }
+        List<User> missing = users.stream()
+                .filter(user -> !existing.contains(user.getUsername()))
+                .collect(Collectors.toList());
+        missing.parallelStream().forEach(user -> user.setPassword(passwordEncoder.apply(user.getPassword())));
+        userRepository.saveAll(missing);
+        userRepository.flush();
     }
 }
@@ -0,0 +1,75 @@
+package com.app.cargarage.service;
+
+import com.app.cargarage.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * An immutable copy of a user as Spring Security sees it. Unlike Spring's own {@code User} it has no credentials to
+ * erase after authentication, so one instance can be handed out from the {@link UserDetailsCache} to every request.
+ */
+public final class UserSnapshot implements UserDetails {
+    private final String username;
+    private final String password;
+    private final Collection<GrantedAuthority> authorities;
+
+    public UserSnapshot(User user) {
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority(user.getRole()));
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof UserSnapshot && username.equals(((UserSnapshot) other).username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [Username=" + username + ", Granted Authorities=" + authorities + "]";
+    }
+}
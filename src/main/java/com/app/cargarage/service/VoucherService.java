@@ -1,11 +1,15 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Voucher;
 
+import java.util.Collection;
+
 public interface VoucherService {
     ResponseDto generateVoucher(String carLicensePlate);
     ResponseDto deleteVoucher(long voucherId);
+    ResponseDto deleteVouchers(Collection<Long> voucherIds);
     ResponseDto updateVoucher(Voucher updatedVoucher);
-    ResponseDto listOfVouchers();
+    ResponseDto listOfVouchers(PageQuery pageQuery, String licensePlate);
 }
@@ -1,7 +1,11 @@
 package com.app.cargarage.service;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.DeleteReport;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Car;
+import com.app.cargarage.model.RepairStatus;
 import com.app.cargarage.model.ScheduleRepairing;
 import com.app.cargarage.model.Voucher;
 import com.app.cargarage.repository.CarRepository;
@@ -10,7 +14,11 @@ import com.app.cargarage.repository.VoucherRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,13 +30,22 @@ public class VoucherServiceImpl implements VoucherService {
     @Autowired
     CarRepository carRepository;
 
+    @Autowired
+    LicensePlateIndex licensePlateIndex;
+
+    @Autowired
+    RepairStatusCounters repairStatusCounters;
+
     @Override
+    @Transactional
     public ResponseDto generateVoucher(String carLicensePlate) {
         try {
-            Optional<Car> car = carRepository.findCarByLicensePlate(carLicensePlate);
+            Optional<Car> car = licensePlateIndex.resolve(carLicensePlate).flatMap(carRepository::findById);
             if (car.isPresent()) {
-                car.get().setRepairStatus("Not Carried out");
+                RepairStatus previousRepairStatus = car.get().getRepairStatus();
+                car.get().setRepairStatus(RepairStatus.NOT_CARRIED_OUT);
                 Car updatedCar = carRepository.save(car.get());
+                repairStatusCounters.transition(previousRepairStatus, RepairStatus.NOT_CARRIED_OUT);
                 Voucher voucher = Voucher.builder()
                         .id(1)
                         .price(45)
@@ -47,6 +64,7 @@ public class VoucherServiceImpl implements VoucherService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -56,13 +74,10 @@ public class VoucherServiceImpl implements VoucherService {
     }
 
     @Override
+    @Transactional
     public ResponseDto deleteVoucher(long voucherId) {
         try {
-            Optional<Voucher> voucher = voucherRepository.findById(voucherId);
-            if (voucher.isPresent()) {
-                voucher.get().setCar(null);
-                voucherRepository.save(voucher.get());
-                voucherRepository.delete(voucher.get());
+            if (deleteVoucherBatch(Collections.singletonList(voucherId)) > 0) {
                 return ResponseDto.builder()
                         .result(null)
                         .message("Voucher is successfully deleted from the database.")
@@ -76,6 +91,7 @@ public class VoucherServiceImpl implements VoucherService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -85,6 +101,35 @@ public class VoucherServiceImpl implements VoucherService {
     }
 
     @Override
+    @Transactional
+    public ResponseDto deleteVouchers(Collection<Long> voucherIds) {
+        try {
+            DeleteReport report = new DeleteReport();
+            for (List<Long> batch : IdBatches.of(voucherIds)) {
+                report.setRequested(report.getRequested() + batch.size());
+                report.setDeleted(report.getDeleted() + deleteVoucherBatch(batch));
+            }
+            return ResponseDto.builder()
+                    .result(report)
+                    .message(report.getDeleted() + " vouchers have been deleted from the database.")
+                    .statusCode(report.getDeleted() > 0 ? HttpStatus.OK.value() : HttpStatus.NOT_FOUND.value())
+                    .build();
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
+    private int deleteVoucherBatch(List<Long> voucherIds) {
+        return voucherRepository.deleteByIds(voucherIds);
+    }
+
+    @Override
+    @Transactional
     public ResponseDto updateVoucher(Voucher updatedVoucher) {
         try {
             Optional<Voucher> voucher = voucherRepository.findById(updatedVoucher.getId());
@@ -102,6 +147,7 @@ public class VoucherServiceImpl implements VoucherService {
                         .build();
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -111,23 +157,32 @@ public class VoucherServiceImpl implements VoucherService {
     }
 
     @Override
-    public ResponseDto listOfVouchers() {
+    @Transactional(readOnly = true)
+    public ResponseDto listOfVouchers(PageQuery pageQuery, String licensePlate) {
         try {
-            List<Voucher> voucherList = voucherRepository.findAll();
-            if (voucherList.isEmpty()) {
+            CursorPage<Voucher> vouchersPage = CursorPage.of(voucherRepository.findPage(pageQuery.afterId(), pageQuery.beforeId(), licensePlate, pageQuery.toPageable()), pageQuery, Voucher::getId);
+            if (vouchersPage.getItems().isEmpty()) {
                 return ResponseDto.builder()
-                        .result(voucherList)
+                        .result(vouchersPage)
                         .message("There is no Voucher created yet in the database")
                         .statusCode(HttpStatus.NOT_FOUND.value())
                         .build();
             } else {
                 return ResponseDto.builder()
-                        .result(voucherList)
+                        .result(vouchersPage)
                         .message("This is the list of Vouchers that are in the database")
                         .statusCode(HttpStatus.OK.value())
                         .build();
             }
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseDto.builder()
+                    .result(null)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .build();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseDto.builder()
                     .result(null)
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -0,0 +1,105 @@
+package com.app.cargarage;
+
+import com.app.cargarage.controller.CarController;
+import org.mockito.Mockito;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.client.RestTemplate;
+import springfox.documentation.swagger2.annotations.EnableSwagger2;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Writes the Swagger document of all controllers to the file given as the only argument. The build runs it in the
+ * {@code prepare-package} phase, so the jar carries {@code static/api-docs.json} for the fast-startup profile, which
+ * does not scan the controllers at runtime. A build with {@code -Dmaven.test.skip=true} does not compile this class
+ * and packages the jar without the document.
+ * <p>
+ * Only the web layer is started: the controllers get Mockito mocks of their services, so no database is needed. The
+ * build fails when the document cannot be generated or lists no paths.
+ */
+@ComponentScan(basePackageClasses = CarController.class)
+@ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, ServletWebServerFactoryAutoConfiguration.class,
+        DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+        JacksonAutoConfiguration.class})
+@Import(ApiDocsGenerator.MockControllerDependencies.class)
+@EnableSwagger2
+public class ApiDocsGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: ApiDocsGenerator <output file>");
+        }
+        Path output = Paths.get(args[0]);
+        SpringApplication application = new SpringApplication(ApiDocsGenerator.class);
+        Properties properties = new Properties();
+        properties.setProperty("server.port", "0");
+        properties.setProperty("spring.main.banner-mode", "off");
+        application.setDefaultProperties(properties);
+        try (ConfigurableApplicationContext context = application.run()) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String apiDocs = new RestTemplate().getForObject("http://localhost:" + port + "/v2/api-docs", String.class);
+            if (apiDocs == null || !apiDocs.contains("\"paths\":{\"/")) {
+                throw new IllegalStateException("The generated API documentation lists no paths");
+            }
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            Files.write(output, apiDocs.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Registers a mock for every constructor argument and autowired field of the controllers, which are all services.
+     */
+    static class MockControllerDependencies implements BeanDefinitionRegistryPostProcessor {
+        @Override
+        public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                Class<?> type = beanFactory.getType(beanName);
+                if (type == null || !type.getPackage().getName().equals(CarController.class.getPackage().getName())) {
+                    continue;
+                }
+                for (Constructor<?> constructor : type.getConstructors()) {
+                    for (Class<?> dependency : constructor.getParameterTypes()) {
+                        registerMock(beanFactory, dependency);
+                    }
+                }
+                for (Field field : type.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(Autowired.class)) {
+                        registerMock(beanFactory, field.getType());
+                    }
+                }
+            }
+        }
+
+        private static void registerMock(ConfigurableListableBeanFactory beanFactory, Class<?> dependency) {
+            if (beanFactory.getBeanNamesForType(dependency, true, false).length == 0) {
+                beanFactory.registerSingleton(dependency.getName(), Mockito.mock(dependency));
+            }
+        }
+    }
+}
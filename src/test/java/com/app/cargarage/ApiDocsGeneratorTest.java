@@ -0,0 +1,24 @@
+package com.app.cargarage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiDocsGeneratorTest {
+
+    @Test
+    void writesApiDocsWithoutADatabaseTest(@TempDir Path directory) throws Exception {
+        Path output = directory.resolve("static/api-docs.json");
+
+        ApiDocsGenerator.main(new String[]{output.toString()});
+
+        String apiDocs = new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+        assertTrue(apiDocs.contains("/car/list"));
+        assertTrue(apiDocs.contains("/auth/login"));
+    }
+}
@@ -1,5 +1,7 @@
 package com.app.cargarage;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.model.Appointment;
 import com.app.cargarage.model.Customer;
 import com.app.cargarage.repository.AppointmentRepository;
@@ -10,6 +12,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.transaction.Transactional;
@@ -17,6 +21,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -65,8 +71,8 @@ class AppointmentServiceTest {
         appointment.setCustomer(customer);
         List<Appointment> appointmentsList = new ArrayList<>();
         appointmentsList.add(appointment);
-        when(appointmentRepository.findAll()).thenReturn(appointmentsList);
-        assertEquals(appointmentsList, appointmentService.listOfAppointments().getResult());
+        when(appointmentRepository.findPage(anyLong(), anyLong(), any(), any(Pageable.class))).thenReturn(new SliceImpl<>(appointmentsList));
+        assertEquals(appointmentsList, ((CursorPage<?>) appointmentService.listOfAppointments(new PageQuery(), null).getResult()).getItems());
     }
 
     @Test
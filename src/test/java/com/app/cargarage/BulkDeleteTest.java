@@ -0,0 +1,166 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.DeleteReport;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.Appointment;
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.model.Part;
+import com.app.cargarage.model.Receipt;
+import com.app.cargarage.model.RepairOperations;
+import com.app.cargarage.model.ScheduleRepairing;
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.repository.PartRepository;
+import com.app.cargarage.repository.RepairOperationsRepository;
+import com.app.cargarage.service.AppointmentService;
+import com.app.cargarage.service.CarService;
+import com.app.cargarage.service.CustomerService;
+import com.app.cargarage.service.LicensePlateIndex;
+import com.app.cargarage.service.ReceiptService;
+import com.app.cargarage.service.ScheduleRepairingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk deletes against the configured database, including the join table rows and dependants they clear.
+ */
+@SpringBootTest(properties = "documents.store-path=target/test-documents")
+class BulkDeleteTest {
+
+    @Autowired
+    CarService carService;
+    @Autowired
+    CustomerService customerService;
+    @Autowired
+    AppointmentService appointmentService;
+    @Autowired
+    ReceiptService receiptService;
+    @Autowired
+    ScheduleRepairingService scheduleRepairingService;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    PartRepository partRepository;
+    @Autowired
+    RepairOperationsRepository repairOperationsRepository;
+    @Autowired
+    LicensePlateIndex licensePlateIndex;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Part part;
+    private RepairOperations operation;
+
+    @BeforeEach
+    void addPartAndOperation() {
+        part = partRepository.save(Part.builder().name("Brake pad").price(40).stock(10).build());
+        operation = repairOperationsRepository.save(RepairOperations.builder().repairAction("Replace the brakes").price(120).build());
+    }
+
+    @Test
+    void deleteCarsClearsJoinTablesAndDocumentsTest() {
+        List<Car> cars = new ArrayList<>();
+        List<String> licensePlates = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Car car = addCar();
+            cars.add(car);
+            licensePlates.add(car.getLicensePlate());
+        }
+        byte[] content = ("invoice " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        assertEquals(200, carService.uploadDocumentStream(licensePlates.get(0), "invoice.pdf", "application/pdf", content.length, new ByteArrayInputStream(content)).getStatusCode());
+        String contentHash = jdbcTemplate.queryForObject("select content_hash from car_document where car_id = ?", String.class, cars.get(0).getId());
+        assertEquals(200, scheduleRepairingService.createRepairSchedule(licensePlates.get(1), ScheduleRepairing.builder().status("planned").build()).getStatusCode());
+        long scheduleId = jdbcTemplate.queryForObject("select id from schedule_repairing where car_id = ?", Long.class, cars.get(1).getId());
+
+        licensePlates.set(0, licensePlates.get(0).replace("-", " ").toLowerCase());
+        licensePlates.add("NO-SUCH-CAR");
+        licensePlates.add(licensePlates.get(2));
+        ResponseDto response = carService.deleteCars(licensePlates);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(new DeleteReport(4, 3), response.getResult());
+        for (Car car : cars) {
+            assertFalse(carRepository.existsById(car.getId()));
+            assertEquals(0, count("select count(*) from cars_parts_list where car_id = ?", car.getId()));
+            assertEquals(0, count("select count(*) from cars_repair_operations_list where car_id = ?", car.getId()));
+            assertFalse(licensePlateIndex.resolve(car.getLicensePlate()).isPresent());
+        }
+        assertEquals(0, count("select count(*) from car_document where car_id = ?", cars.get(0).getId()));
+        assertEquals(0, count("select ref_count from document_blobs where content_hash = ?", contentHash));
+        assertEquals(1, count("select count(*) from schedule_repairing where id = ? and car_id is null", scheduleId));
+        assertEquals(404, carService.deleteCars(Collections.singletonList(licensePlates.get(0))).getStatusCode());
+    }
+
+    @Test
+    void deleteCustomersKeepsTheirCarsTest() {
+        Car car = addCar();
+        long customerId = car.getCustomer().getId();
+        Appointment appointment = (Appointment) appointmentService.create(Appointment.builder().description("Inspection").build(), customerId).getResult();
+
+        assertEquals(409, customerService.deleteCustomers(Arrays.asList(customerId, customerId)).getStatusCode());
+        assertEquals(1, count("select count(*) from customers where id = ?", customerId));
+        assertEquals(1, count("select count(*) from appointments where customer_id = ?", customerId));
+
+        appointmentService.deleteAppointment(appointment.getId());
+        ResponseDto response = customerService.deleteCustomers(Arrays.asList(customerId, customerId));
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(new DeleteReport(1, 1), response.getResult());
+        assertEquals(0, count("select count(*) from customers where id = ?", customerId));
+        assertEquals(1, count("select count(*) from cars where id = ? and customer_id is null", car.getId()));
+    }
+
+    @Test
+    void deleteReceiptsClearsTheirLinesTest() {
+        Car car = addCar();
+        List<Long> receiptIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            receiptIds.add(((Receipt) receiptService.generateReceipt(car.getLicensePlate()).getResult()).getId());
+        }
+
+        ResponseDto response = receiptService.deleteReceipts(receiptIds);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(new DeleteReport(2, 2), response.getResult());
+        for (long receiptId : receiptIds) {
+            assertEquals(0, count("select count(*) from receipts where id = ?", receiptId));
+            assertEquals(0, count("select count(*) from receipts_parts_list where receipt_id = ?", receiptId));
+            assertEquals(0, count("select count(*) from receipts_repair_operations_list where receipt_id = ?", receiptId));
+        }
+    }
+
+    private Car addCar() {
+        Customer customer = Customer.builder().surname("Bulk Delete").phoneNumber("0612066676").build();
+        Car car = (Car) carService.addCar(Car.builder().licensePlate("BD-" + System.nanoTime()).customer(customer).build()).getResult();
+        transactionTemplate.execute(status -> {
+            carRepository.addPartToCar(car.getId(), part.getId());
+            return carRepository.addRepairOperationToCar(car.getId(), operation.getId());
+        });
+        return car;
+    }
+
+    private long count(String sql, long id) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, id);
+        return count == null ? 0 : count;
+    }
+
+    private long count(String sql, String key) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, key);
+        return count == null ? 0 : count;
+    }
+}
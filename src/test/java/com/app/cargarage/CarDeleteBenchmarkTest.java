@@ -0,0 +1,88 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.DeleteReport;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Part;
+import com.app.cargarage.model.RepairOperations;
+import com.app.cargarage.model.RepairStatus;
+import com.app.cargarage.service.CarService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Deletes 10k cars, each with a part and a repair operation, through the bulk delete. Runs against the configured
+ * database with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class CarDeleteBenchmarkTest {
+    private static final int CARS = 10_000;
+    private static final int CHUNK = 1_000;
+
+    @PersistenceContext
+    EntityManager entityManager;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    CarService carService;
+
+    @Test
+    void deleteCarsBenchmark() {
+        String prefix = "D" + Long.toString(System.nanoTime() % 1_000_000, 36) + "-";
+        List<String> licensePlates = addCars(prefix);
+
+        long start = System.nanoTime();
+        ResponseDto response = carService.deleteCars(licensePlates);
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("delete %d cars: %.1f s%n", CARS, nanos / 1e9);
+        assertEquals(new DeleteReport(CARS, CARS), response.getResult());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from cars where license_plate like ?", Integer.class, prefix + "%"));
+    }
+
+    private List<String> addCars(String prefix) {
+        Part part = transactionTemplate.execute(status -> {
+            Part saved = Part.builder().name("Benchmark part").price(10).stock(1).build();
+            entityManager.persist(saved);
+            return saved;
+        });
+        RepairOperations operation = transactionTemplate.execute(status -> {
+            RepairOperations saved = RepairOperations.builder().repairAction("Benchmark operation").price(10).build();
+            entityManager.persist(saved);
+            return saved;
+        });
+        List<String> licensePlates = new ArrayList<>(CARS);
+        for (int from = 0; from < CARS; from += CHUNK) {
+            int first = from;
+            transactionTemplate.execute(status -> {
+                List<Object[]> links = new ArrayList<>(CHUNK);
+                for (int i = first; i < first + CHUNK; i++) {
+                    Car car = Car.builder().licensePlate(prefix + i).repairStatus(RepairStatus.PENDING).build();
+                    entityManager.persist(car);
+                    licensePlates.add(car.getLicensePlate());
+                    links.add(new Object[]{car.getId()});
+                }
+                entityManager.flush();
+                entityManager.clear();
+                jdbcTemplate.batchUpdate("insert into cars_parts_list (car_id, parts_list_id) values (?, " + part.getId() + ")", links);
+                jdbcTemplate.batchUpdate("insert into cars_repair_operations_list (car_id, repair_operations_list_id) values (?, " + operation.getId() + ")", links);
+                return null;
+            });
+        }
+        return licensePlates;
+    }
+}
@@ -0,0 +1,106 @@
+package com.app.cargarage;
+
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.CarDocument;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.repository.CarDocumentRepository;
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.service.CarService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records the SQL Hibernate sends while cars and document metadata are loaded, to prove that neither reaches for the
+ * document content.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.app.cargarage.CarDocumentSqlTest$RecordingStatementInspector",
+        "documents.store-path=target/test-documents"})
+class CarDocumentSqlTest {
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final Pattern DOCUMENT_COLUMN = Pattern.compile("\\.document[\\s,]");
+
+    @Autowired
+    CarService carService;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    CarDocumentRepository carDocumentRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private String licensePlate;
+    private long documentId;
+
+    @BeforeEach
+    void seedCarWithDocument() {
+        licensePlate = "SQL-" + System.nanoTime();
+        Customer customer = Customer.builder().surname("Sql Test").phoneNumber("0612066676").build();
+        carService.addCar(Car.builder().licensePlate(licensePlate).customer(customer).build());
+        byte[] content = "Kentekenbewijs".getBytes(StandardCharsets.UTF_8);
+        CarDocument carDocument = (CarDocument) carService.uploadDocumentStream(licensePlate, "kenteken.pdf", "application/pdf",
+                content.length, new ByteArrayInputStream(content)).getResult();
+        documentId = carDocument.getId();
+        STATEMENTS.clear();
+    }
+
+    @Test
+    void loadingCarNeverTouchesDocumentsTest() {
+        transactionTemplate.execute(status -> carRepository.findCarByLicensePlate(licensePlate).get().getCustomer().getSurname());
+
+        assertFalse(STATEMENTS.isEmpty());
+        for (String statement : STATEMENTS) {
+            assertFalse(statement.contains("car_document"), statement);
+            assertFalse(statement.contains("document_blobs"), statement);
+        }
+    }
+
+    @Test
+    void loadingDocumentReadsOnlyMetadataTest() {
+        CarDocument carDocument = transactionTemplate.execute(status -> carDocumentRepository.findById(documentId).get());
+
+        assertEquals("car_document-" + licensePlate + "-kenteken.pdf", carDocument.getDocumentName());
+        assertEquals(1, STATEMENTS.size());
+        String statement = STATEMENTS.get(0);
+        assertTrue(statement.contains("from car_document"), statement);
+        assertFalse(statement.contains("cars"), statement);
+        assertFalse(DOCUMENT_COLUMN.matcher(statement).find(), statement);
+    }
+
+    @Test
+    void listingDocumentsReadsOnlyMetadataTest() {
+        assertEquals(200, carService.listDocuments(licensePlate).getStatusCode());
+
+        List<String> documentStatements = new ArrayList<>();
+        for (String statement : STATEMENTS) {
+            assertFalse(DOCUMENT_COLUMN.matcher(statement).find(), statement);
+            if (statement.contains("car_document")) {
+                documentStatements.add(statement);
+            }
+        }
+        assertEquals(1, documentStatements.size());
+        assertFalse(documentStatements.get(0).contains("cars"), documentStatements.get(0));
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+            return sql;
+        }
+    }
+}
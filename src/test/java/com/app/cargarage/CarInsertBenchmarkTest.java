@@ -0,0 +1,72 @@
+package com.app.cargarage;
+
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.RepairStatus;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts 100k cars once with one INSERT per row, which is what the auto-increment ids forced on Hibernate, and once
+ * with the configured JDBC batching that pooled ids allow. Runs against the configured database with
+ * {@code mvn test -Pbenchmark}; on MySQL the batches are rewritten to multi-row inserts by the driver.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class CarInsertBenchmarkTest {
+    private static final int CARS = 100_000;
+    private static final int CHUNK = 1_000;
+
+    @PersistenceContext
+    EntityManager entityManager;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertCarsBenchmark() {
+        String run = "B" + Long.toString(System.nanoTime() % 1_000_000, 36) + "-";
+
+        long rowByRowNanos = insertCars(run + "ROW-", 1);
+        long batchedNanos = insertCars(run + "BATCH-", null);
+
+        System.out.printf("insert %d cars: row by row %.0f rows/s, batched %.0f rows/s%n",
+                CARS, CARS / (rowByRowNanos / 1e9), CARS / (batchedNanos / 1e9));
+
+        assertEquals(2 * CARS, jdbcTemplate.queryForObject("select count(*) from cars where license_plate like ?", Integer.class, run + "%"));
+    }
+
+    /**
+     * Persists the cars in transactions of {@link #CHUNK} rows. A {@code null} batch size keeps the configured
+     * {@code hibernate.jdbc.batch_size}.
+     */
+    private long insertCars(String prefix, Integer jdbcBatchSize) {
+        long start = System.nanoTime();
+        for (int from = 0; from < CARS; from += CHUNK) {
+            int first = from;
+            transactionTemplate.execute(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                for (int i = first; i < first + CHUNK; i++) {
+                    entityManager.persist(Car.builder()
+                            .licensePlate(prefix + i)
+                            .repairStatus(RepairStatus.PENDING)
+                            .build());
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+        }
+        return System.nanoTime() - start;
+    }
+}
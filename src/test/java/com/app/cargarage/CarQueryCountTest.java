@@ -0,0 +1,88 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.PageQuery;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.model.Part;
+import com.app.cargarage.model.RepairOperations;
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.repository.PartRepository;
+import com.app.cargarage.repository.RepairOperationsRepository;
+import com.app.cargarage.service.CarService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the SQL statements behind the car read endpoints, including serializing the response, against the
+ * configured database.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CarQueryCountTest {
+    private static final int CARS = 5;
+
+    @Autowired
+    CarService carService;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    PartRepository partRepository;
+    @Autowired
+    RepairOperationsRepository repairOperationsRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private String licensePlate;
+
+    @BeforeEach
+    void seedCars() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        RepairOperations operation = repairOperationsRepository.save(RepairOperations.builder().repairAction("Change the oil").price(80).build());
+        Part part = partRepository.save(Part.builder().name("Oil filter").price(15).stock(10).build());
+        for (int i = 0; i < CARS; i++) {
+            Customer customer = Customer.builder().surname("Query Count " + i).phoneNumber("0612066676").build();
+            Car car = (Car) carService.addCar(Car.builder().licensePlate("QC-" + System.nanoTime()).customer(customer).build()).getResult();
+            transactionTemplate.execute(status -> {
+                carRepository.addRepairOperationToCar(car.getId(), operation.getId());
+                carRepository.addPartToCar(car.getId(), part.getId());
+                return carRepository.addPartToCar(car.getId(), part.getId());
+            });
+            licensePlate = car.getLicensePlate();
+        }
+    }
+
+    @Test
+    void listOfCarsRunsOneStatementPerPageTest() throws Exception {
+        statistics.clear();
+        ResponseDto response = carService.listOfCars(PageQuery.builder().size(100).build(), null);
+        objectMapper.writeValueAsString(response);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCarDetailRunsTwoStatementsTest() throws Exception {
+        statistics.clear();
+        ResponseDto response = carService.getCarDetail(licensePlate);
+        objectMapper.writeValueAsString(response);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,33 +1,77 @@
 package com.app.cargarage;
 
+import com.app.cargarage.controller.CarController;
+import com.app.cargarage.dto.CarDetail;
+import com.app.cargarage.dto.CarSummary;
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
+import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.Car;
+import com.app.cargarage.model.CarDocument;
 import com.app.cargarage.model.Customer;
 import com.app.cargarage.model.Part;
 import com.app.cargarage.model.RepairOperations;
+import com.app.cargarage.model.RepairStatus;
 import com.app.cargarage.repository.*;
 import com.app.cargarage.service.CarServiceImpl;
+import com.app.cargarage.service.DocumentBlobService;
+import com.app.cargarage.service.DocumentEncoding;
+import com.app.cargarage.service.DocumentStore;
+import com.app.cargarage.service.RepairStatusCounters;
+import com.app.cargarage.service.SizeLimitedInputStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.transaction.Transactional;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
 @Transactional
 class CarServiceTest {
+    private static final String CONTENT_HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
 
     @Autowired
     CarServiceImpl carService;
+    @Autowired
+    CarController carController;
+    @Autowired
+    RepairStatusCounters repairStatusCounters;
     @MockBean
     CarRepository carRepository;
     @MockBean
@@ -38,6 +82,10 @@ class CarServiceTest {
     RepairOperationsRepository operationsRepository;
     @MockBean
     PartRepository partRepository;
+    @MockBean
+    DocumentStore documentStore;
+    @MockBean
+    DocumentBlobService documentBlobService;
 
     @Test
     void addRepairingActionsInCarTest() {
@@ -52,7 +100,7 @@ class CarServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         RepairOperations repairOperation = RepairOperations.builder()
@@ -61,11 +109,158 @@ class CarServiceTest {
                 .price(5000)
                 .build();
 
-        when(carRepository.findCarByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car));
-        when(operationsRepository.findById(repairOperation.getId())).thenReturn(Optional.of(repairOperation));
-        when(carRepository.saveAndFlush(car)).thenReturn(car);
+        when(carRepository.findIdByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car.getId()));
+        when(operationsRepository.existsById(repairOperation.getId())).thenReturn(true);
+        when(carRepository.getById(car.getId())).thenReturn(car);
 
         assertEquals(car.getRepairOperationsList(), carService.addRepairingActionsInCar("81-pn-pk", 1).getResult());
+        verify(carRepository).addRepairOperationToCar(car.getId(), repairOperation.getId());
+    }
+
+    @Test
+    void uploadDocumentTest() throws IOException {
+        Car car = Car.builder()
+                .id(1)
+                .licensePlate("81-pn-pk")
+                .repairStatus(RepairStatus.PENDING)
+                .build();
+        MockMultipartFile document = new MockMultipartFile("document", "apk.pdf", "application/pdf", "scan".getBytes());
+
+        DocumentStore.StagedDocument stagedDocument = new DocumentStore.StagedDocument(CONTENT_HASH, 4, 4, DocumentEncoding.IDENTITY, null);
+
+        when(carRepository.findIdByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car.getId()));
+        when(carRepository.getById(car.getId())).thenReturn(car);
+        when(carRepository.findLicensePlateById(car.getId())).thenReturn(Optional.of(car.getLicensePlate()));
+        when(documentStore.stage(any(InputStream.class), eq("application/pdf"))).thenReturn(stagedDocument);
+        when(carDocumentRepository.findLatestVersion(car.getId(), "car_document-81-pn-pk-apk.pdf")).thenReturn(1);
+        when(carDocumentRepository.save(any(CarDocument.class))).then(invocation -> invocation.getArgument(0));
+
+        ResponseDto response = carService.uploadDocument(car.getLicensePlate(), document);
+        CarDocument carDocument = (CarDocument) response.getResult();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, carDocument.getVersion());
+        assertEquals(CONTENT_HASH, carDocument.getContentHash());
+        assertEquals(4, carDocument.getContentLength());
+        assertEquals(car, carDocument.getCar());
+        verify(documentBlobService).acquire(stagedDocument);
+        verify(documentStore).discard(stagedDocument);
+    }
+
+    @Test
+    void uploadDocumentStreamTest() throws Exception {
+        Car car = Car.builder()
+                .id(1)
+                .licensePlate("81-pn-pk")
+                .repairStatus(RepairStatus.PENDING)
+                .build();
+        DocumentStore.StagedDocument stagedDocument = new DocumentStore.StagedDocument(CONTENT_HASH, 4, 4, DocumentEncoding.IDENTITY, null);
+
+        when(carRepository.findIdByLicensePlate("81PNPK")).thenReturn(Optional.of(car.getId()));
+        when(carRepository.getById(car.getId())).thenReturn(car);
+        when(carRepository.findLicensePlateById(car.getId())).thenReturn(Optional.of(car.getLicensePlate()));
+        when(documentStore.stage(any(SizeLimitedInputStream.class), eq("application/pdf"))).thenReturn(stagedDocument);
+        when(carDocumentRepository.save(any(CarDocument.class))).then(invocation -> invocation.getArgument(0));
+
+        MockMvcBuilders.standaloneSetup(carController).build()
+                .perform(post("/car/uploadDocument/stream").param("licensePlate", "81PNPK").param("fileName", "apk.pdf")
+                        .contentType("application/pdf").content("scan".getBytes()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(200))
+                .andExpect(jsonPath("$.result.documentName").value("car_document-81-pn-pk-apk.pdf"))
+                .andExpect(jsonPath("$.result.version").value(1));
+        verify(documentBlobService).acquire(stagedDocument);
+    }
+
+    @Test
+    void uploadDocumentStreamTooLargeTest() throws IOException {
+        when(carRepository.findIdByLicensePlate("81-pn-pk")).thenReturn(Optional.of(1L));
+
+        ResponseDto response = carService.uploadDocumentStream("81-pn-pk", "apk.pdf", "application/pdf", 101L * 1024 * 1024,
+                new ByteArrayInputStream(new byte[0]));
+
+        assertEquals(413, response.getStatusCode());
+        verify(documentStore, never()).stage(any(InputStream.class), any());
+    }
+
+    @Test
+    void getDocumentsByCarLicensePlateTest() throws Exception {
+        mockStoredDocument("scan");
+
+        MockMvcBuilders.standaloneSetup(carController).build()
+                .perform(get("/car/document/getByLicensePlate/81-pn-pk"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string("scan"));
+    }
+
+    @Test
+    void getDocumentsByCarLicensePlateNotModifiedTest() throws Exception {
+        mockStoredDocument("scan");
+
+        MockMvcBuilders.standaloneSetup(carController).build()
+                .perform(get("/car/document/getByLicensePlate/81-pn-pk").header(HttpHeaders.IF_NONE_MATCH, "\"" + CONTENT_HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(documentStore, never()).load(anyString());
+    }
+
+    @Test
+    void getDocumentsByCarLicensePlateRangeTest() throws Exception {
+        mockStoredDocument("0123456789");
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(carController).build();
+
+        mockMvc.perform(get("/car/document/getByLicensePlate/81-pn-pk").header(HttpHeaders.RANGE, "bytes=2-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-4/10"))
+                .andExpect(content().string("234"));
+        mockMvc.perform(get("/car/document/getByLicensePlate/81-pn-pk").header(HttpHeaders.RANGE, "bytes=0-1,8-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("multipart/byteranges")));
+    }
+
+    @Test
+    void getDocumentsByCarLicensePlateGzipTest() throws Exception {
+        mockStoredDocument("scan");
+        byte[] gzipped = gzip("scan");
+        when(documentStore.storedEncoding(CONTENT_HASH)).thenReturn(DocumentEncoding.GZIP);
+        when(documentStore.loadStored(CONTENT_HASH)).thenReturn(new ByteArrayResource(gzipped));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(carController).build();
+
+        mockMvc.perform(get("/car/document/getByLicensePlate/81-pn-pk").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "-gzip\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(gzipped));
+        mockMvc.perform(get("/car/document/getByLicensePlate/81-pn-pk").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "\""))
+                .andExpect(content().string("scan"));
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private void mockStoredDocument(String content) throws IOException {
+        CarDocument carDocument = CarDocument.builder()
+                .id(1)
+                .documentName("car_document-81-pn-pk-apk.pdf")
+                .contentHash(CONTENT_HASH)
+                .contentLength(content.length())
+                .uploadedAt(LocalDateTime.of(2022, 5, 1, 10, 0))
+                .build();
+
+        when(carRepository.findIdByLicensePlate("81-pn-pk")).thenReturn(Optional.of(1L));
+        when(carDocumentRepository.findLatestByCarId(1L)).thenReturn(Optional.of(carDocument));
+        when(documentStore.load(CONTENT_HASH)).thenReturn(new ByteArrayResource(content.getBytes()));
     }
 
     @Test
@@ -81,20 +276,33 @@ class CarServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
+                .partsList(new ArrayList<>())
                 .build();
 
         Part part = Part.builder()
                 .id(1)
                 .name("Brake")
                 .price(500)
+                .stock(5)
                 .build();
 
-        when(carRepository.findCarByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car));
-        when(partRepository.findById(part.getId())).thenReturn(Optional.of(part));
-        when(carRepository.saveAndFlush(car)).thenReturn(car);
+        when(carRepository.findIdByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car.getId()));
+        when(partRepository.reserveStock(part.getId(), 2)).thenReturn(1);
+        when(carRepository.getById(car.getId())).thenReturn(car);
+
+        assertEquals(car.getPartsList(), carService.installPartsInCar("81-pn-pk", 1, 2).getResult());
+        verify(carRepository, times(2)).addPartToCar(car.getId(), part.getId());
+    }
+
+    @Test
+    void installPartsInCarOutOfStockTest() {
+        when(carRepository.findIdByLicensePlate("81-pn-pk")).thenReturn(Optional.of(1L));
+        when(partRepository.reserveStock(1L, 3)).thenReturn(0);
+        when(partRepository.existsById(1L)).thenReturn(true);
 
-        assertEquals(car.getPartsList(), carService.installPartsInCar("81-pn-pk", 1).getResult());
+        assertEquals(409, carService.installPartsInCar("81-pn-pk", 1, 3).getStatusCode());
+        verify(carRepository, never()).addPartToCar(anyLong(), anyLong());
     }
 
     @Test
@@ -110,12 +318,23 @@ class CarServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
-        when(carRepository.getCarByLicensePlate(car.getLicensePlate())).thenReturn(car);
-        when(carRepository.saveAndFlush(car)).thenReturn(car);
-        assertEquals(200, carService.deleteCar("81-pn-pk").getStatusCode());
+        CarRepository.CarKey carKey = mock(CarRepository.CarKey.class);
+        when(carKey.getId()).thenReturn(car.getId());
+        when(carKey.getLicensePlate()).thenReturn(car.getLicensePlate());
+        when(carKey.getRepairStatus()).thenReturn(car.getRepairStatus());
+        List<Long> carIds = Collections.singletonList(car.getId());
+        when(carRepository.findIdByLicensePlate("81PNPK")).thenReturn(Optional.of(car.getId()));
+        when(carRepository.findKeysByIds(Collections.singleton(car.getId()))).thenReturn(Collections.singletonList(carKey));
+        when(carRepository.deleteByIds(carIds)).thenReturn(1);
+
+        assertEquals(200, carService.deleteCar("81PNPK").getStatusCode());
+        verify(documentBlobService).releaseAllForCars(carIds);
+        verify(carDocumentRepository).deleteAllByCarIds(carIds);
+        verify(carRepository).deletePartLines(carIds);
+        verify(carRepository).deleteRepairOperationLines(carIds);
     }
 
     @Test
@@ -131,14 +350,14 @@ class CarServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         Car updatedCar = Car.builder()
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("Repaired")
+                .repairStatus(RepairStatus.REPAIRED)
                 .build();
 
         when(carRepository.getById(car.getId())).thenReturn(car);
@@ -146,6 +365,23 @@ class CarServiceTest {
         assertEquals(updatedCar, carService.updateCar(updatedCar).getResult());
     }
 
+    @Test
+    void changeStatusToRepairedAcceptsAnyPlateSpellingTest() {
+        Car car = Car.builder()
+                .id(1)
+                .licensePlate("81-pn-pk")
+                .repairStatus(RepairStatus.UNDER_REPAIRING)
+                .build();
+
+        when(carRepository.findIdByLicensePlate("81 PN PK")).thenReturn(Optional.of(car.getId()));
+        when(carRepository.findById(car.getId())).thenReturn(Optional.of(car));
+        when(carRepository.save(car)).thenReturn(car);
+
+        ResponseDto response = carService.changeStatusToRepaired("81 PN PK");
+        assertEquals(200, response.getStatusCode());
+        assertEquals(RepairStatus.REPAIRED, ((Car) response.getResult()).getRepairStatus());
+    }
+
     @Test
     void addCarTest() {
         Customer customer = Customer.builder()
@@ -159,7 +395,7 @@ class CarServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         when(customerRepository.save(car.getCustomer())).thenReturn(customer);
@@ -176,18 +412,123 @@ class CarServiceTest {
                 .surname("Idris Delawar")
                 .build();
 
+        CarSummary car = CarSummary.builder()
+                .id(1)
+                .licensePlate("81-pn-pk")
+                .repairStatus(RepairStatus.PENDING)
+                .customerId(customer.getId())
+                .customerSurname(customer.getSurname())
+                .build();
+
+        List<CarSummary> carsList = new ArrayList<>();
+        carsList.add(car);
+
+        when(carRepository.findPage(anyLong(), anyLong(), any(), any(Pageable.class))).thenReturn(new SliceImpl<>(carsList));
+        assertEquals(carsList, ((CursorPage<?>) carService.listOfCars(new PageQuery(), null).getResult()).getItems());
+    }
+
+    @Test
+    void listOfCarsNextCursorTest() {
+        CarSummary car = CarSummary.builder()
+                .id(7)
+                .licensePlate("81-pn-pk")
+                .repairStatus(RepairStatus.PENDING)
+                .build();
+
+        List<CarSummary> carsList = new ArrayList<>();
+        carsList.add(car);
+        PageQuery firstPage = PageQuery.builder().size(1).build();
+
+        when(carRepository.findPage(anyLong(), anyLong(), any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(carsList, firstPage.toPageable(), true));
+        CursorPage<?> page = (CursorPage<?>) carService.listOfCars(firstPage, null).getResult();
+
+        assertTrue(page.isHasMore());
+        PageQuery nextPage = PageQuery.builder().cursor(page.getNextCursor()).size(1).build();
+        assertEquals(7, nextPage.afterId());
+        assertEquals(Long.MAX_VALUE, nextPage.beforeId());
+    }
+
+    @Test
+    void listOfCarsInvalidCursorTest() {
+        PageQuery pageQuery = PageQuery.builder().cursor("not-a-cursor").build();
+        assertEquals(400, carService.listOfCars(pageQuery, null).getStatusCode());
+    }
+
+    @Test
+    void getAllRepairedCarsListTest() {
+        CarSummary car = CarSummary.builder()
+                .id(1)
+                .licensePlate("81-pn-pk")
+                .repairStatus(RepairStatus.REPAIRED)
+                .build();
+
+        List<CarSummary> carsList = new ArrayList<>();
+        carsList.add(car);
+
+        when(carRepository.findSummariesByRepairStatus(RepairStatus.REPAIRED)).thenReturn(carsList);
+        assertEquals(carsList, carService.getAllRepairedCarsList().getResult());
+    }
+
+    @Test
+    void listOfCarsUnknownRepairStatusTest() {
+        assertEquals(400, carService.listOfCars(new PageQuery(), "broken").getStatusCode());
+    }
+
+    @Test
+    void getCarDetailTest() {
+        Customer customer = Customer.builder()
+                .id(1L)
+                .phoneNumber("0612066676")
+                .address("potvisstrat, Amsterdam")
+                .surname("Idris Delawar")
+                .build();
+
+        Part part = Part.builder()
+                .id(1)
+                .name("Brake")
+                .price(500)
+                .build();
+
+        List<Part> partsList = new ArrayList<>();
+        partsList.add(part);
+
         Car car = Car.builder()
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
+                .repairOperationsList(new ArrayList<>())
+                .partsList(partsList)
                 .build();
 
-        List<Car> carsList = new ArrayList<>();
-        carsList.add(car);
+        when(carRepository.findIdByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car.getId()));
+        when(carRepository.findWithRepairOperationsById(car.getId())).thenReturn(Optional.of(car));
+        when(carRepository.fetchPartsById(car.getId())).thenReturn(Optional.of(car));
+
+        CarDetail carDetail = (CarDetail) carService.getCarDetail(car.getLicensePlate()).getResult();
+        assertEquals("Idris Delawar", carDetail.getCustomerSurname());
+        assertEquals(partsList, carDetail.getParts());
+    }
+
+    @Test
+    void getRepairStatusCountsTest() {
+        Map<?, ?> counts = (Map<?, ?>) carService.getRepairStatusCounts().getResult();
+        assertEquals(Arrays.asList("pending", "Under Repairing", "repaired", "Not Carried out"), new ArrayList<>(counts.keySet()));
+    }
+
+    @Test
+    void repairStatusCountsAreReconciledWithTheDatabaseTest() {
+        CarRepository.StatusCount repaired = mock(CarRepository.StatusCount.class);
+        when(repaired.getStatus()).thenReturn(RepairStatus.REPAIRED);
+        when(repaired.getTotal()).thenReturn(3L);
+        when(carRepository.countCarsPerRepairStatus()).thenReturn(Collections.singletonList(repaired));
+
+        repairStatusCounters.reconcile();
 
-        when(carRepository.findAll()).thenReturn(carsList);
-        assertEquals(carsList, carService.listOfCars().getResult());
+        Map<?, ?> counts = (Map<?, ?>) carService.getRepairStatusCounts().getResult();
+        assertEquals(0L, counts.get("pending"));
+        assertEquals(3L, counts.get("repaired"));
     }
 
     @Test
@@ -203,10 +544,11 @@ class CarServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
-        when(carRepository.findCarByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car));
+        when(carRepository.findIdByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car.getId()));
+        when(carRepository.findCustomerByCarId(car.getId())).thenReturn(Optional.of(customer));
 
         assertEquals(car.getCustomer(), carService.getCustomerByCarLicensePlate(car.getLicensePlate()).getResult());
     }
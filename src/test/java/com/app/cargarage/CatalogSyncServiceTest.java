@@ -0,0 +1,103 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.CatalogSyncReport;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.service.CatalogSyncServiceImpl;
+import com.app.cargarage.service.ImportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"parts.catalog-chunk-size=3"})
+class CatalogSyncServiceTest {
+
+    @Autowired
+    CatalogSyncServiceImpl catalogSyncService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+
+    @BeforeEach
+    void uniqueSkus() {
+        prefix = "S" + ThreadLocalRandom.current().nextInt(100_000, 1_000_000) + "-";
+    }
+
+    @Test
+    void onlyChangedPartsAreWrittenTest() {
+        String catalog = "sku,name,price,stock,supplier\n"
+                + prefix + "1,Oil filter,12.5,10,Acme\n"
+                + prefix + "2,Air filter,20,4,Acme\n"
+                + prefix + "3,Brake pad,45.99,8,Acme\n"
+                + prefix + "4,Spark plug,6,100,Acme\n";
+        CatalogSyncReport first = syncCsv(catalog);
+        assertEquals(4, first.getRows());
+        assertEquals(4, first.getInserted());
+        assertEquals(0, first.getFailed());
+
+        String changed = "sku,name,price,stock\n"
+                + prefix + "1,Oil filter,12.5,10\n"
+                + prefix + "2,Air filter,21,4\n"
+                + " " + prefix + "3 ,Brake pad set,45.99,8\n"
+                + prefix + "4,Spark plug,6,100\n"
+                + prefix + "5,Wiper blade,15,12\n"
+                + prefix + "5,Wiper blade,15,12\n"
+                + prefix + "6,,1,1\n"
+                + prefix + "7,Fuse,-1,1\n";
+        CatalogSyncReport second = syncCsv(changed);
+        assertEquals(8, second.getRows());
+        assertEquals(1, second.getInserted());
+        assertEquals(2, second.getUpdated());
+        assertEquals(2, second.getUnchanged());
+        assertEquals(3, second.getFailed());
+        assertEquals(6, second.getErrors().get(0).getRow());
+
+        Map<String, Object> airFilter = part(prefix + "2");
+        assertEquals(21.0, ((Number) airFilter.get("price")).doubleValue());
+        assertEquals("Brake pad set", part(prefix + "3").get("name"));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from parts where supplier_sku = ?", Integer.class, prefix + "5"));
+
+        CatalogSyncReport third = syncCsv(changed);
+        assertEquals(0, third.getInserted());
+        assertEquals(0, third.getUpdated());
+        assertEquals(5, third.getUnchanged());
+    }
+
+    @Test
+    void ndjsonAndMissingPartsTest() {
+        syncCsv("sku,name,price,stock\n" + prefix + "1,Oil filter,12.5,10\n" + prefix + "2,Air filter,20,4\n");
+        String ndjson = "{\"sku\":\"" + prefix + "1\",\"name\":\"Oil filter\",\"price\":12.5,\"stock\":7}\n"
+                + "\n"
+                + "not json\n";
+        ResponseDto response = catalogSyncService.syncCatalog(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+        CatalogSyncReport report = (CatalogSyncReport) response.getResult();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, report.getRows());
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getFailed());
+        assertTrue(report.getMissing() >= 1);
+        assertEquals(7, part(prefix + "1").get("stock"));
+    }
+
+    private CatalogSyncReport syncCsv(String csv) {
+        ResponseDto response = catalogSyncService.syncCatalog(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+        assertEquals(200, response.getStatusCode());
+        return (CatalogSyncReport) response.getResult();
+    }
+
+    private Map<String, Object> part(String sku) {
+        return jdbcTemplate.queryForMap("select name, price, stock from parts where supplier_sku = ?", sku);
+    }
+}
@@ -0,0 +1,99 @@
+package com.app.cargarage;
+
+import com.app.cargarage.model.User;
+import com.app.cargarage.repository.UserRepository;
+import com.app.cargarage.service.CredentialCache;
+import com.app.cargarage.service.PasswordVerificationExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "documents.store-path=target/test-documents")
+@AutoConfigureMockMvc
+class CredentialCacheTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BCryptPasswordEncoder encoder;
+
+    @Test
+    void repeatedBasicAuthIsServedFromTheCacheTest() throws Exception {
+        credentialCache.evictAll();
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, basic("back", "wrong"))).andExpect(status().isUnauthorized());
+        assertNull(credentialCache.get("back", "wrong"));
+
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, basic("back", "back"))).andExpect(status().isOk());
+        assertNotNull(credentialCache.get("back", "back"));
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, basic("back", "back"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void changingAUserDropsItsCachedCredentialsTest() throws Exception {
+        userRepository.save(User.builder().fullName("Cache Test").username("cachetest")
+                .password(encoder.encode("first")).role("ROLE_BACKOFFICE").build());
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, basic("cachetest", "first"))).andExpect(status().isOk());
+
+        User user = userRepository.getUserByUsername("cachetest");
+        user.setRole("ROLE_CASHIER");
+        userRepository.save(user);
+
+        assertNull(credentialCache.get("cachetest", "first"));
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, basic("cachetest", "first"))).andExpect(status().isForbidden());
+        userRepository.delete(userRepository.getUserByUsername("cachetest"));
+    }
+
+    @Test
+    void passwordChecksBeyondThePoolAndQueueAreTurnedAwayTest() throws Exception {
+        PasswordVerificationExecutor executor = new PasswordVerificationExecutor(new SimpleMeterRegistry(), 1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> blocked = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                blocked.add(callers.submit(() -> executor.verify(() -> release.await(5, TimeUnit.SECONDS))));
+            }
+            Thread.sleep(200);
+            assertThrows(PasswordVerificationExecutor.BusyException.class, () -> executor.verify(() -> true));
+            release.countDown();
+            for (Future<Boolean> check : blocked) {
+                assertTrue(check.get());
+            }
+            assertTrue(executor.verify(() -> true));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            executor.destroy();
+        }
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
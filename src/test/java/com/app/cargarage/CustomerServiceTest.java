@@ -1,7 +1,11 @@
 package com.app.cargarage;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.model.Car;
 import com.app.cargarage.model.Customer;
+import com.app.cargarage.model.RepairStatus;
+import com.app.cargarage.repository.AppointmentRepository;
 import com.app.cargarage.repository.CarRepository;
 import com.app.cargarage.repository.CustomerRepository;
 import com.app.cargarage.service.CustomerServiceImpl;
@@ -10,14 +14,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.transaction.Transactional;
-
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -31,6 +41,8 @@ public class CustomerServiceTest {
     CustomerRepository customerRepository;
     @MockBean
     CarRepository carRepository;
+    @MockBean
+    AppointmentRepository appointmentRepository;
 
     @Test
     void addCustomerTest() {
@@ -45,12 +57,12 @@ public class CustomerServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
         List<Car> carList = new ArrayList<>();
         carList.add(car);
         customer.setCarList(carList);
-        when(carRepository.saveAllAndFlush(customer.getCarList())).thenReturn(customer.getCarList());
+        when(carRepository.saveAll(customer.getCarList())).thenReturn(customer.getCarList());
         when(customerRepository.saveAndFlush(customer)).thenReturn(customer);
         assertEquals(customer, customerService.addCustomer(customer).getResult());
     }
@@ -67,8 +79,8 @@ public class CustomerServiceTest {
         List<Customer> customersList = new ArrayList<>();
         customersList.add(customer);
 
-        when(customerRepository.findAll()).thenReturn(customersList);
-        assertEquals(customersList, customerService.listOfCustomers().getResult());
+        when(customerRepository.findPage(anyLong(), anyLong(), any(), any(Pageable.class))).thenReturn(new SliceImpl<>(customersList));
+        assertEquals(customersList, ((CursorPage<?>) customerService.listOfCustomers(new PageQuery(), null).getResult()).getItems());
     }
 
     @Test
@@ -80,9 +92,17 @@ public class CustomerServiceTest {
                 .surname("Idris Delawar")
                 .build();
 
-        when(customerRepository.getById(1L)).thenReturn(customer);
-        when(customerRepository.saveAndFlush(customer)).thenReturn(customer);
+        when(customerRepository.deleteByIds(Collections.singletonList(customer.getId()))).thenReturn(1);
         assertEquals(200, customerService.deleteCustomer(1).getStatusCode());
+        verify(carRepository).detachCustomers(Collections.singletonList(customer.getId()));
+    }
+
+    @Test
+    void deleteCustomerWithAppointmentsIsRefusedTest() {
+        when(appointmentRepository.findCustomerIdsWithAppointments(Collections.singletonList(1L))).thenReturn(Collections.singletonList(1L));
+
+        assertEquals(409, customerService.deleteCustomer(1).getStatusCode());
+        verify(customerRepository, never()).deleteByIds(any());
     }
 
     @Test
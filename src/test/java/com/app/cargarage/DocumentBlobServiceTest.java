@@ -0,0 +1,91 @@
+package com.app.cargarage;
+
+import com.app.cargarage.model.DocumentBlob;
+import com.app.cargarage.repository.DocumentBlobRepository;
+import com.app.cargarage.service.DocumentBlobService;
+import com.app.cargarage.service.DocumentStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reference counting and sweeping of stored content against the configured database.
+ */
+@SpringBootTest(properties = "documents.store-path=target/test-documents")
+class DocumentBlobServiceTest {
+    @Autowired
+    DocumentBlobService documentBlobService;
+    @Autowired
+    DocumentBlobRepository documentBlobRepository;
+    @Autowired
+    DocumentStore documentStore;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void identicalUploadsShareOneBlobTest() throws IOException {
+        String content = "shared " + System.nanoTime();
+        String contentHash = upload(content);
+
+        assertEquals(contentHash, upload(content));
+        assertEquals(2, documentBlobRepository.findById(contentHash).map(DocumentBlob::getRefCount).orElse(0));
+        assertTrue(documentStore.exists(contentHash));
+    }
+
+    @Test
+    void sweepRemovesOnlyUnreferencedContentTest() throws IOException {
+        String content = "sweep " + System.nanoTime();
+        String contentHash = upload(content);
+        upload(content);
+
+        release(contentHash);
+        documentBlobService.sweep();
+        assertTrue(documentStore.exists(contentHash));
+        assertTrue(documentBlobRepository.existsById(contentHash));
+
+        release(contentHash);
+        assertTrue(documentBlobService.sweep() >= 1);
+        assertFalse(documentStore.exists(contentHash));
+        assertFalse(documentBlobRepository.existsById(contentHash));
+    }
+
+    @Test
+    void rolledBackUploadIsSweptTest() throws IOException {
+        DocumentStore.StagedDocument stagedDocument = documentStore.stage(
+                new ByteArrayInputStream(("rolled back " + System.nanoTime()).getBytes(StandardCharsets.UTF_8)), "text/plain");
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                documentBlobService.acquire(stagedDocument);
+                status.setRollbackOnly();
+            });
+        } finally {
+            documentStore.discard(stagedDocument);
+        }
+
+        assertEquals(0, documentBlobRepository.findById(stagedDocument.getContentHash()).map(DocumentBlob::getRefCount).orElse(-1));
+        assertTrue(documentBlobService.sweep() >= 1);
+        assertFalse(documentStore.exists(stagedDocument.getContentHash()));
+        assertFalse(documentBlobRepository.existsById(stagedDocument.getContentHash()));
+    }
+
+    private String upload(String content) throws IOException {
+        DocumentStore.StagedDocument stagedDocument = documentStore.stage(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "text/plain");
+        try {
+            transactionTemplate.executeWithoutResult(status -> documentBlobService.acquire(stagedDocument));
+        } finally {
+            documentStore.discard(stagedDocument);
+        }
+        return stagedDocument.getContentHash();
+    }
+
+    private void release(String contentHash) {
+        transactionTemplate.executeWithoutResult(status -> documentBlobService.release(contentHash));
+    }
+}
@@ -0,0 +1,199 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.IngestionJobStatus;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.service.BufferPool;
+import com.app.cargarage.service.DocumentEncoding;
+import com.app.cargarage.service.DocumentIngestionServiceImpl;
+import com.app.cargarage.service.DocumentMetrics;
+import com.app.cargarage.service.DocumentStore;
+import com.app.cargarage.service.DocumentVersionService;
+import com.app.cargarage.service.LicensePlateIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DocumentIngestionServiceTest {
+
+    @TempDir
+    Path spoolRoot;
+
+    private LicensePlateIndex licensePlateIndex;
+    private DocumentStore documentStore;
+    private DocumentVersionService documentVersionService;
+    private TransactionTemplate transactionTemplate;
+    private final AtomicInteger transactions = new AtomicInteger();
+    private DocumentIngestionServiceImpl ingestionService;
+
+    @BeforeEach
+    void mockCollaborators() throws IOException {
+        licensePlateIndex = mock(LicensePlateIndex.class);
+        when(licensePlateIndex.resolve(anyString())).thenReturn(Optional.empty());
+        when(licensePlateIndex.resolve("81-pn-pk")).thenReturn(Optional.of(7L));
+        when(licensePlateIndex.resolve("81PNPK")).thenReturn(Optional.of(7L));
+        documentStore = mock(DocumentStore.class);
+        when(documentStore.stage(any(InputStream.class), any())).then(invocation -> {
+            byte[] content = StreamUtils.copyToByteArray(invocation.<InputStream>getArgument(0));
+            return new DocumentStore.StagedDocument(new String(content, StandardCharsets.UTF_8), content.length, content.length, DocumentEncoding.IDENTITY, null);
+        });
+        documentVersionService = mock(DocumentVersionService.class);
+        when(documentVersionService.documentName(eq(7L), anyString())).then(invocation -> "car_document-81-pn-pk-" + invocation.getArgument(1));
+        transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            transactions.incrementAndGet();
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        ingestionService = createService(2, 10);
+    }
+
+    @AfterEach
+    void stopWorkers() {
+        ingestionService.destroy();
+    }
+
+    @Test
+    void zipIsStagedInParallelAndWrittenInBatchesTest() throws Exception {
+        byte[] zip = zip("81-PN-PK/", "81-pn-pk/apk-1.txt", "81-pn-pk/apk-2.txt", "81PNPK/apk-3.txt",
+                "81-pn-pk/apk-4.txt", "81-pn-pk/apk-5.txt", "00-XX-00/apk.txt", "loose.txt");
+
+        ResponseDto response = ingestionService.ingestZip(new ByteArrayInputStream(zip));
+
+        assertEquals(202, response.getStatusCode());
+        IngestionJobStatus status = awaitFinished(((IngestionJobStatus) response.getResult()).getId());
+        assertEquals(7, status.getTotal());
+        assertEquals(5, status.getStored());
+        assertEquals(2, status.getFailed());
+        assertEquals(3, transactions.get());
+        verify(documentVersionService).addVersion(eq(7L), eq("car_document-81-pn-pk-apk-3.txt"), eq("text/plain"), any());
+        verify(documentVersionService, times(5)).addVersion(eq(7L), anyString(), anyString(), any());
+        verify(documentStore, times(5)).discard(any());
+        assertEquals(0, countSpooledFiles());
+    }
+
+    @Test
+    void failingDocumentDoesNotFailItsBatchTest() throws Exception {
+        doThrow(new DataIntegrityViolationException("duplicate version"))
+                .when(documentVersionService).addVersion(anyLong(), eq("car_document-81-pn-pk-apk-2.txt"), anyString(), any());
+        byte[] zip = zip("81-pn-pk/apk-1.txt", "81-pn-pk/apk-2.txt");
+
+        String jobId = ((IngestionJobStatus) ingestionService.ingestZip(new ByteArrayInputStream(zip)).getResult()).getId();
+
+        IngestionJobStatus status = awaitFinished(jobId);
+        assertEquals(1, status.getStored());
+        assertEquals(1, status.getFailed());
+        assertTrue(status.getFailures().get(0).startsWith("81-pn-pk/apk-2.txt"));
+        assertEquals(3, transactions.get());
+    }
+
+    @Test
+    void fullQueueRefusesNewJobsTest() throws Exception {
+        ingestionService.destroy();
+        ingestionService = createService(1, 1);
+        CountDownLatch staging = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DocumentStore.StagedDocument stagedDocument = new DocumentStore.StagedDocument("hash", 1, 1, DocumentEncoding.IDENTITY, null);
+        when(documentStore.stage(any(InputStream.class), any())).then(invocation -> {
+            staging.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return stagedDocument;
+        });
+
+        ResponseDto first = ingestionService.ingestZip(new ByteArrayInputStream(zip("81-pn-pk/apk-1.txt")));
+        assertTrue(staging.await(5, TimeUnit.SECONDS));
+        ResponseDto refused = ingestionService.ingestZip(new ByteArrayInputStream(zip("81-pn-pk/apk-2.txt")));
+        release.countDown();
+
+        assertEquals(202, first.getStatusCode());
+        assertEquals(429, refused.getStatusCode());
+        awaitFinished(((IngestionJobStatus) first.getResult()).getId());
+        assertEquals(413, ingestionService.ingestZip(new ByteArrayInputStream(zip("81-pn-pk/apk-1.txt", "81-pn-pk/apk-2.txt"))).getStatusCode());
+        assertEquals(202, ingestionService.ingestZip(new ByteArrayInputStream(zip("81-pn-pk/apk-2.txt"))).getStatusCode());
+    }
+
+    @Test
+    void oversizedRequestIsRefusedWithoutKeepingItsDocumentsTest() throws Exception {
+        ingestionService.destroy();
+        ingestionService = createService(1, 4, DataSize.ofBytes(64));
+        byte[] zip = zip("81-pn-pk/apk-01.txt", "81-pn-pk/apk-02.txt", "81-pn-pk/apk-03.txt", "81-pn-pk/apk-04.txt");
+
+        assertEquals(413, ingestionService.ingestZip(new ByteArrayInputStream(zip)).getStatusCode());
+        assertEquals(0, countSpooledFiles());
+
+        ResponseDto accepted = ingestionService.ingestZip(new ByteArrayInputStream(zip("81-pn-pk/apk-1.txt", "81-pn-pk/apk-2.txt", "81-pn-pk/apk-3.txt")));
+        assertEquals(202, accepted.getStatusCode());
+        assertEquals(3, awaitFinished(((IngestionJobStatus) accepted.getResult()).getId()).getStored());
+    }
+
+    private DocumentIngestionServiceImpl createService(int workers, int queueCapacity) throws IOException {
+        return createService(workers, queueCapacity, DataSize.ofMegabytes(10));
+    }
+
+    private DocumentIngestionServiceImpl createService(int workers, int queueCapacity, DataSize maxRequestSize) throws IOException {
+        DocumentIngestionServiceImpl service = new DocumentIngestionServiceImpl(licensePlateIndex, documentStore, documentVersionService,
+                mock(DocumentMetrics.class), transactionTemplate, new BufferPool(1), spoolRoot.toString(), DataSize.ofMegabytes(1),
+                maxRequestSize, workers, queueCapacity, 2, Duration.ofHours(1));
+        service.afterPropertiesSet();
+        return service;
+    }
+
+    private IngestionJobStatus awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            IngestionJobStatus status = (IngestionJobStatus) ingestionService.getJob(jobId).getResult();
+            if (status.isFinished()) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Ingestion job " + jobId + " did not finish");
+    }
+
+    private static byte[] zip(String... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry));
+                zip.write(entry.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private long countSpooledFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(spoolRoot)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
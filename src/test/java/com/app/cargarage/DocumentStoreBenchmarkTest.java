@@ -0,0 +1,191 @@
+package com.app.cargarage;
+
+import com.app.cargarage.service.BufferPool;
+import com.app.cargarage.service.DocumentStore;
+import com.app.cargarage.service.FileSystemDocumentStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Upload and download throughput of the document store on a corpus shaped like what the garage receives: inspection
+ * reports as XML, exported work orders as NDJSON, scanned papers as PDF and photos as JPEG. Compares storing
+ * everything as it is with the compression tier. Runs with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class DocumentStoreBenchmarkTest {
+    private static final int COPIES = 10;
+    private static final int ROUNDS = 3;
+    private static final String IDENTITY_TYPE = "image/jpeg";
+    private static final String[] PARTS = {"Brake pads", "Oil filter", "Timing belt", "Spark plug", "Wiper blade", "Air filter"};
+
+    @TempDir
+    Path root;
+
+    @Test
+    void documentStoreThroughputBenchmark() throws IOException {
+        List<Document> corpus = corpus();
+        long corpusBytes = 0;
+        for (Document document : corpus) {
+            corpusBytes += document.content.length;
+        }
+
+        BufferPool bufferPool = new BufferPool(1);
+        DocumentStore plainStore = new FileSystemDocumentStore(root.resolve("plain").toString(), bufferPool);
+        DocumentStore compressedStore = new FileSystemDocumentStore(root.resolve("compressed").toString(), bufferPool);
+        long plainUpload = 0;
+        long compressedUpload = 0;
+        long storedBytes = 0;
+        List<String> hashes = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            // every round stores distinct content, so nothing is skipped as a duplicate
+            byte[] salt = ("round " + round + " ").getBytes(StandardCharsets.UTF_8);
+            long start = System.nanoTime();
+            for (Document document : corpus) {
+                plainStore.store(salted(salt, document.content), IDENTITY_TYPE);
+            }
+            plainUpload += System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Document document : corpus) {
+                DocumentStore.StoredDocument stored = compressedStore.store(salted(salt, document.content), document.contentType);
+                hashes.add(stored.getContentHash());
+            }
+            compressedUpload += System.nanoTime() - start;
+        }
+        for (String hash : hashes) {
+            storedBytes += compressedStore.loadStored(hash).contentLength();
+        }
+
+        long decodedBytes = 0;
+        long start = System.nanoTime();
+        for (String hash : hashes) {
+            decodedBytes += drain(compressedStore.load(hash));
+        }
+        long decodedDownload = System.nanoTime() - start;
+        long passedThroughBytes = 0;
+        start = System.nanoTime();
+        for (String hash : hashes) {
+            passedThroughBytes += drain(compressedStore.loadStored(hash));
+        }
+        long passThroughDownload = System.nanoTime() - start;
+
+        long totalBytes = corpusBytes * ROUNDS + salt(ROUNDS) * corpus.size();
+        assertEquals(totalBytes, decodedBytes);
+        System.out.printf("corpus: %d documents, %.1f MB stored as %.1f MB (%.1fx)%n", hashes.size(), mb(totalBytes),
+                mb(storedBytes), (double) totalBytes / storedBytes);
+        System.out.printf("upload as is: %.1f MB/s, compressed: %.1f MB/s%n", mbPerSecond(totalBytes, plainUpload),
+                mbPerSecond(totalBytes, compressedUpload));
+        System.out.printf("download decoded: %.1f MB/s of content, passed through: %.1f MB/s of content (%.1f MB sent)%n",
+                mbPerSecond(decodedBytes, decodedDownload), mbPerSecond(totalBytes, passThroughDownload), mb(passedThroughBytes));
+    }
+
+    private static List<Document> corpus() {
+        Random random = new Random(7);
+        List<Document> corpus = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            corpus.add(new Document("application/xml", inspectionReport(random, 2_000)));
+            corpus.add(new Document("application/x-ndjson", workOrders(random, 5_000)));
+            corpus.add(new Document("application/pdf", scan(random, 600 * 1024)));
+            corpus.add(new Document("image/jpeg", noise(random, 1024 * 1024)));
+        }
+        return corpus;
+    }
+
+    private static byte[] inspectionReport(Random random, int items) {
+        StringBuilder report = new StringBuilder("<?xml version=\"1.0\"?><inspection>");
+        for (int i = 0; i < items; i++) {
+            report.append("<item id=\"").append(i).append("\"><part>").append(PARTS[random.nextInt(PARTS.length)])
+                    .append("</part><wear>").append(random.nextInt(100)).append("</wear><result>")
+                    .append(random.nextBoolean() ? "approved" : "replace").append("</result></item>");
+        }
+        return report.append("</inspection>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] workOrders(Random random, int lines) {
+        StringBuilder orders = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            orders.append("{\"id\":").append(i).append(",\"licensePlate\":\"").append((char) ('A' + random.nextInt(26)))
+                    .append((char) ('A' + random.nextInt(26))).append('-').append(random.nextInt(1000))
+                    .append("\",\"repairStatus\":\"").append(random.nextBoolean() ? "repaired" : "pending")
+                    .append("\",\"part\":\"").append(PARTS[random.nextInt(PARTS.length)])
+                    .append("\",\"price\":").append(random.nextInt(50_000) / 100.0).append("}\n");
+        }
+        return orders.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A scan is mostly page markup with an embedded, already compressed image per page.
+     */
+    private static byte[] scan(Random random, int length) {
+        byte[] scan = new byte[length];
+        byte[] markup = "BT /F1 12 Tf 72 712 Td (Kentekenbewijs deel 1A) Tj ET q 595 0 0 842 0 0 cm /Im1 Do Q\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < length; i++) {
+            scan[i] = i % 4096 < 2048 ? markup[i % markup.length] : (byte) random.nextInt();
+        }
+        return scan;
+    }
+
+    private static byte[] noise(Random random, int length) {
+        byte[] noise = new byte[length];
+        random.nextBytes(noise);
+        return noise;
+    }
+
+    private static InputStream salted(byte[] salt, byte[] content) {
+        byte[] salted = new byte[salt.length + content.length];
+        System.arraycopy(salt, 0, salted, 0, salt.length);
+        System.arraycopy(content, 0, salted, salt.length, content.length);
+        return new ByteArrayInputStream(salted);
+    }
+
+    private static long salt(int rounds) {
+        long length = 0;
+        for (int round = 0; round < rounds; round++) {
+            length += ("round " + round + " ").length();
+        }
+        return length;
+    }
+
+    private static long drain(Resource resource) throws IOException {
+        long length = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = resource.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                length += read;
+            }
+        }
+        return length;
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static double mbPerSecond(long bytes, long nanos) {
+        return mb(bytes) / (nanos / 1_000_000_000.0);
+    }
+
+    private static class Document {
+        private final String contentType;
+        private final byte[] content;
+
+        Document(String contentType, byte[] content) {
+            this.contentType = contentType;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.dto.UploadSessionStatus;
+import com.app.cargarage.model.CarDocument;
+import com.app.cargarage.service.BufferPool;
+import com.app.cargarage.service.CarService;
+import com.app.cargarage.service.DocumentUploadServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DocumentUploadServiceTest {
+    private static final String CONTENT = "APK keuringsrapport 81-PN-PK: remmen goedgekeurd";
+
+    @TempDir
+    Path sessionRoot;
+
+    private CarService carService;
+    private DocumentUploadServiceImpl uploadService;
+
+    @BeforeEach
+    void createService() throws IOException {
+        carService = mock(CarService.class);
+        uploadService = newService(Duration.ofHours(1), 10, DataSize.ofMegabytes(10));
+    }
+
+    @Test
+    void chunksArriveOutOfOrderAndTwiceTest() throws IOException {
+        String sessionId = createSession(CONTENT.length());
+
+        writeChunk(sessionId, 20, CONTENT.substring(20, 30));
+        writeChunk(sessionId, 0, CONTENT.substring(0, 10));
+        UploadSessionStatus status = (UploadSessionStatus) writeChunk(sessionId, 0, CONTENT.substring(0, 10)).getResult();
+
+        assertEquals(20, status.getReceivedBytes());
+        assertEquals(2, status.getMissing().size());
+        assertArrayEquals(new long[]{10, 20}, status.getMissing().get(0));
+        assertArrayEquals(new long[]{30, CONTENT.length()}, status.getMissing().get(1));
+        assertEquals(409, uploadService.finalizeSession(sessionId).getStatusCode());
+
+        writeChunk(sessionId, 10, CONTENT.substring(10, 20));
+        status = (UploadSessionStatus) writeChunk(sessionId, 30, CONTENT.substring(30)).getResult();
+        assertEquals(CONTENT.length(), status.getReceivedBytes());
+        assertTrue(status.getMissing().isEmpty());
+
+        AtomicReference<String> finalized = new AtomicReference<>();
+        when(carService.uploadDocumentStream(eq("81-pn-pk"), eq("apk.txt"), eq("text/plain"), eq((long) CONTENT.length()), any(InputStream.class)))
+                .then(invocation -> {
+                    finalized.set(StreamUtils.copyToString(invocation.<InputStream>getArgument(4), StandardCharsets.UTF_8));
+                    return ResponseDto.builder().result(new CarDocument()).statusCode(200).build();
+                });
+
+        assertEquals(200, uploadService.finalizeSession(sessionId).getStatusCode());
+        assertEquals(CONTENT, finalized.get());
+        assertEquals(404, uploadService.getSession(sessionId).getStatusCode());
+        assertEquals(0, countPartFiles());
+    }
+
+    @Test
+    void droppedChunkKeepsWhatArrivedTest() throws IOException {
+        String sessionId = createSession(CONTENT.length());
+        InputStream dropped = new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8), 0, 25) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                int read = super.read(buffer, offset, length);
+                if (read == -1) {
+                    throw new IllegalStateException("connection reset");
+                }
+                return read;
+            }
+        };
+
+        assertEquals(500, uploadService.writeChunk(sessionId, 0, CONTENT.length(), dropped).getStatusCode());
+        UploadSessionStatus status = (UploadSessionStatus) uploadService.getSession(sessionId).getResult();
+        assertEquals(25, status.getReceivedBytes());
+        assertArrayEquals(new long[]{25, CONTENT.length()}, status.getMissing().get(0));
+    }
+
+    @Test
+    void chunksOutsideTheDocumentAreRefusedTest() {
+        String sessionId = createSession(10);
+
+        assertEquals(416, writeChunk(sessionId, 5, "0123456789").getStatusCode());
+        assertEquals(416, uploadService.writeChunk(sessionId, 5, -1, new ByteArrayInputStream(new byte[6])).getStatusCode());
+        assertEquals(413, uploadService.createSession("81-pn-pk", "apk.txt", "text/plain", DataSize.ofMegabytes(2).toBytes()).getStatusCode());
+    }
+
+    @Test
+    void abandonedSessionsExpireTest() throws IOException {
+        DocumentUploadServiceImpl expiringService = newService(Duration.ZERO, 10, DataSize.ofMegabytes(10));
+        String sessionId = ((UploadSessionStatus) expiringService.createSession("81-pn-pk", "apk.txt", "text/plain", 10).getResult()).getId();
+
+        assertEquals(1, expiringService.expireSessions());
+        assertEquals(404, expiringService.getSession(sessionId).getStatusCode());
+        assertEquals(0, countPartFiles());
+        verify(carService, never()).uploadDocumentStream(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void sessionsSurviveARestartTest() throws IOException {
+        String sessionId = createSession(CONTENT.length());
+        writeChunk(sessionId, 0, CONTENT.substring(0, 20));
+        Files.write(sessionRoot.resolve("stray.part"), new byte[]{1});
+
+        uploadService = newService(Duration.ofHours(1), 10, DataSize.ofMegabytes(10));
+        UploadSessionStatus status = (UploadSessionStatus) uploadService.getSession(sessionId).getResult();
+
+        assertEquals(20, status.getReceivedBytes());
+        assertEquals("apk.txt", status.getFileName());
+        assertFalse(Files.exists(sessionRoot.resolve("stray.part")));
+        writeChunk(sessionId, 20, CONTENT.substring(20));
+        AtomicReference<String> finalized = new AtomicReference<>();
+        when(carService.uploadDocumentStream(eq("81-pn-pk"), eq("apk.txt"), eq("text/plain"), eq((long) CONTENT.length()), any(InputStream.class)))
+                .then(invocation -> {
+                    finalized.set(StreamUtils.copyToString(invocation.<InputStream>getArgument(4), StandardCharsets.UTF_8));
+                    return ResponseDto.builder().result(new CarDocument()).statusCode(200).build();
+                });
+        assertEquals(200, uploadService.finalizeSession(sessionId).getStatusCode());
+        assertEquals(CONTENT, finalized.get());
+        assertEquals(0, countPartFiles());
+    }
+
+    @Test
+    void openSessionsAreBoundedTest() throws IOException {
+        uploadService = newService(Duration.ofHours(1), 2, DataSize.ofBytes(25));
+        String first = createSession(10);
+        createSession(10);
+
+        assertEquals(429, uploadService.createSession("81-pn-pk", "apk.txt", "text/plain", 1).getStatusCode());
+        uploadService.cancelSession(first);
+        assertEquals(429, uploadService.createSession("81-pn-pk", "apk.txt", "text/plain", 16).getStatusCode());
+        assertEquals(200, uploadService.createSession("81-pn-pk", "apk.txt", "text/plain", 15).getStatusCode());
+    }
+
+    private DocumentUploadServiceImpl newService(Duration sessionTtl, int maxSessions, DataSize maxSessionBytes) throws IOException {
+        DocumentUploadServiceImpl service = new DocumentUploadServiceImpl(carService, new BufferPool(1), new ObjectMapper(),
+                sessionRoot.toString(), DataSize.ofMegabytes(1), sessionTtl, maxSessions, maxSessionBytes);
+        service.afterPropertiesSet();
+        return service;
+    }
+
+    private String createSession(long length) {
+        ResponseDto response = uploadService.createSession("81-pn-pk", "apk.txt", "text/plain", length);
+        assertEquals(200, response.getStatusCode());
+        return ((UploadSessionStatus) response.getResult()).getId();
+    }
+
+    private ResponseDto writeChunk(String sessionId, long offset, String chunk) {
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        return uploadService.writeChunk(sessionId, offset, bytes.length, new ByteArrayInputStream(bytes));
+    }
+
+    private long countPartFiles() throws IOException {
+        try (Stream<Path> files = Files.list(sessionRoot)) {
+            return files.count();
+        }
+    }
+}
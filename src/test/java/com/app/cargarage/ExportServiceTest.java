@@ -0,0 +1,108 @@
+package com.app.cargarage;
+
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.model.Receipt;
+import com.app.cargarage.model.RepairStatus;
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.repository.CustomerRepository;
+import com.app.cargarage.repository.ReceiptRepository;
+import com.app.cargarage.service.ExportServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.transaction.Transactional;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@Transactional
+class ExportServiceTest {
+    @Autowired
+    ExportServiceImpl exportService;
+    @MockBean
+    CarRepository carRepository;
+    @MockBean
+    CustomerRepository customerRepository;
+    @MockBean
+    ReceiptRepository receiptRepository;
+
+    @Test
+    void exportCarsTest() throws IOException {
+        Customer customer = Customer.builder()
+                .id(1L)
+                .phoneNumber("0612066676")
+                .address("potvisstrat, Amsterdam")
+                .surname("Idris Delawar")
+                .build();
+
+        Car car = Car.builder()
+                .id(1)
+                .customer(customer)
+                .licensePlate("81-pn-pk")
+                .repairStatus(RepairStatus.PENDING)
+                .build();
+
+        Car secondCar = Car.builder()
+                .id(2)
+                .licensePlate("12-ab-cd")
+                .repairStatus(RepairStatus.REPAIRED)
+                .build();
+
+        when(carRepository.streamAllWithCustomer()).thenReturn(Stream.of(car, secondCar));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(2, exportService.exportCars(outputStream));
+        assertEquals("{\"id\":1,\"licensePlate\":\"81-pn-pk\",\"repairStatus\":\"pending\",\"customerId\":1}\n"
+                        + "{\"id\":2,\"licensePlate\":\"12-ab-cd\",\"repairStatus\":\"repaired\",\"customerId\":null}\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportCustomersTest() throws IOException {
+        Customer customer = Customer.builder()
+                .id(1L)
+                .phoneNumber("0612066676")
+                .address("potvisstrat, Amsterdam")
+                .surname("Idris Delawar")
+                .build();
+
+        when(customerRepository.streamAll()).thenReturn(Stream.of(customer));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(1, exportService.exportCustomers(outputStream));
+        assertEquals("{\"id\":1,\"surname\":\"Idris Delawar\",\"phoneNumber\":\"0612066676\",\"address\":\"potvisstrat, Amsterdam\"}\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportReceiptsTest() throws IOException {
+        Receipt receipt = Receipt.builder()
+                .id(1)
+                .carLicensePlate("81-pn-pk")
+                .inspectionAmount(45)
+                .status("pending")
+                .repairOperationsAmount(200)
+                .partsAmount(300)
+                .totalAmountOfRepairing(659.45)
+                .build();
+
+        when(receiptRepository.streamAll()).thenReturn(Stream.of(receipt));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(1, exportService.exportReceipts(outputStream));
+        assertEquals("{\"id\":1,\"status\":\"pending\",\"carLicensePlate\":\"81-pn-pk\",\"repairOperationsAmount\":200.0,"
+                        + "\"inspectionAmount\":45.0,\"partsAmount\":300.0,\"totalAmountOfRepairing\":659.45}\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
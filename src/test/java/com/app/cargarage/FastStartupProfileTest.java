@@ -0,0 +1,86 @@
+package com.app.cargarage;
+
+import com.app.cargarage.config.IdGeneratorMigration;
+import com.app.cargarage.config.LegacyDocumentMigration;
+import com.app.cargarage.config.RepairStatusMigration;
+import com.app.cargarage.config.SwaggerConfig;
+import com.app.cargarage.model.User;
+import com.app.cargarage.repository.UserRepository;
+import com.app.cargarage.service.UserServiceImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The profile only validates the schema, so the schema is first brought up to date by a start without the profile,
+ * the way a deploy does it, before the profiled context boots against it.
+ */
+@SpringBootTest(properties = "documents.store-path=target/test-documents")
+@ActiveProfiles("fast-startup")
+class FastStartupProfileTest {
+    @BeforeAll
+    static void migrateSchema() {
+        new SpringApplicationBuilder(CarGarageApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("documents.store-path=target/test-documents", "spring.jpa.hibernate.ddl-auto=update")
+                .run()
+                .close();
+    }
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void schemaIsValidatedInsteadOfUpdatedTest() {
+        assertEquals("validate", applicationContext.getEnvironment().getProperty("spring.jpa.hibernate.ddl-auto"));
+    }
+
+    @Test
+    void rarelyUsedBeansAndDocsScanWaitUntilNeededTest() {
+        assertTrue(applicationContext.getBeanNamesForType(SwaggerConfig.class).length == 0);
+        assertFalse(applicationContext.getBeanFactory().containsSingleton("exportController"));
+        assertFalse(applicationContext.getBeanFactory().containsSingleton("exportServiceImpl"));
+
+        assertNotNull(applicationContext.getBean("exportController"));
+        assertTrue(applicationContext.getBeanFactory().containsSingleton("exportServiceImpl"));
+    }
+
+    @Test
+    void startupMigrationsAreLeftToTheDeployTest() {
+        assertEquals(0, applicationContext.getBeanNamesForType(IdGeneratorMigration.class).length);
+        assertEquals(0, applicationContext.getBeanNamesForType(RepairStatusMigration.class).length);
+        assertEquals(0, applicationContext.getBeanNamesForType(LegacyDocumentMigration.class).length);
+    }
+
+    @Test
+    void onlyMissingUsersAreEncodedTest() {
+        AtomicInteger encoded = new AtomicInteger();
+        userService.insertMissingUsers(Arrays.asList(
+                User.builder().fullName("Idris Delawar").username("admin").password("admin").role("ROLE_ADMIN").build(),
+                User.builder().fullName("Seed Test").username("seedtest").password("seedtest").role("ROLE_CASHIER").build()),
+                password -> {
+                    encoded.incrementAndGet();
+                    return "{encoded}" + password;
+                });
+
+        assertEquals(1, encoded.get());
+        assertEquals("{encoded}seedtest", userRepository.getUserByUsername("seedtest").getPassword());
+        userRepository.delete(userRepository.getUserByUsername("seedtest"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.app.cargarage;
+
+import com.app.cargarage.service.BufferPool;
+import com.app.cargarage.service.DocumentEncoding;
+import com.app.cargarage.service.DocumentStore;
+import com.app.cargarage.service.FileSystemDocumentStore;
+import com.app.cargarage.service.SizeLimitedInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemDocumentStoreTest {
+    private static final String HELLO_SHA_256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    private final BufferPool bufferPool = new BufferPool(2);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storeIsContentAddressedTest() throws IOException {
+        DocumentStore documentStore = new FileSystemDocumentStore(root.toString(), bufferPool);
+
+        DocumentStore.StoredDocument first = documentStore.store(content("hello"), "text/plain");
+        DocumentStore.StoredDocument second = documentStore.store(content("hello"), "text/plain");
+
+        assertEquals(HELLO_SHA_256, first.getContentHash());
+        assertEquals(5, first.getContentLength());
+        assertEquals(first, second);
+        assertTrue(Files.isRegularFile(root.resolve("2c").resolve("f2").resolve(HELLO_SHA_256)));
+        try (Stream<Path> uploads = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, uploads.count());
+        }
+    }
+
+    @Test
+    void loadStreamsStoredContentTest() throws IOException {
+        DocumentStore documentStore = new FileSystemDocumentStore(root.toString(), bufferPool);
+        String contentHash = documentStore.store(content("hello"), "text/plain").getContentHash();
+
+        try (InputStream stored = documentStore.load(contentHash).getInputStream()) {
+            assertEquals("hello", StreamUtils.copyToString(stored, StandardCharsets.UTF_8));
+        }
+        documentStore.delete(contentHash);
+        assertFalse(documentStore.exists(contentHash));
+    }
+
+    @Test
+    void compressibleContentIsKeptGzippedTest() throws IOException {
+        DocumentStore documentStore = new FileSystemDocumentStore(root.toString(), bufferPool);
+        String report = report(200);
+
+        DocumentStore.StoredDocument stored = documentStore.store(content(report), "application/xml");
+
+        assertEquals(DocumentEncoding.GZIP, documentStore.storedEncoding(stored.getContentHash()));
+        assertTrue(documentStore.loadStored(stored.getContentHash()).contentLength() * 3 < report.length());
+        Resource loaded = documentStore.load(stored.getContentHash());
+        assertEquals(report.length(), loaded.contentLength());
+        try (InputStream in = loaded.getInputStream()) {
+            assertEquals(report, StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void compressedFormatsAreKeptAsTheyAreTest() throws IOException {
+        DocumentStore documentStore = new FileSystemDocumentStore(root.toString(), bufferPool);
+
+        String photo = documentStore.store(content(report(50)), "image/jpeg").getContentHash();
+        String random = documentStore.store(new ByteArrayInputStream(randomBytes(64 * 1024)), "application/pdf").getContentHash();
+
+        assertEquals(DocumentEncoding.IDENTITY, documentStore.storedEncoding(photo));
+        assertEquals(DocumentEncoding.IDENTITY, documentStore.storedEncoding(random));
+        assertEquals(64 * 1024, documentStore.load(random).contentLength());
+    }
+
+    @Test
+    void oversizedUploadFailsWhileStreamingTest() throws IOException {
+        DocumentStore documentStore = new FileSystemDocumentStore(root.toString(), bufferPool);
+        InputStream upload = new SizeLimitedInputStream(new ByteArrayInputStream(randomBytes(300 * 1024)), 256 * 1024);
+
+        assertThrows(SizeLimitedInputStream.LimitExceededException.class, () -> documentStore.stage(upload, "application/pdf"));
+        try (Stream<Path> uploads = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, uploads.count());
+        }
+        assertEquals(2, bufferPool.available());
+    }
+
+    @Test
+    void rejectsHashesOutsideTheStoreTest() {
+        DocumentStore documentStore = new FileSystemDocumentStore(root.toString(), bufferPool);
+        assertThrows(IllegalArgumentException.class, () -> documentStore.load("../../etc/passwd"));
+    }
+
+    private static String report(int lines) {
+        StringBuilder report = new StringBuilder("<inspection>");
+        for (int i = 0; i < lines; i++) {
+            report.append("<item id=\"").append(i).append("\"><name>Brake pads front axle</name><result>approved</result></item>");
+        }
+        return report.append("</inspection>").toString();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static InputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
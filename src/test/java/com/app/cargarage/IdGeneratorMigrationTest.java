@@ -0,0 +1,42 @@
+package com.app.cargarage;
+
+import com.app.cargarage.config.IdGeneratorMigration;
+import com.app.cargarage.model.Car;
+import com.app.cargarage.repository.CarRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class IdGeneratorMigrationTest {
+
+    @Autowired
+    IdGeneratorMigration idGeneratorMigration;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movesGeneratorPastLegacyIdsTest() {
+        long legacyId = Math.max(nextVal("cars"), jdbcTemplate.queryForObject("select coalesce(max(id), 0) from cars", Long.class)) + 10_000;
+        jdbcTemplate.update("insert into cars (id, license_plate) values (?, ?)", legacyId, "IDGEN-" + System.nanoTime());
+
+        idGeneratorMigration.afterPropertiesSet();
+        idGeneratorMigration.afterPropertiesSet();
+
+        assertEquals(legacyId + 1, nextVal("cars"));
+        for (int i = 0; i < 60; i++) {
+            Car car = carRepository.save(Car.builder().licensePlate("IDGEN-" + i + "-" + System.nanoTime()).build());
+            assertNotEquals(legacyId, car.getId());
+        }
+        assertTrue(nextVal("cars") > legacyId + 1);
+    }
+
+    private long nextVal(String table) {
+        return jdbcTemplate.queryForObject("select next_val from id_generators where sequence_name = ?", Long.class, table);
+    }
+}
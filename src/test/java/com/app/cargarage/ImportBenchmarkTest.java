@@ -0,0 +1,66 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.ImportReport;
+import com.app.cargarage.service.ImportFormat;
+import com.app.cargarage.service.ImportServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Imports a generated CSV of one million cars, spread over 100k customers, that is produced while it is read, so the
+ * test itself holds no more than a row in memory. Prints rows/s. Runs against the configured database with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=INFO"})
+class ImportBenchmarkTest {
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    ImportServiceImpl importService;
+
+    @Test
+    void importMillionCarsBenchmark() {
+        String run = Long.toString(System.nanoTime() % 1_000_000, 36).toUpperCase();
+
+        long start = System.nanoTime();
+        ImportReport report = (ImportReport) importService.importCars(new GeneratedCsv(run), ImportFormat.CSV).getResult();
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("import %d rows: %.1f s, %.0f rows/s%n", ROWS, nanos / 1e9, ROWS / (nanos / 1e9));
+        assertEquals(ROWS, report.getImported());
+        assertEquals(ROWS / 10, report.getCustomersCreated());
+    }
+
+    private static class GeneratedCsv extends InputStream {
+        private final String run;
+        private byte[] line = "licensePlate,surname,phoneNumber,address\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private int row;
+
+        GeneratedCsv(String run) {
+            this.run = run;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (row == ROWS) {
+                    return -1;
+                }
+                line = ("B" + run + "-" + row + ",Fleet " + row / 10 + ",+3199" + (1_000_000 + row / 10) + ",Industrieweg " + row / 10 + "\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+                row++;
+            }
+            return line[position++];
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.ImportReport;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.service.CarService;
+import com.app.cargarage.service.ImportFormat;
+import com.app.cargarage.service.ImportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"import.chunk-size=3", "import.max-reported-errors=2"})
+class ImportServiceTest {
+
+    @Autowired
+    ImportServiceImpl importService;
+    @Autowired
+    CarService carService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private String phone;
+
+    @BeforeEach
+    void uniqueKeys() {
+        int random = ThreadLocalRandom.current().nextInt(100_000, 1_000_000);
+        prefix = "I" + Integer.toString(random, 36).toUpperCase();
+        phone = "06" + random + "00";
+    }
+
+    @Test
+    void csvIsNormalizedAndDeduplicatedTest() {
+        carService.addCar(Car.builder().licensePlate(prefix + "-01")
+                .customer(Customer.builder().surname("Existing").phoneNumber("+31" + phone.substring(1)).build()).build());
+        String csv = "licensePlate,surname,phoneNumber,address,color\n"
+                + " " + prefix.toLowerCase() + " 02 ,Jansen," + phone.substring(0, 2) + "-" + phone.substring(2) + ",Dorpsstraat 1,red\n"
+                + prefix + "-01,Jansen," + phone + ",,blue\n"
+                + prefix + "_03,Jansen,( " + phone + " ),,\n"
+                + prefix + ".02,,,,\n"
+                + "not a plate!,Jansen," + phone + ",,\n"
+                + prefix + "-04,,,,\n"
+                + prefix + "-05,De Vries,0031" + phone.substring(1) + ",,\n"
+                + prefix + "-06,De Vries,,,\n";
+
+        ImportReport report = importCsv(csv);
+
+        assertEquals(8, report.getRows());
+        assertEquals(4, report.getImported());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(1, report.getCustomersCreated());
+        assertEquals(2, report.getFailed());
+        assertEquals(5, report.getErrors().get(0).getRow());
+        assertEquals(8, report.getErrors().get(1).getRow());
+        assertFalse(report.isAborted());
+
+        assertEquals(1, count("select count(*) from cars where license_plate = ?", prefix + "-02"));
+        assertEquals(2, count("select count(*) from cars c join customers cu on cu.id = c.customer_id where cu.phone_number = ?", phone));
+        assertEquals(2, count("select count(*) from cars c join customers cu on cu.id = c.customer_id where cu.phone_number = ?", "+31" + phone.substring(1)));
+        assertEquals(1, count("select count(*) from cars where license_plate = ? and customer_id is null", prefix + "-04"));
+    }
+
+    @Test
+    void unreadableNdjsonRowsAreReportedTest() {
+        String ndjson = "{\"licensePlate\":\"" + prefix + "-11\",\"surname\":\"Bakker\",\"phoneNumber\":\"" + phone + "\"}\n"
+                + "\n"
+                + "{\"licensePlate\": \n"
+                + "null\n"
+                + "{\"licensePlate\":\"" + prefix + "-12\",\"phoneNumber\":\"" + phone + "\"}\n"
+                + "{\"licensePlate\":\"" + prefix + "-13\"}\n"
+                + "{\"licensePlate\":\"" + prefix + "-14\"}\n";
+
+        ResponseDto response = importService.importCars(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+        ImportReport report = (ImportReport) response.getResult();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(6, report.getRows());
+        assertEquals(4, report.getImported());
+        assertEquals(1, report.getCustomersCreated());
+        assertEquals(2, report.getFailed());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        assertEquals(3, report.getErrors().get(1).getRow());
+    }
+
+    @Test
+    void normalizesLicensePlatesAndPhoneNumbersTest() {
+        assertEquals("81-PN-PK", ImportServiceImpl.normalizeLicensePlate(" 81 pn_pk "));
+        assertEquals("81PNPK", ImportServiceImpl.normalizeLicensePlate("81pnpk"));
+        assertNull(ImportServiceImpl.normalizeLicensePlate("81--PN"));
+        assertNull(ImportServiceImpl.normalizeLicensePlate("X"));
+        assertEquals("0612066676", ImportServiceImpl.normalizePhoneNumber("06-12 06 66 76"));
+        assertEquals("+31612066676", ImportServiceImpl.normalizePhoneNumber("0031 (6) 12066676"));
+        assertNull(ImportServiceImpl.normalizePhoneNumber("call me"));
+    }
+
+    @Test
+    void platesAreDeduplicatedAcrossSpellingsTest() {
+        carService.addCar(Car.builder().licensePlate(prefix + "-21")
+                .customer(Customer.builder().surname("Existing").phoneNumber(phone).build()).build());
+        String csv = "licensePlate\n"
+                + prefix + "21\n"
+                + prefix + "-22\n"
+                + prefix.toLowerCase() + "22\n";
+
+        ImportReport report = importCsv(csv);
+
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(0, count("select count(*) from cars where license_plate = ?", prefix + "21"));
+        assertEquals(1, count("select count(*) from cars where license_plate = ?", prefix + "-22"));
+    }
+
+    private ImportReport importCsv(String csv) {
+        ResponseDto response = importService.importCars(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+        assertEquals(200, response.getStatusCode(), response.getMessage());
+        return (ImportReport) response.getResult();
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
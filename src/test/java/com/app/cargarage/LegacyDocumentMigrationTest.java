@@ -0,0 +1,102 @@
+package com.app.cargarage;
+
+import com.app.cargarage.config.LegacyDocumentColumnDrop;
+import com.app.cargarage.config.LegacyDocumentMigration;
+import com.app.cargarage.service.DocumentStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "documents.store-path=target/test-documents")
+class LegacyDocumentMigrationTest {
+
+    @Autowired
+    LegacyDocumentMigration legacyDocumentMigration;
+    @Autowired
+    DocumentStore documentStore;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    ObjectProvider<LegacyDocumentMigration> migrationProvider;
+
+    @Test
+    void movesLegacyBlobsAndDropsTheColumnOnlyWhenAskedTest() throws IOException {
+        String licensePlate = "LEGACY-" + System.nanoTime();
+        jdbcTemplate.execute("alter table car_document add column document blob");
+        jdbcTemplate.update("insert into cars (id, license_plate) select coalesce(max(id), 0) + 1000000, ? from cars", licensePlate);
+        Long carId = jdbcTemplate.queryForObject("select id from cars where license_plate = ?", Long.class, licensePlate);
+        jdbcTemplate.update("insert into car_document (id, car_id, document_name, document_type, version, content_length, document)"
+                        + " select coalesce(max(id), 0) + 1000000, ?, ?, ?, 0, 0, ? from car_document",
+                carId, "car_document-" + licensePlate + "-apk.txt", "text/plain", licensePlate.getBytes(StandardCharsets.UTF_8));
+
+        legacyDocumentMigration.afterPropertiesSet();
+        legacyDocumentMigration.afterPropertiesSet();
+
+        String contentHash = jdbcTemplate.queryForObject("select content_hash from car_document where car_id = ?", String.class, carId);
+        assertEquals(1, jdbcTemplate.queryForObject("select version from car_document where car_id = ?", Integer.class, carId));
+        assertEquals(1, jdbcTemplate.queryForObject("select ref_count from document_blobs where content_hash = ?", Integer.class, contentHash));
+        try (InputStream content = documentStore.load(contentHash).getInputStream()) {
+            assertEquals(licensePlate, StreamUtils.copyToString(content, StandardCharsets.UTF_8));
+        }
+        assertEquals(1, legacyColumns(), "booting never drops the column");
+
+        jdbcTemplate.update("update car_document set document = ? where car_id = ?", new byte[]{1}, carId);
+        assertThrows(IllegalStateException.class, () -> new LegacyDocumentColumnDrop(jdbcTemplate, migrationProvider).afterPropertiesSet());
+        assertEquals(1, legacyColumns());
+
+        jdbcTemplate.update("update car_document set document = null where car_id = ?", carId);
+        new LegacyDocumentColumnDrop(jdbcTemplate, migrationProvider).afterPropertiesSet();
+        new LegacyDocumentColumnDrop(jdbcTemplate, migrationProvider).afterPropertiesSet();
+        assertEquals(0, legacyColumns());
+    }
+
+    @Test
+    void documentsWithoutACarGiveUpTheirContentTest() {
+        String licensePlate = "ORPHAN-" + System.nanoTime();
+        String sharedHash = randomHash();
+        String orphanedHash = randomHash();
+        jdbcTemplate.execute("alter table cars add column car_document_id bigint");
+        try {
+            jdbcTemplate.update("insert into cars (id, license_plate) select coalesce(max(id), 0) + 1000000, ? from cars", licensePlate);
+            Long carId = jdbcTemplate.queryForObject("select id from cars where license_plate = ?", Long.class, licensePlate);
+            insertDocument(carId, sharedHash);
+            insertDocument(null, sharedHash);
+            insertDocument(null, orphanedHash);
+            jdbcTemplate.update("insert into document_blobs (content_hash, content_length, ref_count, created_at) values (?, 1, 2, current_timestamp)", sharedHash);
+
+            legacyDocumentMigration.afterPropertiesSet();
+
+            assertEquals(1, jdbcTemplate.queryForObject("select count(*) from car_document where content_hash in (?, ?)", Integer.class, sharedHash, orphanedHash));
+            assertEquals(1, jdbcTemplate.queryForObject("select ref_count from document_blobs where content_hash = ?", Integer.class, sharedHash));
+            assertEquals(0, jdbcTemplate.queryForObject("select ref_count from document_blobs where content_hash = ?", Integer.class, orphanedHash));
+        } finally {
+            jdbcTemplate.execute("alter table cars drop column car_document_id");
+        }
+    }
+
+    private void insertDocument(Long carId, String contentHash) {
+        jdbcTemplate.update("insert into car_document (id, car_id, document_name, document_type, version, content_length, content_hash)"
+                        + " select coalesce(max(id), 0) + 1000000, ?, ?, ?, 1, 1, ? from car_document",
+                carId, "car_document-" + contentHash + ".txt", "text/plain", contentHash);
+    }
+
+    private static String randomHash() {
+        return (UUID.randomUUID().toString() + UUID.randomUUID()).replace("-", "");
+    }
+
+    private int legacyColumns() {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns where lower(table_name) = 'car_document' and lower(column_name) = 'document'",
+                Integer.class);
+    }
+}
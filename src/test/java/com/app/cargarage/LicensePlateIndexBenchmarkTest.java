@@ -0,0 +1,50 @@
+package com.app.cargarage;
+
+import com.app.cargarage.service.PlateTable;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fills the plate table with ten million plates and checks that it stays within its memory budget, both by the
+ * table's own estimate and by the heap it actually retains. Needs a heap well above the budget, so it runs with
+ * {@code mvn test -Pbenchmark} only.
+ */
+@Tag("benchmark")
+class LicensePlateIndexBenchmarkTest {
+    private static final int PLATES = 10_000_000;
+    private static final long MEMORY_BUDGET = 500L * 1024 * 1024;
+
+    @Test
+    void tenMillionPlatesFitInMemoryBudgetBenchmark() {
+        long heapBefore = usedHeap();
+        PlateTable table = new PlateTable(PLATES);
+        for (int i = 0; i < PLATES; i++) {
+            table.put(plate(i), i + 1L);
+        }
+        table.snapshot();
+        long retainedHeap = usedHeap() - heapBefore;
+
+        assertEquals(PLATES, table.size());
+        assertEquals(4_242_425L, table.get(plate(4_242_424)));
+        assertEquals(10, table.startingWith("AB-12", 10).size());
+        System.out.printf("plate table with %d plates: estimated %d MB, retained %d MB%n", PLATES,
+                table.estimatedBytes() / (1024 * 1024), retainedHeap / (1024 * 1024));
+        assertTrue(table.estimatedBytes() < MEMORY_BUDGET, "index is estimated at " + table.estimatedBytes() / (1024 * 1024) + " MB");
+        assertTrue(retainedHeap < MEMORY_BUDGET, "index retains " + retainedHeap / (1024 * 1024) + " MB");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String plate(int i) {
+        return "" + (char) ('A' + i % 26) + (char) ('A' + i / 26 % 26) + "-" + (i / 676 % 1000) + "-" + (char) ('A' + i / 676_000 % 26);
+    }
+}
@@ -0,0 +1,98 @@
+package com.app.cargarage;
+
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.service.LicensePlateIndex;
+import com.app.cargarage.service.PlateTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LicensePlateIndexTest {
+
+    @Test
+    void lookupIgnoresFormattingTest() {
+        PlateTable table = new PlateTable(4);
+        table.put("81-pn-pk", 1);
+        table.put("AVERYLONGPERSONALISEDPLATE", 2);
+
+        assertEquals(1, table.get("81PNPK"));
+        assertEquals(1, table.get("81 pn pk"));
+        assertEquals(2, table.get("a-very-long-personalised-plate"));
+        assertEquals(PlateTable.MISSING, table.get("81-pn-pl"));
+    }
+
+    @Test
+    void samePlateForTwoCarsIsAmbiguousTest() {
+        PlateTable table = new PlateTable(4);
+        table.put("81-pn-pk", 1);
+        table.put("81PNPK", 2);
+
+        assertEquals(PlateTable.AMBIGUOUS, table.get("81-pn-pk"));
+    }
+
+    @Test
+    void removeAndResizeKeepProbeChainsIntactTest() {
+        PlateTable table = new PlateTable(16);
+        for (int i = 0; i < 1000; i++) {
+            table.put(plate(i), i + 1);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            table.remove(plate(i), i + 1);
+        }
+
+        assertEquals(500, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? PlateTable.MISSING : i + 1, table.get(plate(i)));
+        }
+    }
+
+    @Test
+    void autocompleteMergesSnapshotAndChangesTest() {
+        PlateTable table = new PlateTable(16);
+        table.put("AB-123-C", 1);
+        table.put("AB-124-C", 2);
+        table.put("XY-999-Z", 3);
+        table.snapshot();
+        table.remove("AB-124-C", 2);
+        table.put("AB-100-Z", 4);
+        table.put("AB1LONGERTHANTWELVE", 5);
+
+        assertEquals(Arrays.asList("AB100Z", "AB123C", "AB1LONGERTHANTWELVE"), table.startingWith("ab-1", 10));
+        assertEquals(Collections.singletonList("AB100Z"), table.startingWith("AB", 1));
+        assertEquals(Collections.emptyList(), table.startingWith("Q", 10));
+    }
+
+    @Test
+    void rebuildDropsCarsRemovedElsewhereTest() {
+        CarRepository carRepository = mock(CarRepository.class);
+        CarRepository.CarPlate plate = mock(CarRepository.CarPlate.class);
+        when(plate.getId()).thenReturn(1L);
+        when(plate.getLicensePlate()).thenReturn("81-pn-pk");
+        when(carRepository.count()).thenReturn(1L);
+        when(carRepository.streamPlates()).then(invocation -> Stream.of(plate));
+        when(carRepository.findIdByLicensePlate(anyString())).thenReturn(Optional.empty());
+        LicensePlateIndex index = new LicensePlateIndex(carRepository);
+        index.rebuild();
+        assertEquals(Optional.of(1L), index.resolve("81PNPK"));
+
+        when(carRepository.count()).thenReturn(0L);
+        when(carRepository.streamPlates()).then(invocation -> Stream.empty());
+        index.rebuild();
+
+        assertEquals(Optional.empty(), index.resolve("81PNPK"));
+        assertFalse(index.isRegistered("81PNPK"));
+    }
+
+    private static String plate(int i) {
+        return "" + (char) ('A' + i % 26) + (char) ('A' + i / 26 % 26) + "-" + (i / 676 % 1000) + "-" + (char) ('A' + i / 676_000 % 26);
+    }
+}
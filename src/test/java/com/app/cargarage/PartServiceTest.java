@@ -1,5 +1,7 @@
 package com.app.cargarage;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.model.Part;
 import com.app.cargarage.repository.PartRepository;
 import com.app.cargarage.service.PartServiceImpl;
@@ -8,6 +10,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.transaction.Transactional;
@@ -16,6 +20,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -51,8 +57,8 @@ public class PartServiceTest {
         List<Part> partsList = new ArrayList<>();
         partsList.add(part);
 
-        when(partRepository.findAll()).thenReturn(partsList);
-        assertEquals(partsList, partService.list().getResult());
+        when(partRepository.findPage(anyLong(), anyLong(), any(), any(Pageable.class))).thenReturn(new SliceImpl<>(partsList));
+        assertEquals(partsList, ((CursorPage<?>) partService.list(new PageQuery(), null).getResult()).getItems());
     }
 
     @Test
@@ -0,0 +1,81 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Part;
+import com.app.cargarage.model.RepairStatus;
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.repository.PartRepository;
+import com.app.cargarage.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Lets many mechanics install the last units of one part at the same moment against the configured database and
+ * checks that the stock is never oversold.
+ */
+@SpringBootTest
+class PartStockConcurrencyTest {
+    private static final int THREADS = 64;
+    private static final int STOCK = 10;
+
+    @Autowired
+    CarService carService;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    PartRepository partRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void installPartsInCarDoesNotOversellStock() throws Exception {
+        String licensePlate = "STOCK-" + System.nanoTime();
+        carRepository.save(Car.builder().licensePlate(licensePlate).repairStatus(RepairStatus.PENDING).build());
+        Part part = partRepository.save(Part.builder().name("Brake pad").price(40).stock(STOCK).build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseDto>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return carService.installPartsInCar(licensePlate, part.getId(), 1);
+                }));
+            }
+            start.countDown();
+
+            int installed = 0;
+            int conflicts = 0;
+            for (Future<ResponseDto> result : results) {
+                int statusCode = result.get(1, TimeUnit.MINUTES).getStatusCode();
+                if (statusCode == 200) {
+                    installed++;
+                } else if (statusCode == 409) {
+                    conflicts++;
+                }
+            }
+
+            assertEquals(STOCK, installed);
+            assertEquals(THREADS - STOCK, conflicts);
+            assertEquals(0, partRepository.findById(part.getId()).get().getStock());
+            assertEquals(STOCK, (int) transactionTemplate.execute(status ->
+                    carRepository.findCarByLicensePlate(licensePlate).get().getPartsList().size()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
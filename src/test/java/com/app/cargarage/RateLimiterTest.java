@@ -0,0 +1,108 @@
+package com.app.cargarage;
+
+import com.app.cargarage.config.RateLimitProperties;
+import com.app.cargarage.service.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "documents.store-path=target/test-documents",
+        "rate-limit.roles.cashier.lists.rate=0.01",
+        "rate-limit.roles.cashier.lists.burst=2"})
+@AutoConfigureMockMvc
+class RateLimiterTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void requestsBeyondTheBurstGet429WithRetryAfterTest() throws Exception {
+        String body = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"cashier\",\"password\":\"cashier\"}"))
+                .andReturn().getResponse().getContentAsString();
+        String bearer = "Bearer " + objectMapper.readTree(body).path("result").path("accessToken").asText();
+
+        mockMvc.perform(get("/receipts/list").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+        mockMvc.perform(get("/receipts/list").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+        mockMvc.perform(get("/receipts/list").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"));
+        mockMvc.perform(get("/vouchers/list").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+    }
+
+    @Test
+    void bucketsAreKeptPerUserAndGroupTest() {
+        RateLimiter rateLimiter = new RateLimiter(properties(), new SimpleMeterRegistry());
+        UsernamePasswordAuthenticationToken cashier = user("cashier", "ROLE_CASHIER");
+        UsernamePasswordAuthenticationToken other = user("other", "ROLE_CASHIER");
+
+        assertEquals(0, rateLimiter.tryAcquire(cashier, "/car/list", 0));
+        assertEquals(0, rateLimiter.tryAcquire(cashier, "/car/list", 0));
+        long wait = rateLimiter.tryAcquire(cashier, "/car/list", 0);
+        assertTrue(wait > 900_000_000L && wait <= 1_000_000_000L, "waits about one emission interval: " + wait);
+        assertEquals(0, rateLimiter.tryAcquire(cashier, "/parts/list", 0));
+        assertEquals(0, rateLimiter.tryAcquire(other, "/car/list", 0));
+        assertTrue(rateLimiter.tryAcquire(cashier, "/garage/car/list", "/garage".length()) > 0);
+    }
+
+    @Test
+    void mostGenerousRoleWinsAndUnlimitedRolesAreNotLimitedTest() {
+        RateLimiter rateLimiter = new RateLimiter(properties(), new SimpleMeterRegistry());
+        UsernamePasswordAuthenticationToken both = user("both", "ROLE_CASHIER", "ROLE_ADMINISTRATIVE");
+        UsernamePasswordAuthenticationToken admin = user("admin", "ROLE_ADMIN");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(both, "/car/list", 0));
+        }
+        assertTrue(rateLimiter.tryAcquire(both, "/car/list", 0) > 0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(admin, "/car/list", 0));
+        }
+    }
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getGroups().put("lists", Arrays.asList("/car/list", "/receipts/list"));
+        properties.getGroups().put("other", Collections.singletonList("/"));
+        properties.getRoles().put("cashier", limits("lists", 1, 2));
+        properties.getRoles().put("administrative", limits("lists", 1, 5));
+        return properties;
+    }
+
+    private static Map<String, RateLimitProperties.Limit> limits(String group, double rate, int burst) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRate(rate);
+        limit.setBurst(burst);
+        Map<String, RateLimitProperties.Limit> limits = new HashMap<>();
+        limits.put(group, limit);
+        return limits;
+    }
+
+    private static UsernamePasswordAuthenticationToken user(String username, String... roles) {
+        return new UsernamePasswordAuthenticationToken(username, null,
+                Arrays.stream(roles).map(SimpleGrantedAuthority::new).collect(Collectors.toList()));
+    }
+}
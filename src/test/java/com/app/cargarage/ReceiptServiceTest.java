@@ -1,6 +1,10 @@
 package com.app.cargarage;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
+import com.app.cargarage.dto.ResponseDto;
 import com.app.cargarage.model.*;
+import com.app.cargarage.model.RepairStatus;
 import com.app.cargarage.repository.CarRepository;
 import com.app.cargarage.repository.ReceiptRepository;
 import com.app.cargarage.service.ReceiptServiceImpl;
@@ -9,6 +13,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.transaction.Transactional;
@@ -18,6 +24,9 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -45,7 +54,7 @@ public class ReceiptServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         RepairOperations repairOperation = RepairOperations.builder()
@@ -63,8 +72,31 @@ public class ReceiptServiceTest {
                 .stock(10)
                 .build();
         car.setPartsList(Collections.singletonList(part));
-        when(carRepository.findCarByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car));
-        assertEquals(200, receiptService.generateReceipt("81-pn-pk").getStatusCode());
+        when(carRepository.findIdByLicensePlate("81PNPK")).thenReturn(Optional.of(car.getId()));
+        when(carRepository.findLicensePlateById(car.getId())).thenReturn(Optional.of(car.getLicensePlate()));
+        when(receiptRepository.sumAmountsForCar(car.getId())).thenReturn(new ReceiptRepository.ReceiptAmounts() {
+            @Override
+            public double getOperations() {
+                return repairOperation.getPrice();
+            }
+
+            @Override
+            public double getParts() {
+                return part.getPrice();
+            }
+        });
+        when(receiptRepository.saveAndFlush(any(Receipt.class))).then(invocation -> invocation.getArgument(0));
+
+        ResponseDto responseDto = receiptService.generateReceipt("81PNPK");
+        Receipt receipt = (Receipt) responseDto.getResult();
+        double total = part.getPrice() + 45.0 + repairOperation.getPrice();
+        assertEquals(200, responseDto.getStatusCode());
+        assertEquals("81-pn-pk", receipt.getCarLicensePlate());
+        assertEquals(5000, receipt.getRepairOperationsAmount());
+        assertEquals(500, receipt.getPartsAmount());
+        assertEquals(total + (0.21 * total), receipt.getTotalAmountOfRepairing());
+        verify(receiptRepository).copyRepairOperationLines(0L, car.getId());
+        verify(receiptRepository).copyPartLines(0L, car.getId());
     }
 
     @Test
@@ -80,7 +112,7 @@ public class ReceiptServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         RepairOperations repairOperation = RepairOperations.builder()
@@ -112,8 +144,8 @@ public class ReceiptServiceTest {
 
         List<Receipt> receiptsList = new ArrayList<>(Collections.singletonList(receipt));
 
-        when(receiptRepository.findAll()).thenReturn(receiptsList);
-        assertEquals(receiptsList, receiptService.listReceipts().getResult());
+        when(receiptRepository.findPage(anyLong(), anyLong(), any(), any(), any(Pageable.class))).thenReturn(new SliceImpl<>(receiptsList));
+        assertEquals(receiptsList, ((CursorPage<?>) receiptService.listReceipts(new PageQuery(), null, null).getResult()).getItems());
     }
 
     @Test
@@ -129,7 +161,7 @@ public class ReceiptServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         RepairOperations repairOperation = RepairOperations.builder()
@@ -178,7 +210,7 @@ public class ReceiptServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         RepairOperations repairOperation = RepairOperations.builder()
@@ -208,7 +240,6 @@ public class ReceiptServiceTest {
                 .totalAmountOfRepairing(726)
                 .build();
 
-
         Receipt updatedReceipt = Receipt.builder()
                 .id(1)
                 .carLicensePlate("81-pn-pk")
@@ -239,7 +270,7 @@ public class ReceiptServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         RepairOperations repairOperation = RepairOperations.builder()
@@ -269,10 +300,10 @@ public class ReceiptServiceTest {
                 .totalAmountOfRepairing(726)
                 .build();
 
-        when(receiptRepository.findById(receipt.getId())).thenReturn(Optional.of(receipt));
-
-        when(receiptRepository.saveAndFlush(receipt)).thenReturn(receipt);
+        when(receiptRepository.deleteByIds(Collections.singletonList(receipt.getId()))).thenReturn(1);
         assertEquals(200, receiptService.deleteReceipt(1).getStatusCode());
+        verify(receiptRepository).deleteRepairOperationLines(Collections.singletonList(receipt.getId()));
+        verify(receiptRepository).deletePartLines(Collections.singletonList(receipt.getId()));
     }
 
     @Test
@@ -288,7 +319,7 @@ public class ReceiptServiceTest {
                 .id(1)
                 .customer(customer)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         RepairOperations repairOperation = RepairOperations.builder()
@@ -320,6 +351,7 @@ public class ReceiptServiceTest {
 
         when(receiptRepository.findById(receipt.getId())).thenReturn(Optional.of(receipt));
         when(receiptRepository.save(receipt)).thenReturn(receipt);
+        when(receiptRepository.deleteByIds(Collections.singletonList(receipt.getId()))).thenReturn(1);
         assertEquals(200, receiptService.deleteReceipt(1).getStatusCode());
     }
 }
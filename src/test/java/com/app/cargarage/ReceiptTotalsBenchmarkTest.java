@@ -0,0 +1,130 @@
+package com.app.cargarage;
+
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Part;
+import com.app.cargarage.model.Receipt;
+import com.app.cargarage.model.RepairOperations;
+import com.app.cargarage.model.RepairStatus;
+import com.app.cargarage.repository.CarRepository;
+import com.app.cargarage.repository.PartRepository;
+import com.app.cargarage.repository.ReceiptRepository;
+import com.app.cargarage.repository.RepairOperationsRepository;
+import com.app.cargarage.service.ReceiptServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the previous entity-walking receipt generation with the aggregate query engine on a car with a long
+ * work order. Runs against the configured database with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class ReceiptTotalsBenchmarkTest {
+    private static final int LINES = 500;
+    private static final int ROUNDS = 20;
+    // the database sums in a different order than the loop, so the totals may differ in the last bits
+    private static final double TOLERANCE = 1e-6;
+
+    @Autowired
+    ReceiptServiceImpl receiptService;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    PartRepository partRepository;
+    @Autowired
+    RepairOperationsRepository repairOperationsRepository;
+    @Autowired
+    ReceiptRepository receiptRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void generateReceiptBenchmark() {
+        String licensePlate = "BENCH-" + System.nanoTime();
+        seedCar(licensePlate);
+
+        Receipt legacyReceipt = null;
+        long legacyStart = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            legacyReceipt = transactionTemplate.execute(status -> legacyGenerateReceipt(licensePlate));
+        }
+        long legacyNanos = System.nanoTime() - legacyStart;
+
+        Receipt engineReceipt = null;
+        long engineStart = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            engineReceipt = (Receipt) receiptService.generateReceipt(licensePlate).getResult();
+        }
+        long engineNanos = System.nanoTime() - engineStart;
+
+        System.out.printf("generateReceipt with %d operations and %d parts: legacy %.2f ms/receipt, engine %.2f ms/receipt%n",
+                LINES, LINES, legacyNanos / 1e6 / ROUNDS, engineNanos / 1e6 / ROUNDS);
+
+        assertEquals(legacyReceipt.getRepairOperationsAmount(), engineReceipt.getRepairOperationsAmount(), TOLERANCE);
+        assertEquals(legacyReceipt.getPartsAmount(), engineReceipt.getPartsAmount(), TOLERANCE);
+        assertEquals(legacyReceipt.getTotalAmountOfRepairing(), engineReceipt.getTotalAmountOfRepairing(), TOLERANCE);
+    }
+
+    private void seedCar(String licensePlate) {
+        transactionTemplate.execute(status -> {
+            List<RepairOperations> operations = new ArrayList<>();
+            List<Part> parts = new ArrayList<>();
+            for (int i = 0; i < LINES; i++) {
+                operations.add(repairOperationsRepository.save(RepairOperations.builder()
+                        .repairAction("Benchmark operation " + i)
+                        .price(25 + (i % 8) * 12.5)
+                        .build()));
+                parts.add(partRepository.save(Part.builder()
+                        .name("Benchmark part " + i)
+                        .price(10 + (i % 16) * 2.25)
+                        .stock(100)
+                        .build()));
+            }
+            Car car = Car.builder()
+                    .licensePlate(licensePlate)
+                    .repairStatus(RepairStatus.PENDING)
+                    .repairOperationsList(operations)
+                    .partsList(parts)
+                    .build();
+            return carRepository.save(car);
+        });
+    }
+
+    private Receipt legacyGenerateReceipt(String licensePlate) {
+        Car car = carRepository.findCarByLicensePlate(licensePlate).orElseThrow(IllegalStateException::new);
+        Receipt receipt = new Receipt();
+        receipt.setCarLicensePlate(licensePlate);
+        receipt.setInspectionAmount(45.0);
+        receipt.setStatus("pending");
+
+        double totalRepairingOperationsAmount = 0;
+        for (RepairOperations operation : car.getRepairOperationsList()) {
+            receipt.getRepairOperationsList().add(operation);
+            totalRepairingOperationsAmount = operation.getPrice() + totalRepairingOperationsAmount;
+        }
+        receipt.setRepairOperationsAmount(totalRepairingOperationsAmount);
+
+        double totalPartsInstallationAmount = 0;
+        for (Part part : car.getPartsList()) {
+            receipt.getPartsList().add(part);
+            totalPartsInstallationAmount = part.getPrice() + totalPartsInstallationAmount;
+        }
+        receipt.setPartsAmount(totalPartsInstallationAmount);
+
+        receipt.setTotalAmountOfRepairing(receipt.getTotalAmountOfRepairing()
+                + receipt.getPartsAmount()
+                + receipt.getInspectionAmount()
+                + receipt.getRepairOperationsAmount());
+        receipt.setTotalAmountOfRepairing(receipt.getTotalAmountOfRepairing()
+                + (0.21 * receipt.getTotalAmountOfRepairing()));
+        return receiptRepository.save(receipt);
+    }
+}
@@ -1,5 +1,7 @@
 package com.app.cargarage;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.model.RepairOperations;
 import com.app.cargarage.repository.RepairOperationsRepository;
 import com.app.cargarage.service.RepairOperationsServiceImpl;
@@ -8,6 +10,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.transaction.Transactional;
@@ -17,6 +21,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -38,8 +44,8 @@ public class RepairOperationsServiceTest {
                 .build();
 
         List<RepairOperations> repairOperationsList = new ArrayList<>(Collections.singletonList(repairOperation));
-        when(repairOperationsRepository.findAll()).thenReturn(repairOperationsList);
-        assertEquals(repairOperationsList, repairOperationsService.listOfRepairOperations().getResult());
+        when(repairOperationsRepository.findPage(anyLong(), anyLong(), any(), any(Pageable.class))).thenReturn(new SliceImpl<>(repairOperationsList));
+        assertEquals(repairOperationsList, ((CursorPage<?>) repairOperationsService.listOfRepairOperations(new PageQuery(), null).getResult()).getItems());
     }
 
     @Test
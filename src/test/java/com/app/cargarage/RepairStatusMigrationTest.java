@@ -0,0 +1,51 @@
+package com.app.cargarage;
+
+import com.app.cargarage.config.RepairStatusMigration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.transaction.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@Transactional
+class RepairStatusMigrationTest {
+
+    @Autowired
+    RepairStatusMigration repairStatusMigration;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migratesLegacyLabelsTest() {
+        insertCar("MIGRATE-1", "Under Repairing");
+        insertCar("MIGRATE-2", "repaired");
+        insertCar("MIGRATE-3", "Not Carried out");
+        insertCar("MIGRATE-4", "PENDING");
+        insertCar("MIGRATE-5", "scrapped");
+
+        repairStatusMigration.afterPropertiesSet();
+        repairStatusMigration.afterPropertiesSet();
+
+        assertEquals("UNDER_REPAIRING", repairStatus("MIGRATE-1"));
+        assertEquals("REPAIRED", repairStatus("MIGRATE-2"));
+        assertEquals("NOT_CARRIED_OUT", repairStatus("MIGRATE-3"));
+        assertEquals("PENDING", repairStatus("MIGRATE-4"));
+        assertNull(repairStatus("MIGRATE-5"));
+    }
+
+    private void insertCar(String licensePlate, String repairStatus) {
+        jdbcTemplate.update("insert into cars (id, license_plate, repair_status) select coalesce(max(id), 0) + 1000000, ?, ? from cars", licensePlate, repairStatus);
+    }
+
+    private String repairStatus(String licensePlate) {
+        return jdbcTemplate.queryForObject("select repair_status from cars where license_plate = ?", String.class, licensePlate);
+    }
+}
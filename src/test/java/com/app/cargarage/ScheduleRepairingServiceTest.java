@@ -1,7 +1,10 @@
 package com.app.cargarage;
 
+import com.app.cargarage.dto.CursorPage;
+import com.app.cargarage.dto.PageQuery;
 import com.app.cargarage.model.Car;
 import com.app.cargarage.model.RepairOperations;
+import com.app.cargarage.model.RepairStatus;
 import com.app.cargarage.model.ScheduleRepairing;
 import com.app.cargarage.repository.CarRepository;
 import com.app.cargarage.repository.RepairOperationsRepository;
@@ -13,6 +16,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.transaction.Transactional;
@@ -24,6 +29,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -44,7 +51,7 @@ public class ScheduleRepairingServiceTest {
         Car car = Car.builder()
                 .id(1)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         ScheduleRepairing scheduleRepairing = ScheduleRepairing.builder()
@@ -55,10 +62,11 @@ public class ScheduleRepairingServiceTest {
                 .status("Under Repairing")
                 .build();
 
-        when(carRepository.findCarByLicensePlate(car.getLicensePlate())).thenReturn(Optional.of(car));
+        when(carRepository.findIdByLicensePlate("81PNPK")).thenReturn(Optional.of(car.getId()));
+        when(carRepository.findById(car.getId())).thenReturn(Optional.of(car));
         when(carRepository.save(car)).thenReturn(car);
         when(scheduleRepairingRepository.save(scheduleRepairing)).thenReturn(scheduleRepairing);
-        assertEquals(scheduleRepairing, scheduleRepairingService.createRepairSchedule("81-pn-pk", scheduleRepairing).getResult());
+        assertEquals(scheduleRepairing, scheduleRepairingService.createRepairSchedule("81PNPK", scheduleRepairing).getResult());
     }
 
     @Test
@@ -66,7 +74,7 @@ public class ScheduleRepairingServiceTest {
         Car car = Car.builder()
                 .id(1)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         ScheduleRepairing scheduleRepairing = ScheduleRepairing.builder()
@@ -78,8 +86,8 @@ public class ScheduleRepairingServiceTest {
                 .build();
 
         List<ScheduleRepairing> scheduleRepairingList = new ArrayList<>(Collections.singletonList(scheduleRepairing));
-        when(scheduleRepairingRepository.findAll()).thenReturn(scheduleRepairingList);
-        assertEquals(scheduleRepairingList, scheduleRepairingService.listOfRepairSchedules().getResult());
+        when(scheduleRepairingRepository.findPage(anyLong(), anyLong(), any(), any(Pageable.class))).thenReturn(new SliceImpl<>(scheduleRepairingList));
+        assertEquals(scheduleRepairingList, ((CursorPage<?>) scheduleRepairingService.listOfRepairSchedules(new PageQuery(), null).getResult()).getItems());
     }
 
     @Test
@@ -87,7 +95,7 @@ public class ScheduleRepairingServiceTest {
         Car car = Car.builder()
                 .id(1)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         ScheduleRepairing scheduleRepairing = ScheduleRepairing.builder()
@@ -116,7 +124,7 @@ public class ScheduleRepairingServiceTest {
         Car car = Car.builder()
                 .id(1)
                 .licensePlate("81-pn-pk")
-                .repairStatus("pending")
+                .repairStatus(RepairStatus.PENDING)
                 .build();
 
         ScheduleRepairing scheduleRepairing = ScheduleRepairing.builder()
@@ -127,7 +135,7 @@ public class ScheduleRepairingServiceTest {
                 .status("Under Repairing")
                 .build();
 
-        when(scheduleRepairingRepository.findById(scheduleRepairing.getId())).thenReturn(Optional.of(scheduleRepairing));
+        when(scheduleRepairingRepository.deleteByIds(Collections.singletonList(scheduleRepairing.getId()))).thenReturn(1);
         assertEquals(200, scheduleRepairingService.deleteScheduleRepairing(1).getStatusCode());
     }
 }
@@ -0,0 +1,64 @@
+package com.app.cargarage;
+
+import com.app.cargarage.dto.PageQuery;
+import com.app.cargarage.dto.ResponseDto;
+import com.app.cargarage.model.Car;
+import com.app.cargarage.model.Customer;
+import com.app.cargarage.model.ScheduleRepairing;
+import com.app.cargarage.service.CarService;
+import com.app.cargarage.service.ScheduleRepairingService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that each service call runs as one unit of work: one connection and one transaction, however many
+ * repository calls it makes.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ServiceTransactionTest {
+
+    @Autowired
+    CarService carService;
+    @Autowired
+    ScheduleRepairingService scheduleRepairingService;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Car car;
+
+    @BeforeEach
+    void addCar() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Customer customer = Customer.builder().surname("Transaction").phoneNumber("0612066676").build();
+        car = (Car) carService.addCar(Car.builder().licensePlate("TX-" + System.nanoTime()).customer(customer).build()).getResult();
+    }
+
+    @Test
+    void writeUsesOneConnectionAndTransactionTest() {
+        statistics.clear();
+        ResponseDto response = scheduleRepairingService.createRepairSchedule(car.getLicensePlate(), ScheduleRepairing.builder().status("planned").build());
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, statistics.getConnectCount());
+        assertEquals(1, statistics.getTransactionCount());
+    }
+
+    @Test
+    void readUsesOneConnectionAndWritesNothingTest() {
+        statistics.clear();
+        ResponseDto response = carService.listOfCars(PageQuery.builder().size(20).build(), null);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, statistics.getConnectCount());
+        assertEquals(0, statistics.getEntityUpdateCount() + statistics.getEntityInsertCount());
+    }
+}
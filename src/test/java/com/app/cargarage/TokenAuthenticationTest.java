@@ -0,0 +1,130 @@
+package com.app.cargarage;
+
+import com.app.cargarage.repository.UserRepository;
+import com.app.cargarage.service.TokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "documents.store-path=target/test-documents")
+@AutoConfigureMockMvc
+class TokenAuthenticationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BCryptPasswordEncoder encoder;
+
+    @Test
+    void loginIssuesTokensThatAuthorizeByRoleTest() throws Exception {
+        JsonNode tokens = login("cashier", "cashier");
+
+        mockMvc.perform(get("/receipts/list").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.path("accessToken").asText()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.path("accessToken").asText()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void wrongPasswordIsRejectedTest() throws Exception {
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"cashier\",\"password\":\"wrong\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void tamperedTokenIsRejectedTest() throws Exception {
+        String accessToken = login("cashier", "cashier").path("accessToken").asText();
+        String[] parts = accessToken.split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8).replace("ROLE_CASHIER", "ROLE_ADMIN");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+
+    @Test
+    void refreshTokenBuysNewTokensButIsNoAccessTokenTest() throws Exception {
+        String refreshToken = login("admin", "admin").path("refreshToken").asText();
+
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken))
+                .andExpect(status().isUnauthorized());
+        MvcResult result = mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String accessToken = objectMapper.readTree(result.getResponse().getContentAsString()).path("result").path("accessToken").asText();
+        mockMvc.perform(get("/parts/list").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void refreshForARemovedUserIsUnauthorizedTest() throws Exception {
+        userRepository.save(com.app.cargarage.model.User.builder().fullName("Refresh Test").username("refreshtest")
+                .password(encoder.encode("secret")).role("ROLE_CASHIER").build());
+        String refreshToken = login("refreshtest", "secret").path("refreshToken").asText();
+        userRepository.delete(userRepository.getUserByUsername("refreshtest"));
+
+        mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void expiredAndForeignTokensAreRejectedTest() {
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        User user = new User("admin", "", Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        TokenService expired = new TokenService(objectMapper, secret, false, Duration.ofSeconds(-1), Duration.ofSeconds(-1));
+        TokenService otherKey = new TokenService(objectMapper, "", true, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        TokenService valid = new TokenService(objectMapper, secret, false, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertThrows(BadCredentialsException.class, () -> valid.authenticate(expired.issue(user).getAccessToken()));
+        assertThrows(BadCredentialsException.class, () -> valid.authenticate(otherKey.issue(user).getAccessToken()));
+        String unsigned = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8))
+                + valid.issue(user).getAccessToken().substring(valid.issue(user).getAccessToken().indexOf('.'));
+        assertThrows(BadCredentialsException.class, () -> valid.authenticate(unsigned));
+        assertEquals("admin", valid.authenticate(valid.issue(user).getAccessToken()).getName());
+    }
+
+    @Test
+    void missingSecretFailsStartupUnlessRandomKeysAreAllowedTest() {
+        assertThrows(IllegalStateException.class, () -> new TokenService(objectMapper, " ", false, Duration.ofMinutes(1), Duration.ofMinutes(1)));
+    }
+
+    private JsonNode login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("result");
+    }
+}
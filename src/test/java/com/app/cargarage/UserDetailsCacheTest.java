@@ -0,0 +1,86 @@
+package com.app.cargarage;
+
+import com.app.cargarage.model.User;
+import com.app.cargarage.repository.UserRepository;
+import com.app.cargarage.service.CredentialCache;
+import com.app.cargarage.service.UserDetailsCache;
+import com.app.cargarage.service.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "documents.store-path=target/test-documents")
+class UserDetailsCacheTest {
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private BCryptPasswordEncoder encoder;
+
+    @Test
+    void seededUsersAreServedFromTheCacheTest() {
+        userDetailsCache.evictAll();
+        userService.warmUpUserDetails(Collections.singletonList("mechanic"));
+        assertNotNull(userDetailsCache.get("mechanic"));
+
+        UserDetails first = userService.loadUserByUsername("mechanic");
+        UserDetails second = userService.loadUserByUsername("mechanic");
+
+        assertSame(first, second);
+        assertEquals("ROLE_MECHANIC", first.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void cachedUserSurvivesCredentialErasureTest() {
+        for (int i = 0; i < 2; i++) {
+            credentialCache.evictAll();
+            assertTrue(authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("back", "back")).isAuthenticated());
+        }
+        assertNotNull(userService.loadUserByUsername("back").getPassword());
+    }
+
+    @Test
+    void createUpdateAndDeleteInvalidateTheCacheTest() {
+        userRepository.save(User.builder().fullName("Cache Test").username("usercachetest")
+                .password(encoder.encode("secret")).role("ROLE_BACKOFFICE").build());
+        assertEquals("ROLE_BACKOFFICE", userService.loadUserByUsername("usercachetest").getAuthorities().iterator().next().getAuthority());
+
+        User user = userRepository.getUserByUsername("usercachetest");
+        user.setRole("ROLE_CASHIER");
+        userRepository.save(user);
+        assertNull(userDetailsCache.get("usercachetest"));
+        assertEquals("ROLE_CASHIER", userService.loadUserByUsername("usercachetest").getAuthorities().iterator().next().getAuthority());
+
+        userRepository.delete(userRepository.getUserByUsername("usercachetest"));
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("usercachetest"));
+    }
+
+    @Test
+    void userCacheMayNotOutliveTheCredentialCacheTest() {
+        assertThrows(IllegalStateException.class,
+                () -> new UserDetailsCache(new SimpleMeterRegistry(), Duration.ofMinutes(5), 10, Duration.ofSeconds(10)));
+    }
+}